@@ -0,0 +1,134 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * 헤더를 주입한 요청의 헤더 열거 비용 비교.<br>
+ * * copying*: 기존 구현 (getHeaderNames마다 모든 이름을 HashSet에 복사, 대소문자 구분)<br>
+ * * overlay*: {@link MutableHttpServletRequest} (복사 없이 열거, 대소문자 무관)<br>
+ * 각 벤치마크는 요청 생성과 헤더 주입부터 다운스트림이 헤더를 읽는 것까지 포함한다.
+ * 할당량은 -prof gc로 확인한다.
+ * <p></p>
+ * ./gradlew jmh -Pjmh.includes=MutableHttpServletRequestBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MutableHttpServletRequestBenchmark {
+
+    /**
+     * 원래 요청의 헤더 수
+     */
+    @Param({"8", "24"})
+    public int headers;
+
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/orders");
+        request.addHeader(StaticValues.X_SP_CUSTOMER_ID, "20220712112147hilbmq");
+        for (int i = 1; i < headers; i++) {
+            request.addHeader("x-header-" + i, "value-" + i);
+        }
+    }
+
+    @Benchmark
+    public void copyingHeaderNames(Blackhole blackhole) {
+        CopyingRequest wrapped = new CopyingRequest(request);
+        wrapped.putHeader(StaticValues.X_SP_XO_MIGRATION_YN, "Y");
+        enumerate(wrapped.getHeaderNames(), blackhole);
+    }
+
+    @Benchmark
+    public void overlayHeaderNames(Blackhole blackhole) {
+        MutableHttpServletRequest wrapped = new MutableHttpServletRequest(request);
+        wrapped.putHeader(StaticValues.X_SP_XO_MIGRATION_YN, "Y");
+        enumerate(wrapped.getHeaderNames(), blackhole);
+    }
+
+    /**
+     * @RequestHeader Map과 같이 모든 이름과 값을 읽는다.
+     */
+    @Benchmark
+    public void copyingAllHeaders(Blackhole blackhole) {
+        CopyingRequest wrapped = new CopyingRequest(request);
+        wrapped.putHeader(StaticValues.X_SP_XO_MIGRATION_YN, "Y");
+        Enumeration<String> names = wrapped.getHeaderNames();
+        while (names.hasMoreElements()) {
+            blackhole.consume(wrapped.getHeader(names.nextElement()));
+        }
+    }
+
+    @Benchmark
+    public void overlayAllHeaders(Blackhole blackhole) {
+        MutableHttpServletRequest wrapped = new MutableHttpServletRequest(request);
+        wrapped.putHeader(StaticValues.X_SP_XO_MIGRATION_YN, "Y");
+        Enumeration<String> names = wrapped.getHeaderNames();
+        while (names.hasMoreElements()) {
+            enumerate(wrapped.getHeaders(names.nextElement()), blackhole);
+        }
+    }
+
+    private static void enumerate(Enumeration<String> values, Blackhole blackhole) {
+        while (values.hasMoreElements()) {
+            blackhole.consume(values.nextElement());
+        }
+    }
+
+    /**
+     * 기존 구현
+     */
+    private static final class CopyingRequest extends HttpServletRequestWrapper {
+        private final Map<String, String> customHeaders = new HashMap<>();
+
+        private CopyingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        private void putHeader(String name, String value) {
+            customHeaders.put(name, value);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String headerValue = customHeaders.get(name);
+            return headerValue != null ? headerValue : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            Set<String> set = new HashSet<>(customHeaders.keySet());
+            Enumeration<String> e = super.getHeaderNames();
+            while (e.hasMoreElements()) {
+                set.add(e.nextElement());
+            }
+            return Collections.enumeration(set);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import kr.co.starbucks.spfilterredis.SpFilterRedisApplication;
+import kr.co.starbucks.spfilterredis.filter.capture.TrafficCapture;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalMigrationStatusRedisReactiveRepository;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalRouteStatusScriptRepository;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalSessionRedisReactiveRepository;
+import kr.co.starbucks.spfilterredis.filter.model.PrincipalSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link RequestFilter#doFilter} 전체 경로(경로 규칙 선택, CustomerId/세션 ID 추출, 세션 및 마이그레이션 상태 조회, 헤더 주입,
+ * 다운스트림의 헤더 읽기) 비용.<br>
+ * * MOCK: 레디스 조회를 즉시 값을 돌려주는 Mono로 대신한다. 필터 자체의 CPU 비용과 할당만 본다.<br>
+ * * EMBEDDED: 어플리케이션 컨텍스트(local 프로파일, 임베디드 레디스 6379)의 필터 빈으로 실제 레디스를 조회한다.<br>
+ * * source: CustomerId를 얻는 경로. CUSTOMER_ID(x-sp-customer-id 헤더, 세션 조회 없음), SESSION_HEADER(JSESSIONID 헤더),
+ * SESSION_COOKIE(분석용 쿠키 사이의 JSESSIONID)<br>
+ * 세션 값 디코딩은 SessionValueDecodingBenchmark, 헤더 주입과 열거는 MutableHttpServletRequestBenchmark에서 따로 비교한다.
+ * 할당량은 gc 프로파일러(build.gradle의 jmh.profilers)로 함께 출력된다.
+ * <p></p>
+ * ./gradlew jmh -Pjmh.includes=RequestFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestFilterBenchmark {
+
+    private static final String SESSION_ID = "3CB361E0BE1A9A7DE7DB926DF0772BAE";
+    private static final String CUSTOMER_ID = "20220712112147hilbmq";
+
+    public enum Redis {
+        MOCK, EMBEDDED
+    }
+
+    public enum Source {
+        CUSTOMER_ID, SESSION_HEADER, SESSION_COOKIE
+    }
+
+    @Param({"MOCK", "EMBEDDED"})
+    public Redis redis;
+
+    @Param({"CUSTOMER_ID", "SESSION_HEADER", "SESSION_COOKIE"})
+    public Source source;
+
+    private ConfigurableApplicationContext context;
+
+    private RequestFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = redis == Redis.MOCK ? mockedFilter() : embeddedFilter();
+
+        request = new MockHttpServletRequest("GET", "/orders/recent");
+        request.addHeader(HttpHeaders.ACCEPT, "application/json");
+        request.addHeader(HttpHeaders.USER_AGENT, "Mozilla/5.0 (iPhone; CPU iPhone OS 16_0 like Mac OS X) AppleWebKit/605.1.15");
+        switch (source) {
+            case CUSTOMER_ID:
+                request.addHeader(StaticValues.X_SP_CUSTOMER_ID, CUSTOMER_ID);
+                break;
+            case SESSION_HEADER:
+                request.addHeader(StaticValues.JSESSIONID, SESSION_ID);
+                break;
+            case SESSION_COOKIE:
+                request.addHeader(HttpHeaders.COOKIE, "_ga=GA1.3.1234567890.1668215000; _gid=GA1.3.987654321.1668215000; "
+                    + "JSESSIONID=" + SESSION_ID + "; _fbp=fb.2.1668215000123.1234567890");
+                break;
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public void doFilter(Blackhole blackhole) throws IOException, ServletException {
+        // 다운스트림은 주입된 헤더를 읽는다.
+        FilterChain chain = (req, res) -> blackhole.consume(((HttpServletRequest) req).getHeader(StaticValues.X_SP_XO_MIGRATION_YN));
+        filter.doFilter(request, response, chain);
+    }
+
+    private RequestFilter mockedFilter() {
+        PrincipalSessionRedisReactiveRepository sessionRepository =
+            mock(PrincipalSessionRedisReactiveRepository.class, withSettings().stubOnly());
+        when(sessionRepository.getPrincipalSession(anyString())).thenReturn(Mono.just(PrincipalSession.builder()
+            .attributes(Map.of(StaticValues.USER_ID, "test", StaticValues.USER_NAME, "test", StaticValues.SCK_MBBR_NO, CUSTOMER_ID))
+            .member(true)
+            .build()));
+
+        PrincipalMigrationStatusRedisReactiveRepository migrationStatusRepository =
+            mock(PrincipalMigrationStatusRedisReactiveRepository.class, withSettings().stubOnly());
+        when(migrationStatusRepository.getPrincipalMigrationStatuses(anyString(), anyList()))
+            .thenReturn(Mono.just(Map.of(RouteId.XO_SP_ROUTE.name(), "ACTIVE")));
+        when(migrationStatusRepository.getPrincipalMigrationStatus(anyString(), any()))
+            .thenReturn(Mono.just("ACTIVE"));
+
+        RequestFilterProperties properties = new RequestFilterProperties();
+        PrincipalMigrationStatusResolver resolver = new PrincipalMigrationStatusResolver(
+            sessionRepository,
+            migrationStatusRepository,
+            new StaticListableBeanFactory().getBeanProvider(PrincipalRouteStatusScriptRepository.class),
+            properties,
+            new SimpleMeterRegistry()
+        );
+        return new RequestFilter(resolver, properties, new StaticListableBeanFactory().getBeanProvider(TrafficCapture.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RequestFilter embeddedFilter() {
+        context = new SpringApplicationBuilder(SpFilterRedisApplication.class).run("--server.port=0");
+
+        // SampleService.addTestUser()와 같은 데이터를 조회 전에 모두 기록해 둔다.
+        ReactiveRedisTemplate<String, Object> sessionTemplate =
+            context.getBean("principalSessionRedisHashTemplate", ReactiveRedisTemplate.class);
+        sessionTemplate.opsForHash()
+            .put(SESSION_ID, "LoginUserInfo",
+                Map.of(StaticValues.USER_ID, "test", StaticValues.USER_NAME, "test", StaticValues.SCK_MBBR_NO, CUSTOMER_ID))
+            .block();
+        context.getBean("principalMigrationStatusRedisTemplate", ReactiveStringRedisTemplate.class).opsForHash()
+            .put(CUSTOMER_ID, RouteId.XO_SP_ROUTE.name(), "ACTIVE")
+            .block();
+
+        return context.getBean(RequestFilter.class);
+    }
+}
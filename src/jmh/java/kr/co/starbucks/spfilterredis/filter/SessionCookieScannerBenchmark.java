@@ -0,0 +1,101 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.Cookie;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import org.apache.tomcat.util.http.MimeHeaders;
+import org.apache.tomcat.util.http.Rfc6265CookieProcessor;
+import org.apache.tomcat.util.http.ServerCookie;
+import org.apache.tomcat.util.http.ServerCookies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cookie 헤더에서 JSESSIONID를 찾는 비용 비교.<br>
+ * * tomcatGetCookies: request.getCookies()와 같은 경로 (Rfc6265CookieProcessor로 모든 쿠키 파싱 후 Cookie 객체로 변환, 이름으로 탐색)<br>
+ * * scanner: {@link SessionCookieScanner} (헤더 원문에서 JSESSIONID 값만)<br>
+ * 헤더는 분석용 쿠키(_ga, _gid, _fbp, amplitude 등 수백 바이트 값 포함) 사이에 JSESSIONID가 있는 형태이다.
+ * 할당량은 -prof gc로 확인한다.
+ * <p></p>
+ * ./gradlew jmh -Pjmh.includes=SessionCookieScannerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionCookieScannerBenchmark {
+
+    /**
+     * JSESSIONID 외 쿠키 수
+     */
+    @Param({"8", "24"})
+    public int cookies;
+
+    private final Rfc6265CookieProcessor cookieProcessor = new Rfc6265CookieProcessor();
+
+    private final SessionCookieScanner scanner = new SessionCookieScanner(StaticValues.JSESSIONID, false);
+
+    private MimeHeaders headers;
+
+    private ServerCookies serverCookies;
+
+    private String cookieHeader;
+
+    @Setup
+    public void setUp() {
+        StringJoiner joiner = new StringJoiner("; ");
+        joiner.add("_ga=GA1.3.1234567890.1668215000");
+        joiner.add("_gid=GA1.3.987654321.1668215000");
+        joiner.add("_fbp=fb.2.1668215000123.1234567890");
+        for (int i = 3; i < cookies; i++) {
+            if (i % 4 == 0) {
+                joiner.add("amp_" + i + "=" + "eyJkZXZpY2VJZCI6IjEyMzQ1Njc4OTAiLCJ1c2VySWQiOm51bGx9".repeat(6));
+            } else {
+                joiner.add("analytics_" + i + "=" + "v" + i + "-0123456789abcdef0123456789abcdef");
+            }
+            if (i == cookies / 2) {
+                joiner.add("JSESSIONID=B1C4A3D2E5F60718293A4B5C6D7E8F90");
+            }
+        }
+        cookieHeader = joiner.toString();
+
+        headers = new MimeHeaders();
+        headers.addValue("Cookie").setString(cookieHeader);
+        serverCookies = new ServerCookies(4);
+    }
+
+    @Benchmark
+    public String tomcatGetCookies() {
+        serverCookies.recycle();
+        cookieProcessor.parseCookieHeader(headers, serverCookies);
+        // Request.convertCookies()와 같이 모든 쿠키를 Cookie 객체로 만든 뒤 이름으로 찾는다.
+        Cookie[] converted = new Cookie[serverCookies.getCookieCount()];
+        for (int i = 0; i < converted.length; i++) {
+            ServerCookie serverCookie = serverCookies.getCookie(i);
+            converted[i] = new Cookie(serverCookie.getName().toString(), serverCookie.getValue().toString());
+        }
+        for (Cookie cookie : converted) {
+            if (StaticValues.JSESSIONID.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String scanner() {
+        return scanner.scan(cookieHeader);
+    }
+}
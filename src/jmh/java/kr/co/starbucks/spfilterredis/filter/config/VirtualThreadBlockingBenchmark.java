@@ -0,0 +1,77 @@
+package kr.co.starbucks.spfilterredis.filter.config;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+/**
+ * RequestFilter의 block() 대기를 플랫폼 스레드 풀과 가상 스레드에서 실행했을 때의 처리량과 지연시간(p99) 비교.<br>
+ * <p></p>
+ * * JMH 스레드(@Threads) 하나가 동시 요청을 보내는 클라이언트 하나이며, 요청은 executor(= Tomcat 워커)에서
+ * 주입된 레디스 지연(redisLatencyMillis)만큼 Mono를 block()한다.<br>
+ * * platform: Tomcat 기본값과 같은 200개 고정 스레드 풀. 동시 요청이 이보다 많으면 대기열에서 기다린다.<br>
+ * * virtual: {@link VirtualThreadConfiguration#newVirtualThreadPerTaskExecutor()}. JDK 21 이상에서만 실행된다.
+ * <p></p>
+ * ./gradlew jmh -Pjmh.includes=VirtualThreadBlockingBenchmark (SampleTime 결과의 p0.99 참고)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(1000)
+@Fork(1)
+public class VirtualThreadBlockingBenchmark {
+
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String executorType;
+
+    @Param({"5", "50"})
+    public long redisLatencyMillis;
+
+    private ExecutorService executor;
+
+    private Duration latency;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        latency = Duration.ofMillis(redisLatencyMillis);
+        if ("virtual".equals(executorType)) {
+            executor = VirtualThreadConfiguration.newVirtualThreadPerTaskExecutor()
+                .orElseThrow(() -> new IllegalStateException(
+                    "Virtual threads are not supported on Java " + System.getProperty("java.version")));
+        } else {
+            executor = Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Object request() throws ExecutionException, InterruptedException {
+        // 레디스 응답은 Lettuce 이벤트 루프에서 오는 것처럼 Mono.delay(parallel 스케줄러)로 흉내낸다.
+        return executor.submit(() -> Mono.delay(latency).block()).get();
+    }
+}
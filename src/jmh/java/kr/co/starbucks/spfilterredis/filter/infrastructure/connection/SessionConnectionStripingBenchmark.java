@@ -0,0 +1,139 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.connection;
+
+import io.lettuce.core.resource.ClientResources;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import redis.embedded.RedisServer;
+
+/**
+ * 세션 레디스 커넥션 개수에 따른 HMGET 처리량 비교.<br>
+ * <p></p>
+ * * 임베디드 레디스에 작은 세션(수백 바이트)과 큰 세션(largeValueKb)을 섞어 두고, 동시 요청(@Threads)이 세션을 조회한다.
+ * 큰 세션의 응답을 읽는 동안 같은 커넥션의 다른 응답은 기다려야 한다(Head-of-line blocking).<br>
+ * * STRIPED: connections개의 공유 커넥션에 세션 ID의 해시로 나누어 보낸다. connections=1은 기존 단일 커넥션과 같다.<br>
+ * * POOLED: 최대 connections개의 풀에서 명령마다 커넥션을 빌린다.
+ * <p></p>
+ * ./gradlew jmh -Pjmh.includes=SessionConnectionStripingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+@Fork(1)
+public class SessionConnectionStripingBenchmark {
+
+    private static final int PORT = 6390;
+    private static final int SMALL_SESSIONS = 1000;
+    private static final int LARGE_SESSIONS = 20;
+    private static final List<String> SESSION_KEYS = List.of("LoginUserInfo", "LoginAppId", "UserType");
+
+    @Param({"STRIPED", "POOLED"})
+    public RedisConnectionProperties.Mode mode;
+
+    @Param({"1", "2", "4", "8"})
+    public int connections;
+
+    @Param({"256"})
+    public int largeValueKb;
+
+    /**
+     * 조회 중 큰 세션의 비율(%)
+     */
+    @Param({"2"})
+    public int largePercent;
+
+    private RedisServer redisServer;
+
+    private ClientResources clientResources;
+
+    private LettuceConnectionFactory primaryFactory;
+
+    private StripedReactiveRedisTemplate<String, String> templates;
+
+    private String[] smallSessionIds;
+
+    private String[] largeSessionIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redisServer = new RedisServer(PORT);
+        redisServer.start();
+
+        RedisConnectionProperties properties = new RedisConnectionProperties();
+        properties.setMode(mode);
+        properties.setStripes(connections);
+        properties.getPool().setMaxActive(connections);
+        properties.getPool().setMaxIdle(connections);
+        properties.getPool().setMinIdle(connections);
+        clientResources = LettuceConnectionFactories.clientResources(properties);
+
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration("localhost", PORT);
+        primaryFactory = LettuceConnectionFactories.create(configuration, properties, clientResources);
+        primaryFactory.afterPropertiesSet();
+        ReactiveRedisTemplate<String, String> primary = new ReactiveStringRedisTemplate(primaryFactory);
+        if (mode == RedisConnectionProperties.Mode.STRIPED) {
+            List<LettuceConnectionFactory> factories = new ArrayList<>();
+            for (int i = 1; i < connections; i++) {
+                factories.add(LettuceConnectionFactories.create(configuration, properties, clientResources));
+            }
+            templates = new StripedReactiveRedisTemplate<>(primary, factories, ReactiveStringRedisTemplate::new);
+        } else {
+            templates = StripedReactiveRedisTemplate.single(primary);
+        }
+
+        smallSessionIds = populate("small", SMALL_SESSIONS, 300);
+        largeSessionIds = populate("large", LARGE_SESSIONS, largeValueKb * 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        templates.destroy();
+        primaryFactory.destroy();
+        clientResources.shutdown();
+        redisServer.stop();
+    }
+
+    @Benchmark
+    public Object multiGet() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String sessionId = random.nextInt(100) < largePercent
+            ? largeSessionIds[random.nextInt(largeSessionIds.length)]
+            : smallSessionIds[random.nextInt(smallSessionIds.length)];
+        return templates.forKey(sessionId).<String, String>opsForHash().multiGet(sessionId, SESSION_KEYS).block();
+    }
+
+    private String[] populate(String prefix, int count, int valueBytes) {
+        String value = "x".repeat(valueBytes);
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = "spring:session:sessions:" + prefix + "-" + i;
+            templates.forKey(ids[i]).opsForHash()
+                .putAll(ids[i], Map.of("LoginUserInfo", value, "UserType", "MEMBER"))
+                .block();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,100 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.serializer;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+/**
+ * 세션 해시 값(LoginUserInfo) 디코딩 비교.<br>
+ * * jdkSerializer: 기존 JdkSerializationRedisSerializer (ObjectInputStream + 전체 HashMap)<br>
+ * * projectingReader: {@link ProjectingSessionValueReader} (ByteBuffer 직접 읽기, 필요한 키만)<br>
+ * * allowlistFallback: 디코더가 지원하지 않는 형태일 때 타는 허용 목록 JDK 경로
+ * <p></p>
+ * ./gradlew jmh -Pjmh.includes=SessionValueDecodingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionValueDecodingBenchmark {
+
+    /**
+     * 세션 Map의 엔트리 수 (필요한 키 3~5개 + 그 외 속성)
+     */
+    @Param({"8", "32"})
+    public int attributes;
+
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+    private ProjectingSessionValueReader projectingReader;
+
+    private AllowlistDeserializingConverter allowlistConverter;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> session = new HashMap<>();
+        session.put(StaticValues.USER_ID, "starbucks01");
+        session.put(StaticValues.USER_NAME, "홍길동");
+        session.put(StaticValues.SCK_MBBR_NO, "20220712112147hilbmq");
+        for (int i = session.size(); i < attributes; i++) {
+            session.put("attribute" + i, "value-" + i + "-0123456789");
+        }
+        payload = jdkSerializer.serialize(session);
+
+        SessionValueDecoderProperties properties = new SessionValueDecoderProperties();
+        projectingReader = new ProjectingSessionValueReader(properties.getProjectedKeys(), properties.getAllowedClasses());
+        allowlistConverter = new AllowlistDeserializingConverter(properties.getAllowedClasses());
+    }
+
+    @Benchmark
+    public Object jdkSerializer() {
+        return jdkSerializer.deserialize(payload);
+    }
+
+    @Benchmark
+    public Object projectingReader() {
+        return projectingReader.read(ByteBuffer.wrap(payload));
+    }
+
+    @Benchmark
+    public Object allowlistFallback() {
+        return allowlistConverter.convert(payload);
+    }
+
+    /**
+     * Lettuce가 넘겨주는 것과 같은 Direct ByteBuffer에서 읽는 경우
+     */
+    @State(Scope.Thread)
+    public static class DirectPayload {
+        private ByteBuffer buffer;
+
+        @Setup
+        public void setUp(SessionValueDecodingBenchmark benchmark) {
+            buffer = ByteBuffer.allocateDirect(benchmark.payload.length);
+            buffer.put(benchmark.payload).flip();
+        }
+    }
+
+    @Benchmark
+    public Object projectingReaderDirect(DirectPayload direct) {
+        return projectingReader.read(direct.buffer.duplicate());
+    }
+}
@@ -0,0 +1,199 @@
+package kr.co.starbucks.spfilterredis.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureFileReader;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureRecord;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureRecord.RouteStatus;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.Branch;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.enums.UserStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 세션 레디스와 마이그레이션 상태 레디스에 합성 데이터를 채운다.<br>
+ * <p></p>
+ * * 회원 세션: LoginUserInfo(userId, userName, sckMbbrNo, userType)와 UserType. 어플리케이션과 같은 템플릿(JDK 직렬화)으로 쓴다.<br>
+ * * 비회원 세션: LoginAppId(appId, userType)와 UserType<br>
+ * * 마이그레이션 상태: 회원의 CustomerId마다 ${sp-filter.routes}의 라우트별 ACTIVE 혹은 INACTIVE<br>
+ * * 캡처 재생({@link #seed(CaptureFileReader, LoadTestProperties.Seed)}): 캡처할 때 찾은 세션과 마이그레이션 상태만 재생용 ID로 채운다.<br>
+ * <p></p>
+ * SampleService.addTestUser()와 달리 모든 쓰기를 끝까지 기다린다. 쓰기는 응답을 기다리지 않고 한 커넥션에
+ * 최대 pipeline개까지 이어서 보낸다(Lettuce 파이프라이닝).
+ */
+@Slf4j
+class BulkDataSeeder {
+
+    private static final String USER_TYPE_KEY = "UserType";
+    private static final String MEMBER_SESSION_KEY = "LoginUserInfo";
+    private static final String GUEST_SESSION_KEY = "LoginAppId";
+    private static final String MEMBER_USER_TYPE = "1";
+    private static final String GUEST_USER_TYPE = "3";
+    private static final String INACTIVE = "INACTIVE";
+
+    private final ReactiveRedisTemplate<String, Object> sessionTemplate;
+
+    private final ReactiveStringRedisTemplate migrationStatusTemplate;
+
+    private final List<RequestFilterProperties.Route> routes;
+
+    BulkDataSeeder(
+        ReactiveRedisTemplate<String, Object> sessionTemplate,
+        ReactiveStringRedisTemplate migrationStatusTemplate,
+        List<RequestFilterProperties.Route> routes
+    ) {
+        this.sessionTemplate = sessionTemplate;
+        this.migrationStatusTemplate = migrationStatusTemplate;
+        this.routes = routes;
+    }
+
+    void seed(SyntheticKeyspace keyspace, LoadTestProperties.Seed properties) {
+        long start = System.nanoTime();
+        if (properties.isFlush()) {
+            flush();
+        }
+
+        int sessions = keyspace.getSessions();
+        int step = Math.max(1, sessions / 10);
+        AtomicLong written = new AtomicLong();
+        Flux.range(0, sessions)
+            .flatMap(index -> write(keyspace, index, properties.getActiveRatio())
+                .doOnSuccess(v -> {
+                    long count = written.incrementAndGet();
+                    if (count % step == 0) {
+                        log.info("[BulkDataSeeder] {}/{} sessions written", count, sessions);
+                    }
+                }), Math.max(1, properties.getPipeline()))
+            .then()
+            .block();
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        log.info("[BulkDataSeeder] Seeded {} member and {} guest sessions, {} customers in {} ms ({} sessions/s)",
+            keyspace.getMembers(), keyspace.getGuests(), keyspace.getMembers(), elapsed.toMillis(),
+            sessions * 1000L / Math.max(1, elapsed.toMillis()));
+    }
+
+    /**
+     * 캡처 파일의 레코드 중 세션을 찾은 요청의 세션과, 마이그레이션 상태를 찾은 고객의 라우트별 상태를 채운다.
+     * 캡처에 없는 라우트의 상태는 채우지 않으며, 캡처할 때 찾지 못한 ID는 재생에서도 찾지 못한다.
+     */
+    void seed(CaptureFileReader reader, LoadTestProperties.Seed properties) {
+        long start = System.nanoTime();
+        if (properties.isFlush()) {
+            flush();
+        }
+
+        List<RouteId> routeIds = reader.getRouteIds();
+        Set<Long> sessions = new HashSet<>();
+        Set<Long> customers = new HashSet<>();
+        List<Mono<Void>> writes = new ArrayList<>();
+        CaptureRecord record = new CaptureRecord();
+        for (int i = 0; i < reader.size(); i++) {
+            reader.read(i, record);
+            boolean sessionBranch = record.getBranch() == Branch.SESSION_HEADER || record.getBranch() == Branch.SESSION_COOKIE;
+            if (sessionBranch && record.isSessionFound() && sessions.add(record.getIdHash())) {
+                String sessionId = SyntheticKeyspace.replaySessionId(record.getIdHash());
+                writes.add(record.isMember() && record.getCustomerHash() != 0
+                    ? writeMemberSession(sessionId, SyntheticKeyspace.replayCustomerId(record.getCustomerHash()), "replay" + i)
+                    : writeGuestSession(sessionId, "replay-app-" + i));
+            }
+            if (record.isStatusFound() && record.getCustomerHash() != 0 && customers.add(record.getCustomerHash())) {
+                Map<String, String> statuses = new LinkedHashMap<>();
+                for (int r = 0; r < routeIds.size(); r++) {
+                    String status = status(record.getRouteStatus(r));
+                    if (status != null) {
+                        statuses.put(routeIds.get(r).name(), status);
+                    }
+                }
+                if (!statuses.isEmpty()) {
+                    writes.add(writeStatuses(SyntheticKeyspace.replayCustomerId(record.getCustomerHash()), statuses));
+                }
+            }
+        }
+        Flux.fromIterable(writes)
+            .flatMap(write -> write, Math.max(1, properties.getPipeline()))
+            .then()
+            .block();
+
+        log.info("[BulkDataSeeder] Seeded {} sessions and {} customers from {} captured requests in {} ms",
+            sessions.size(), customers.size(), reader.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private void flush() {
+        sessionTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+        migrationStatusTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast();
+    }
+
+    private Mono<Void> write(SyntheticKeyspace keyspace, int index, double activeRatio) {
+        String sessionId = SyntheticKeyspace.sessionId(index);
+        if (keyspace.isGuest(index)) {
+            return writeGuestSession(sessionId, "loadtest-app-" + index);
+        }
+
+        int customerIndex = index - keyspace.getGuests();
+        String customerId = SyntheticKeyspace.customerId(customerIndex);
+        String status = isActive(customerIndex, activeRatio) ? UserStatus.ACTIVE.name() : INACTIVE;
+        Map<String, String> statuses = new LinkedHashMap<>();
+        routes.forEach(route -> statuses.put(route.getRouteId().name(), status));
+
+        return Mono.when(writeMemberSession(sessionId, customerId, "loadtest" + customerIndex), writeStatuses(customerId, statuses));
+    }
+
+    private Mono<Void> writeGuestSession(String sessionId, String appId) {
+        Map<String, String> loginAppId = Map.of(StaticValues.APP_ID, appId, StaticValues.USER_TYPE, GUEST_USER_TYPE);
+        return sessionTemplate.opsForHash()
+            .putAll(sessionId, Map.of(GUEST_SESSION_KEY, loginAppId, USER_TYPE_KEY, GUEST_USER_TYPE))
+            .then();
+    }
+
+    private Mono<Void> writeMemberSession(String sessionId, String customerId, String userId) {
+        Map<String, String> loginUserInfo = Map.of(
+            StaticValues.USER_ID, userId,
+            StaticValues.USER_NAME, "loadtest",
+            StaticValues.SCK_MBBR_NO, customerId,
+            StaticValues.USER_TYPE, MEMBER_USER_TYPE
+        );
+        return sessionTemplate.opsForHash()
+            .putAll(sessionId, Map.of(MEMBER_SESSION_KEY, loginUserInfo, USER_TYPE_KEY, MEMBER_USER_TYPE))
+            .then();
+    }
+
+    private Mono<Void> writeStatuses(String customerId, Map<String, String> statuses) {
+        return migrationStatusTemplate.<String, String>opsForHash().putAll(customerId, statuses).then();
+    }
+
+    /**
+     * 캡처한 상태를 레디스 값으로. OTHER는 INACTIVE로 채운다.
+     */
+    private static String status(RouteStatus status) {
+        switch (status) {
+            case ACTIVE:
+                return UserStatus.ACTIVE.name();
+            case BLOCK:
+                return UserStatus.BLOCK.name();
+            case OTHER:
+                return INACTIVE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 고객 번호로 정해지므로 같은 설정으로 다시 채워도 같은 고객이 ACTIVE이다.
+     */
+    static boolean isActive(int customerIndex, double activeRatio) {
+        return Math.floorMod(customerIndex * 0x9E3779B1, 1000) < activeRatio * 1000;
+    }
+}
@@ -0,0 +1,96 @@
+package kr.co.starbucks.spfilterredis.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import kr.co.starbucks.spfilterredis.SpFilterRedisApplication;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureFileReader;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * 용량 계획용 부하 테스트.<br>
+ * <p></p>
+ * 1. 어플리케이션을 기동한다. (local 프로파일이면 BasicEmbeddedRedisConfig의 임베디드 레디스, 임의 포트)<br>
+ * 2. 세션 및 마이그레이션 상태 레디스에 합성 데이터를 채운다. ({@link BulkDataSeeder})<br>
+ * 3. 회원/비회원/x-sp-customer-id 요청을 설정한 비율과 적중률로 섞어 목표 처리량으로 /headers를 호출한다. ({@link OpenModelLoadGenerator})<br>
+ * 4. 처리량, 결과별 건수, 예정 시각 기준 지연 백분위(HdrHistogram)를 출력한다.<br>
+ * load-test.replay.file을 지정하면 2, 3 대신 캡처 파일(sp-filter.capture)로부터 데이터를 채우고 캡처한 요청을 재생한다.<br>
+ * <p></p>
+ * 설정은 {@link LoadTestProperties}("load-test" 하위)이며 어플리케이션 설정(e.g. --sp-filter.async.enabled=true,
+ * --spring.redis.principal-session.near-cache.enabled=true)도 같은 방식으로 바꿔 비교할 수 있다.
+ * <p></p>
+ * ./gradlew loadTest --args='--load-test.seed.sessions=1000000 --load-test.traffic.rate=5000'<br>
+ * ./gradlew loadTest --args='--load-test.replay.file=capture/sp-filter-capture.bin --load-test.replay.speed=100'
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws IOException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SpFilterRedisApplication.class)
+            .properties(Map.<String, Object>of(
+                "server.port", "0",
+                // 요청마다 모든 헤더를 INFO로 남기므로 부하 테스트에서는 끈다.
+                "logging.level.kr.co.starbucks.spfilterredis.SampleController", "warn"
+            ))
+            .run(args);
+        try {
+            run(context);
+        } finally {
+            context.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void run(ConfigurableApplicationContext context) throws IOException {
+        LoadTestProperties properties = Binder.get(context.getEnvironment())
+            .bind("load-test", LoadTestProperties.class)
+            .orElseGet(LoadTestProperties::new);
+        log.info("[LoadTest] {}", properties);
+
+        RequestFilterProperties filterProperties = context.getBean(RequestFilterProperties.class);
+        BulkDataSeeder seeder = new BulkDataSeeder(
+            context.getBean("principalSessionRedisHashTemplate", ReactiveRedisTemplate.class),
+            context.getBean("principalMigrationStatusRedisTemplate", ReactiveStringRedisTemplate.class),
+            filterProperties.getRoutes()
+        );
+
+        LoadTestProperties.Traffic traffic = properties.getTraffic();
+        String port = context.getEnvironment().getRequiredProperty("local.server.port");
+        URI uri = URI.create("http://localhost:" + port + traffic.getPath());
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(client, filterProperties.getRoutes().get(0).getHeader());
+
+        LoadTestResult result;
+        String replayFile = properties.getReplay().getFile();
+        if (replayFile != null && !replayFile.isBlank()) {
+            try (CaptureFileReader reader = new CaptureFileReader(Path.of(replayFile))) {
+                log.info("[LoadTest] Replaying {} requests captured at {}", reader.size(), Instant.ofEpochMilli(reader.getStartEpochMillis()));
+                if (properties.getSeed().isEnabled()) {
+                    seeder.seed(reader, properties.getSeed());
+                }
+                result = generator.run(new TraceReplaySource(uri, traffic.getRequestTimeout(), reader, properties.getReplay().getSpeed()), traffic);
+            }
+        } else {
+            SyntheticKeyspace keyspace = new SyntheticKeyspace(properties.getSeed().getSessions(), properties.getSeed().getGuestRatio());
+            if (properties.getSeed().isEnabled()) {
+                seeder.seed(keyspace, properties.getSeed());
+            }
+            result = generator.run(new TrafficMix(uri, keyspace, traffic), traffic);
+        }
+        result.report(traffic.getHistogramFile());
+    }
+}
@@ -0,0 +1,138 @@
+package kr.co.starbucks.spfilterredis.loadtest;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 부하 테스트 설정. "load-test" 하위 속성(e.g. --load-test.traffic.rate=5000)에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class LoadTestProperties {
+
+    private final Seed seed = new Seed();
+
+    private final Traffic traffic = new Traffic();
+
+    private final Replay replay = new Replay();
+
+    @Getter
+    @Setter
+    @ToString
+    public static class Seed {
+        /**
+         * false이면 이미 채워 둔 데이터로 바로 트래픽을 보낸다. (같은 sessions, guest-ratio로 채운 경우)
+         */
+        private boolean enabled = true;
+
+        /**
+         * 채우기 전에 세션 및 마이그레이션 상태 레디스를 비운다. (FLUSHALL)
+         */
+        private boolean flush = true;
+
+        /**
+         * 세션 수. 회원 세션마다 같은 번호의 고객과 마이그레이션 상태를 함께 채운다.
+         */
+        private int sessions = 1_000_000;
+
+        /**
+         * 세션 중 비회원(LoginAppId) 세션의 비율. 비회원은 CustomerId가 없어 마이그레이션 상태를 조회하지 않는다.
+         */
+        private double guestRatio = 0.2;
+
+        /**
+         * 마이그레이션 상태가 ACTIVE인 고객의 비율. 나머지는 INACTIVE.
+         */
+        private double activeRatio = 0.5;
+
+        /**
+         * 응답을 기다리지 않고 한 커넥션에 이어서 보내는 쓰기 명령 수 (파이프라인 깊이)
+         */
+        private int pipeline = 1024;
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class Traffic {
+        /**
+         * 호출할 경로. SampleController는 받은 헤더를 그대로 응답한다.
+         */
+        private String path = "/headers";
+
+        /**
+         * 목표 초당 요청 수. 응답을 기다리지 않고 일정한 간격으로 보낸다. (open model)
+         */
+        private int rate = 2000;
+
+        /**
+         * 측정에서 제외하는 앞부분
+         */
+        private Duration warmup = Duration.ofSeconds(10);
+
+        /**
+         * 측정 시간
+         */
+        private Duration duration = Duration.ofSeconds(60);
+
+        /**
+         * 트래픽 구성 비율 (합이 1이 아니면 비율대로 정규화). member: 회원 세션, guest: 비회원 세션, customer-id: x-sp-customer-id 헤더
+         */
+        private double memberRatio = 0.6;
+
+        private double guestRatio = 0.2;
+
+        private double customerIdRatio = 0.2;
+
+        /**
+         * 채운 세션 혹은 고객을 조회하는 요청의 비율. 나머지는 레디스에 없는 ID로 조회한다.
+         */
+        private double hitRatio = 0.9;
+
+        /**
+         * 세션 요청 중 JSESSIONID를 헤더 대신 쿠키로 보내는 비율
+         */
+        private double cookieRatio = 0.5;
+
+        /**
+         * 동시에 기다리는 요청 수 상한. 넘으면 보내지 않고 실패(dropped)로 센다.
+         * 기다리는 요청마다 커넥션을 새로 열 수 있으므로 서버의 accept-count, max-connections보다 크게 두지 않는다.
+         */
+        private int maxInFlight = 1024;
+
+        private Duration requestTimeout = Duration.ofSeconds(5);
+
+        /**
+         * 요청 순서를 재현하기 위한 난수 시드
+         */
+        private long randomSeed = 20221115L;
+
+        /**
+         * 지정하면 측정 구간의 지연 분포(HdrHistogram percentile distribution)를 이 파일에 쓴다.
+         */
+        private String histogramFile;
+    }
+
+    /**
+     * 캡처 재생 (sp-filter.capture). file을 지정하면 합성 데이터와 트래픽 대신 캡처한 요청을 재생한다.
+     * 레디스 데이터는 seed.enabled, seed.flush, seed.pipeline에 따라 캡처 파일로부터 채운다.
+     * 측정 구간(traffic.warmup, traffic.duration)과 traffic.max-in-flight, traffic.request-timeout은 그대로 사용한다.
+     */
+    @Getter
+    @Setter
+    @ToString
+    public static class Replay {
+        /**
+         * 캡처 파일 경로
+         */
+        private String file;
+
+        /**
+         * 재생 속도 배수. 2.0이면 캡처한 간격의 절반으로 보낸다. (샘플링한 요청만 있으므로 1/sample-rate배로 두면 원래 처리량에 가깝다)
+         */
+        private double speed = 1.0;
+    }
+}
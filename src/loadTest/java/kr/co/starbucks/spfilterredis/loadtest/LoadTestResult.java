@@ -0,0 +1,135 @@
+package kr.co.starbucks.spfilterredis.loadtest;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 측정 구간(warmup 이후)의 결과.
+ */
+@Slf4j
+class LoadTestResult {
+
+    enum Outcome {
+        /**
+         * 라우트 헤더 Y (ACTIVE)
+         */
+        ROUTED_Y,
+        /**
+         * 라우트 헤더 N (그외 상태)
+         */
+        ROUTED_N,
+        /**
+         * 라우트 헤더 없음 (미발견, 비회원, 지연 예산 초과 등)
+         */
+        BYPASS,
+        /**
+         * 4xx/5xx 응답(BLOCK 포함) 혹은 타임아웃, 연결 오류
+         */
+        ERROR
+    }
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Histogram histogram;
+
+    private Duration duration = Duration.ZERO;
+
+    private final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+
+    private long sent;
+
+    private long dropped;
+
+    private long maxSendLagNanos;
+
+    private int unfinished;
+
+    private Map<?, Long> requestKinds = Map.of();
+
+    LoadTestResult(Histogram histogram) {
+        this.histogram = histogram;
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 요청을 보내는 스레드에서만 호출한다.
+     */
+    void onSent(long lagNanos) {
+        sent++;
+        maxSendLagNanos = Math.max(maxSendLagNanos, lagNanos);
+    }
+
+    void onDropped() {
+        dropped++;
+    }
+
+    void onCompleted(Outcome outcome) {
+        outcomes[outcome.ordinal()].increment();
+    }
+
+    void setUnfinished(int unfinished) {
+        this.unfinished = unfinished;
+    }
+
+    /**
+     * 측정 구간의 길이 (처리량 계산)
+     */
+    void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    void setRequestKinds(Map<?, Long> requestKinds) {
+        this.requestKinds = requestKinds;
+    }
+
+    long getCount(Outcome outcome) {
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+    Histogram getHistogram() {
+        return histogram;
+    }
+
+    void report(String histogramFile) {
+        long completed = histogram.getTotalCount();
+        double seconds = Math.max(1, duration.toNanos()) / (double) TimeUnit.SECONDS.toNanos(1);
+        log.info("[LoadTest] sent={} ({} req/s), completed={} ({} req/s), dropped={}, unfinished={}, max send lag={} ms",
+            sent, format(sent / seconds), completed, format(completed / seconds), dropped, unfinished, millis(maxSendLagNanos));
+        log.info("[LoadTest] outcomes: Y={}, N={}, bypass={}, error={}",
+            getCount(Outcome.ROUTED_Y), getCount(Outcome.ROUTED_N), getCount(Outcome.BYPASS), getCount(Outcome.ERROR));
+        log.info("[LoadTest] request kinds (including warmup): {}", requestKinds);
+
+        StringBuilder latency = new StringBuilder();
+        for (double percentile : PERCENTILES) {
+            latency.append("p").append(percentile).append('=').append(millis(histogram.getValueAtPercentile(percentile))).append(" ms, ");
+        }
+        latency.append("max=").append(millis(histogram.getMaxValue())).append(" ms");
+        log.info("[LoadTest] latency from intended send time: {}", latency);
+
+        if (histogramFile != null && !histogramFile.isBlank()) {
+            try (PrintStream out = new PrintStream(histogramFile)) {
+                // 밀리초 단위 percentile distribution (HdrHistogram plotter 형식)
+                histogram.outputPercentileDistribution(out, (double) TimeUnit.MILLISECONDS.toNanos(1));
+                log.info("[LoadTest] Wrote latency distribution to {}", histogramFile);
+            } catch (FileNotFoundException e) {
+                log.warn("[LoadTest] Failed to write latency distribution to {}", histogramFile, e);
+            }
+        }
+    }
+
+    private static String millis(long nanos) {
+        return format(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+}
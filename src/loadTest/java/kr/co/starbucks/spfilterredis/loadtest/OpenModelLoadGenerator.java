@@ -0,0 +1,118 @@
+package kr.co.starbucks.spfilterredis.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * 목표 처리량으로 요청을 보내고 지연 분포를 기록한다.<br>
+ * <p></p>
+ * * Open model: 요청의 예정 시각은 {@link RequestSource}가 정하며(합성 트래픽은 시작 + i / rate, 재생은 캡처한 간격),
+ * 이전 응답을 기다리지 않고 예정 시각에 보낸다.<br>
+ * * Coordinated omission 보정: 지연은 실제로 보낸 시각이 아니라 예정 시각부터 잰다.
+ * 서버가 멈춰 요청을 보내는 스레드가 늦어져도 그동안 보냈어야 할 요청들의 대기 시간이 지연에 포함된다.<br>
+ * * 기다리는 요청이 maxInFlight를 넘으면 보내지 않고 dropped로 센다. (클라이언트 자원 보호)<br>
+ * * 응답 본문(/headers는 받은 헤더를 그대로 돌려준다)에서 첫 번째 라우트 헤더 값으로 결과를 나눈다.
+ */
+@Slf4j
+class OpenModelLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final long DRAIN_GRACE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final HttpClient client;
+
+    private final String routedYes;
+
+    private final String routedNo;
+
+    OpenModelLoadGenerator(HttpClient client, String migrationHeader) {
+        this.client = client;
+        this.routedYes = "\"" + migrationHeader + "\":\"Y\"";
+        this.routedNo = "\"" + migrationHeader + "\":\"N\"";
+    }
+
+    LoadTestResult run(RequestSource source, LoadTestProperties.Traffic properties) {
+        Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        LoadTestResult result = new LoadTestResult(histogram);
+        AtomicInteger inFlight = new AtomicInteger();
+
+        long start = System.nanoTime();
+        long measureFrom = start + properties.getWarmup().toNanos();
+        long end = measureFrom + properties.getDuration().toNanos();
+        log.info("[OpenModelLoadGenerator] Sending requests for {} s after {} s warmup",
+            properties.getDuration().toSeconds(), properties.getWarmup().toSeconds());
+
+        // 요청이 먼저 끝나면(재생) 마지막 요청까지를 측정 구간으로 한다.
+        long measureUntil = end;
+        while (true) {
+            long offset = source.nextOffsetNanos();
+            if (offset < 0) {
+                measureUntil = Math.min(end, Math.max(measureFrom, System.nanoTime()));
+                break;
+            }
+            long intended = start + offset;
+            if (intended >= end) {
+                break;
+            }
+            long now = System.nanoTime();
+            while (now < intended) {
+                LockSupport.parkNanos(intended - now);
+                now = System.nanoTime();
+            }
+            boolean measured = intended >= measureFrom;
+            if (measured) {
+                result.onSent(now - intended);
+            }
+
+            HttpRequest request = source.next();
+            if (inFlight.get() >= properties.getMaxInFlight()) {
+                if (measured) {
+                    result.onDropped();
+                }
+                continue;
+            }
+            inFlight.incrementAndGet();
+            client.sendAsync(request, BodyHandlers.ofString()).whenComplete((response, error) -> {
+                inFlight.decrementAndGet();
+                if (measured) {
+                    histogram.recordValue(Math.min(System.nanoTime() - intended, HIGHEST_TRACKABLE_NANOS));
+                    result.onCompleted(outcome(response, error));
+                }
+            });
+        }
+
+        // 측정 구간에 보낸 요청의 응답을 기다린다.
+        long deadline = System.nanoTime() + properties.getRequestTimeout().toNanos() + DRAIN_GRACE_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        result.setUnfinished(inFlight.get());
+        result.setDuration(Duration.ofNanos(measureUntil - measureFrom));
+        result.setRequestKinds(source.getCounts());
+        return result;
+    }
+
+    private LoadTestResult.Outcome outcome(HttpResponse<String> response, Throwable error) {
+        if (error != null || response.statusCode() >= 400) {
+            return LoadTestResult.Outcome.ERROR;
+        }
+        String body = response.body();
+        if (body.contains(routedYes)) {
+            return LoadTestResult.Outcome.ROUTED_Y;
+        }
+        if (body.contains(routedNo)) {
+            return LoadTestResult.Outcome.ROUTED_N;
+        }
+        return LoadTestResult.Outcome.BYPASS;
+    }
+}
@@ -0,0 +1,25 @@
+package kr.co.starbucks.spfilterredis.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Map;
+
+/**
+ * {@link OpenModelLoadGenerator}가 보낼 요청과 예정 시각. 요청을 보내는 스레드 하나에서만 사용한다.
+ */
+interface RequestSource {
+
+    /**
+     * @return 다음 요청의 예정 시각 (시작부터의 나노초). 더 보낼 요청이 없으면 -1
+     */
+    long nextOffsetNanos();
+
+    /**
+     * 다음 요청을 만들고 순서를 넘긴다.
+     */
+    HttpRequest next();
+
+    /**
+     * 종류별로 만든 요청 수 (warmup 포함)
+     */
+    Map<?, Long> getCounts();
+}
@@ -0,0 +1,82 @@
+package kr.co.starbucks.spfilterredis.loadtest;
+
+/**
+ * 채우는 데이터와 트래픽이 함께 쓰는 ID 규칙.<br>
+ * 세션 번호 [0, guests)는 비회원, [guests, sessions)는 회원이며 회원 세션 i의 CustomerId는 고객 i이다.
+ * 레디스에 없는 ID는 같은 형식에 다른 접두사를 붙인다.<br>
+ * 캡처 재생에서는 캡처 파일의 ID 해시로 ID를 만든다. (같은 해시면 같은 ID)
+ */
+final class SyntheticKeyspace {
+
+    private static final String SESSION_PREFIX = "LT";
+    private static final String MISSING_SESSION_PREFIX = "LX";
+    private static final String CUSTOMER_PREFIX = "lt";
+    private static final String MISSING_CUSTOMER_PREFIX = "lx";
+    private static final String REPLAY_SESSION_PREFIX = "RP";
+    private static final String REPLAY_CUSTOMER_PREFIX = "rp";
+
+    private final int sessions;
+
+    private final int guests;
+
+    SyntheticKeyspace(int sessions, double guestRatio) {
+        if (sessions <= 0) {
+            throw new IllegalArgumentException("load-test.seed.sessions must be positive: " + sessions);
+        }
+        this.sessions = sessions;
+        this.guests = (int) Math.round(sessions * Math.max(0, Math.min(1, guestRatio)));
+    }
+
+    int getSessions() {
+        return sessions;
+    }
+
+    int getGuests() {
+        return guests;
+    }
+
+    int getMembers() {
+        return sessions - guests;
+    }
+
+    boolean isGuest(int index) {
+        return index < guests;
+    }
+
+    /**
+     * @param memberIndex [0, members)
+     */
+    int memberSession(int memberIndex) {
+        return guests + memberIndex;
+    }
+
+    /**
+     * JSESSIONID와 같은 32자리 16진수 형식
+     */
+    static String sessionId(int index) {
+        return SESSION_PREFIX + String.format("%030X", index);
+    }
+
+    static String missingSessionId(long random) {
+        return MISSING_SESSION_PREFIX + String.format("%030X", random & Long.MAX_VALUE);
+    }
+
+    /**
+     * sckMbbrNo와 같은 20자리 형식
+     */
+    static String customerId(int index) {
+        return CUSTOMER_PREFIX + String.format("%018d", index);
+    }
+
+    static String missingCustomerId(long random) {
+        return MISSING_CUSTOMER_PREFIX + String.format("%018d", (random & Long.MAX_VALUE) % 1_000_000_000_000_000_000L);
+    }
+
+    static String replaySessionId(long hash) {
+        return REPLAY_SESSION_PREFIX + String.format("%030X", hash);
+    }
+
+    static String replayCustomerId(long hash) {
+        return REPLAY_CUSTOMER_PREFIX + String.format("%018X", hash);
+    }
+}
@@ -0,0 +1,95 @@
+package kr.co.starbucks.spfilterredis.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureFileReader;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureRecord;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import kr.co.starbucks.spfilterredis.filter.enums.Branch;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 캡처 파일의 요청을 캡처한 순서와 간격(speed배)대로 다시 만든다.<br>
+ * 레코드는 조회가 끝난 순서로 기록되므로 요청 시각(offsetMicros) 순으로 정렬해 보낸다.<br>
+ * ID는 해시로 만든 재생용 ID({@link SyntheticKeyspace#replaySessionId(long)})이며, 세션 ID는 캡처한 경로(헤더 혹은 쿠키)로 보낸다.
+ */
+class TraceReplaySource implements RequestSource {
+
+    private final URI uri;
+
+    private final Duration timeout;
+
+    private final CaptureFileReader reader;
+
+    private final double speed;
+
+    private final CaptureRecord record = new CaptureRecord();
+
+    // 요청 시각 순서의 레코드 번호
+    private final int[] order;
+
+    private final long[] offsets;
+
+    private final Map<Branch, Long> counts = new EnumMap<>(Branch.class);
+
+    private int index;
+
+    TraceReplaySource(URI uri, Duration timeout, CaptureFileReader reader, double speed) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("load-test.replay.speed must be positive: " + speed);
+        }
+        this.uri = uri;
+        this.timeout = timeout;
+        this.reader = reader;
+        this.speed = speed;
+        this.offsets = new long[reader.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = reader.read(i, record).getOffsetMicros();
+        }
+        this.order = IntStream.range(0, offsets.length)
+            .boxed()
+            .sorted(Comparator.comparingLong(i -> offsets[i]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    @Override
+    public long nextOffsetNanos() {
+        if (index >= order.length) {
+            return -1;
+        }
+        return (long) ((offsets[order[index]] - offsets[order[0]]) * 1000 / speed);
+    }
+
+    @Override
+    public HttpRequest next() {
+        reader.read(order[index++], record);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(timeout).GET();
+        switch (record.getBranch()) {
+            case CUSTOMER_ID:
+                builder.header(StaticValues.X_SP_CUSTOMER_ID, SyntheticKeyspace.replayCustomerId(record.getIdHash()));
+                break;
+            case SESSION_HEADER:
+                builder.header(StaticValues.JSESSIONID, SyntheticKeyspace.replaySessionId(record.getIdHash()));
+                break;
+            case SESSION_COOKIE:
+                builder.header(HttpHeaders.COOKIE,
+                    TrafficMix.ANALYTICS_COOKIES + StaticValues.JSESSIONID + "=" + SyntheticKeyspace.replaySessionId(record.getIdHash()));
+                break;
+            default:
+                break;
+        }
+        counts.merge(record.getBranch(), 1L, Long::sum);
+        return builder.build();
+    }
+
+    @Override
+    public Map<Branch, Long> getCounts() {
+        return counts;
+    }
+}
@@ -0,0 +1,114 @@
+package kr.co.starbucks.spfilterredis.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 설정한 비율대로 회원 세션, 비회원 세션, x-sp-customer-id 요청을 만든다.<br>
+ * 세션 ID는 JSESSIONID 헤더 혹은 분석용 쿠키 사이의 JSESSIONID 쿠키로 보낸다.
+ * 목표 처리량(rate)에 맞춰 일정한 간격으로 보낸다.
+ */
+class TrafficMix implements RequestSource {
+
+    enum Kind {
+        MEMBER_HIT, MEMBER_MISS, GUEST_HIT, GUEST_MISS, CUSTOMER_ID_HIT, CUSTOMER_ID_MISS
+    }
+
+    static final String ANALYTICS_COOKIES = "_ga=GA1.3.1234567890.1668215000; _gid=GA1.3.987654321.1668215000; ";
+
+    private final URI uri;
+
+    private final long intervalNanos;
+
+    private final Duration timeout;
+
+    private final SyntheticKeyspace keyspace;
+
+    private final double memberThreshold;
+
+    private final double guestThreshold;
+
+    private final double hitRatio;
+
+    private final double cookieRatio;
+
+    private final SplittableRandom random;
+
+    private final Map<Kind, Long> counts = new EnumMap<>(Kind.class);
+
+    private long sequence;
+
+    TrafficMix(URI uri, SyntheticKeyspace keyspace, LoadTestProperties.Traffic properties) {
+        if (properties.getRate() <= 0) {
+            throw new IllegalArgumentException("load-test.traffic.rate must be positive: " + properties.getRate());
+        }
+        double total = properties.getMemberRatio() + properties.getGuestRatio() + properties.getCustomerIdRatio();
+        if (total <= 0) {
+            throw new IllegalArgumentException("load-test.traffic ratios must not all be zero");
+        }
+        this.uri = uri;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / properties.getRate();
+        this.timeout = properties.getRequestTimeout();
+        this.keyspace = keyspace;
+        this.memberThreshold = properties.getMemberRatio() / total;
+        this.guestThreshold = (properties.getMemberRatio() + properties.getGuestRatio()) / total;
+        this.hitRatio = properties.getHitRatio();
+        this.cookieRatio = properties.getCookieRatio();
+        this.random = new SplittableRandom(properties.getRandomSeed());
+    }
+
+    @Override
+    public long nextOffsetNanos() {
+        return sequence * intervalNanos;
+    }
+
+    @Override
+    public HttpRequest next() {
+        sequence++;
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(timeout).GET();
+        double kind = random.nextDouble();
+        boolean hit = random.nextDouble() < hitRatio;
+        if (kind < guestThreshold && (kind < memberThreshold ? keyspace.getMembers() > 0 : keyspace.getGuests() > 0)) {
+            boolean member = kind < memberThreshold;
+            String sessionId;
+            if (!hit) {
+                sessionId = SyntheticKeyspace.missingSessionId(random.nextLong());
+            } else if (member) {
+                sessionId = SyntheticKeyspace.sessionId(keyspace.memberSession(random.nextInt(keyspace.getMembers())));
+            } else {
+                sessionId = SyntheticKeyspace.sessionId(random.nextInt(keyspace.getGuests()));
+            }
+            if (random.nextDouble() < cookieRatio) {
+                builder.header(HttpHeaders.COOKIE, ANALYTICS_COOKIES + StaticValues.JSESSIONID + "=" + sessionId);
+            } else {
+                builder.header(StaticValues.JSESSIONID, sessionId);
+            }
+            count(member ? (hit ? Kind.MEMBER_HIT : Kind.MEMBER_MISS) : (hit ? Kind.GUEST_HIT : Kind.GUEST_MISS));
+        } else {
+            // 세션 비율이 있어도 해당 세션이 하나도 없으면 x-sp-customer-id 요청으로 보낸다.
+            boolean customerHit = hit && keyspace.getMembers() > 0;
+            String customerId = customerHit
+                ? SyntheticKeyspace.customerId(random.nextInt(keyspace.getMembers()))
+                : SyntheticKeyspace.missingCustomerId(random.nextLong());
+            builder.header(StaticValues.X_SP_CUSTOMER_ID, customerId);
+            count(customerHit ? Kind.CUSTOMER_ID_HIT : Kind.CUSTOMER_ID_MISS);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public Map<Kind, Long> getCounts() {
+        return counts;
+    }
+
+    private void count(Kind kind) {
+        counts.merge(kind, 1L, Long::sum);
+    }
+}
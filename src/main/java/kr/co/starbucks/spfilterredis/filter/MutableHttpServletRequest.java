@@ -1,52 +1,175 @@
 package kr.co.starbucks.spfilterredis.filter;
 
-import java.util.Collections;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.NoSuchElementException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
+import org.springframework.util.Assert;
 
+/**
+ * 다운스트림에 전달할 헤더를 원래 요청 위에 덧씌운다.<br>
+ * <p></p>
+ * * 주입하는 헤더는 라우트 수만큼(몇 개)이므로 배열에 담아 선형 탐색한다. 헤더 이름은 대소문자를 구분하지 않는다.<br>
+ * * 주입한 헤더는 같은 이름의 원래 헤더를 대체하며, getHeader, getHeaders, getHeaderNames, getIntHeader, getDateHeader가
+ * 모두 같은 결과를 보인다. (e.g. Spring의 @RequestHeader Map은 getHeaderNames와 getHeaders를 사용한다)<br>
+ * * getHeaderNames는 컬렉션을 복사하지 않고 주입한 이름, 원래 이름(주입한 이름과 겹치는 것 제외) 순으로 열거한다.<br>
+ * * 헤더를 주입하지 않은 요청은 배열도 만들지 않고 원래 요청에 그대로 위임한다.
+ */
 final class MutableHttpServletRequest extends HttpServletRequestWrapper {
-    // holds custom header and value mapping
-    private final Map<String, String> customHeaders;
+    private static final int INITIAL_CAPACITY = 4;
 
-    public MutableHttpServletRequest(HttpServletRequest request){
+    // 주입한 헤더 (첫 putHeader 때 생성)
+    private String[] names;
+    private String[] values;
+    private int size;
+
+    public MutableHttpServletRequest(HttpServletRequest request) {
         super(request);
-        this.customHeaders = new HashMap<String, String>();
     }
 
-    public void putHeader(String name, String value){
-        this.customHeaders.put(name, value);
+    /**
+     * 같은 이름(대소문자 무관)의 헤더가 이미 있으면 대체한다.
+     */
+    public void putHeader(String name, String value) {
+        Assert.hasText(name, "헤더 이름이 존재하지 않습니다");
+        Assert.notNull(value, "헤더 값이 존재하지 않습니다");
+        int index = indexOf(name);
+        if (index >= 0) {
+            names[index] = name;
+            values[index] = value;
+            return;
+        }
+        if (names == null) {
+            names = new String[INITIAL_CAPACITY];
+            values = new String[INITIAL_CAPACITY];
+        } else if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        names[size] = name;
+        values[size] = value;
+        size++;
     }
 
+    @Override
     public String getHeader(String name) {
-        // check the custom headers first
-        String headerValue = customHeaders.get(name);
+        int index = indexOf(name);
+        return index >= 0 ? values[index] : super.getHeader(name);
+    }
 
-        if (headerValue != null){
-            return headerValue;
-        }
-        // else return from into the original wrapped object
-        return ((HttpServletRequest) getRequest()).getHeader(name);
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        int index = indexOf(name);
+        return index >= 0 ? new SingleValueEnumeration(values[index]) : super.getHeaders(name);
     }
 
+    @Override
     public Enumeration<String> getHeaderNames() {
-        // create a set of the custom header names
-        Set<String> set = new HashSet<String>(customHeaders.keySet());
+        return size == 0 ? super.getHeaderNames() : new HeaderNames(super.getHeaderNames());
+    }
+
+    /**
+     * 정수로 변환할 수 없으면 NumberFormatException (ServletRequest 규약)
+     */
+    @Override
+    public int getIntHeader(String name) {
+        int index = indexOf(name);
+        return index >= 0 ? Integer.parseInt(values[index]) : super.getIntHeader(name);
+    }
+
+    /**
+     * 날짜(RFC 1123)로 변환할 수 없으면 IllegalArgumentException (ServletRequest 규약)
+     */
+    @Override
+    public long getDateHeader(String name) {
+        int index = indexOf(name);
+        if (index < 0) {
+            return super.getDateHeader(name);
+        }
+        try {
+            return ZonedDateTime.parse(values[index], DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cannot convert header " + name + " to a date: " + values[index], e);
+        }
+    }
+
+    private int indexOf(String name) {
+        if (name == null) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class SingleValueEnumeration implements Enumeration<String> {
+        private String value;
+
+        private SingleValueEnumeration(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return value != null;
+        }
 
-        // now add the headers from the wrapped request object
-        @SuppressWarnings("unchecked")
-        Enumeration<String> e = ((HttpServletRequest) getRequest()).getHeaderNames();
-        while (e.hasMoreElements()) {
-            // add the names of the request headers into the list
-            String n = e.nextElement();
-            set.add(n);
+        @Override
+        public String nextElement() {
+            if (value == null) {
+                throw new NoSuchElementException();
+            }
+            String next = value;
+            value = null;
+            return next;
+        }
+    }
+
+    /**
+     * 주입한 이름을 먼저 열거하고, 원래 이름 중 주입한 이름과 겹치지 않는 것을 이어서 열거한다.
+     */
+    private final class HeaderNames implements Enumeration<String> {
+        private final Enumeration<String> original;
+        private int index;
+        private String next;
+
+        private HeaderNames(Enumeration<String> original) {
+            this.original = original;
         }
 
-        // create an enumeration from the set and return
-        return Collections.enumeration(set);
+        @Override
+        public boolean hasMoreElements() {
+            if (next != null || index < size) {
+                return true;
+            }
+            while (original != null && original.hasMoreElements()) {
+                String name = original.nextElement();
+                if (indexOf(name) < 0) {
+                    next = name;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String nextElement() {
+            if (index < size) {
+                return names[index++];
+            }
+            if (!hasMoreElements()) {
+                throw new NoSuchElementException();
+            }
+            String name = next;
+            next = null;
+            return name;
+        }
     }
 }
@@ -0,0 +1,321 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureTrace;
+import kr.co.starbucks.spfilterredis.filter.capture.TrafficCapture;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.enums.UserStatus;
+import kr.co.starbucks.spfilterredis.filter.exception.InternalServerException;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalMigrationStatusRedisReactiveRepository;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalRouteStatusScriptRepository;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalRouteStatusScriptRepository.ScriptResult;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalSessionRedisReactiveRepository;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.AdaptiveConcurrencyLimiter;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.CircuitBreaker;
+import kr.co.starbucks.spfilterredis.filter.model.Principal;
+import kr.co.starbucks.spfilterredis.filter.model.PrincipalSession;
+import kr.co.starbucks.spfilterredis.filter.routing.PathRuleMatcher;
+import kr.co.starbucks.spfilterredis.filter.routing.RouteSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+/**
+ * 서블릿 필터({@link RequestFilter})와 WebFlux 필터({@link ReactiveRequestFilter})가 공유하는 판단 로직.<br>
+ * 요청에서 CustomerId(x-sp-customer-id) 혹은 JSESSIONID만 꺼내 넘기면, 세션 및 마이그레이션 상태 레디스를 조회하여
+ * 마이그레이션 상태가 채워진 Principal을 반환한다. 흐름은 {@link RequestFilter} 참고.<br>
+ * <p></p>
+ * 조회할 라우트와 헤더는 ${sp-filter.routes}로 설정하며, 모든 라우트의 상태를 고객당 HMGET 한 번으로 조회한다.
+ * 라우트가 둘 이상이면 세션과 상태를 함께 조회하는 스크립트 모드는 사용하지 않는다.<br>
+ * 요청 경로, 메서드, 호스트별로 조회할 라우트나 조회 생략 여부는 ${sp-filter.path-rules}로 설정한다. ({@link PathRuleMatcher})<br>
+ * <p></p>
+ * ${sp-filter.latency-budget.enabled}가 true이면 조회 전체를 지연 예산(e.g. 20ms) 안에 끝내고, 레디스 역할별 Circuit Breaker를 거친다.
+ * 예산 초과, Circuit Breaker OPEN, 레디스 오류이면 "미발견"과 같이 바이패스하며 사유별 횟수는
+ * "latency.budget.bypass" 메트릭으로 노출된다.<br>
+ * 동시 실행 한도(spring.redis.principal-*.concurrency-limit)를 넘어 조회하지 않은 요청은 지연 예산 사용 여부와 관계없이 바이패스한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression(
+    "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-session.host:}') and "
+        + "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-session.port:}') and "
+        + "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-migration-status.host:}') and "
+        + "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-migration-status.port:}')"
+)
+public class PrincipalMigrationStatusResolver {
+    private static final String BYPASS_TIMEOUT = "timeout";
+    private static final String BYPASS_CIRCUIT_OPEN = "circuit-open";
+    private static final String BYPASS_SHED = "shed";
+    private static final String BYPASS_ERROR = "error";
+
+    private final PrincipalSessionRedisReactiveRepository principalSessionRedisReactiveRepository;
+    private final PrincipalMigrationStatusRedisReactiveRepository principalMigrationStatusRedisReactiveRepository;
+    private final PrincipalRouteStatusScriptRepository principalRouteStatusScriptRepository;
+
+    private final List<RequestFilterProperties.Route> routes;
+    private final PathRuleMatcher pathRuleMatcher;
+
+    // 지연 예산 (sp-filter.latency-budget.enabled=true 일 때만 존재)
+    private final Duration latencyBudget;
+    private final CircuitBreaker sessionCircuitBreaker;
+    private final CircuitBreaker migrationStatusCircuitBreaker;
+    private final Map<String, Counter> bypasses;
+    private final RequestFilterMetrics metrics;
+
+    public PrincipalMigrationStatusResolver(
+        PrincipalSessionRedisReactiveRepository principalSessionRedisReactiveRepository,
+        PrincipalMigrationStatusRedisReactiveRepository principalMigrationStatusRedisReactiveRepository,
+        ObjectProvider<PrincipalRouteStatusScriptRepository> principalRouteStatusScriptRepository,
+        RequestFilterProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.principalSessionRedisReactiveRepository = principalSessionRedisReactiveRepository;
+        this.principalMigrationStatusRedisReactiveRepository = principalMigrationStatusRedisReactiveRepository;
+        validateRoutes(properties.getRoutes());
+        this.routes = List.copyOf(properties.getRoutes());
+        this.pathRuleMatcher = new PathRuleMatcher(properties.getPathRules(), routes);
+        this.principalRouteStatusScriptRepository = principalRouteStatusScriptRepository.getIfAvailable();
+        this.metrics = new RequestFilterMetrics(routes, meterRegistry);
+
+        RequestFilterProperties.LatencyBudget budget = properties.getLatencyBudget();
+        if (!budget.isEnabled()) {
+            this.latencyBudget = null;
+            this.sessionCircuitBreaker = null;
+            this.migrationStatusCircuitBreaker = null;
+            this.bypasses = Map.of();
+            return;
+        }
+        this.latencyBudget = budget.getTimeout();
+        this.sessionCircuitBreaker = new CircuitBreaker("principal-session", budget.getCircuitBreaker(), latencyBudget.toNanos());
+        this.sessionCircuitBreaker.bindTo(meterRegistry);
+        this.migrationStatusCircuitBreaker =
+            new CircuitBreaker("principal-migration-status", budget.getCircuitBreaker(), latencyBudget.toNanos());
+        this.migrationStatusCircuitBreaker.bindTo(meterRegistry);
+        this.bypasses = Stream.of(BYPASS_TIMEOUT, BYPASS_CIRCUIT_OPEN, BYPASS_SHED, BYPASS_ERROR)
+            .collect(Collectors.toUnmodifiableMap(reason -> reason, reason -> Counter.builder("latency.budget.bypass")
+                .description("Requests passed through without a migration header because of the latency budget")
+                .tag("reason", reason)
+                .register(meterRegistry)));
+    }
+
+    /**
+     * @param host 요청 호스트 (없으면 null)
+     * @param path 요청 URI (컨텍스트 경로 포함, 쿼리 스트링 제외)
+     * @return 조회할 라우트. 레디스 조회 없이 다운스트림으로 전달해야 하면 null.
+     */
+    public RouteSet selectRoutes(String method, String host, String path) {
+        return pathRuleMatcher.match(method, host, path);
+    }
+
+    /**
+     * @param customerId x-sp-customer-id 헤더 값 (없으면 null)
+     * @param sessionId  헤더 혹은 쿠키의 JSESSIONID. customerId가 없을 때만 호출된다.
+     * @param routeSet   조회할 라우트 ({@link #selectRoutes(String, String, String)})
+     * @return 마이그레이션 상태가 있는 Principal. CustomerId를 찾지 못했거나 상태가 없으면 empty(바이패스),
+     * BLOCK이면 InternalServerException
+     */
+    public Mono<Principal> resolve(String customerId, Supplier<String> sessionId, RouteSet routeSet) {
+        return resolve(customerId, sessionId, routeSet, null);
+    }
+
+    /**
+     * @param trace 캡처할 요청이면 조회 과정(레디스별 조회 시간, 바이패스, BLOCK)을 기록한다. ({@link TrafficCapture}, 없으면 null)
+     */
+    public Mono<Principal> resolve(String customerId, Supplier<String> sessionId, RouteSet routeSet, CaptureTrace trace) {
+        Mono<Principal> principal = Optional.ofNullable(customerId)
+            // "x-sp-customer-id" 헤더가 있으면 SckMbbrNo를 가진 Principal Mono 반환
+            .map(id -> Mono.just(Principal.builder().sckMbbrNo(id).build()))
+            // 없으면 JSESSIONID로 세션 레디스 조회
+            .orElseGet(() -> Mono.justOrEmpty(sessionId.get()).flatMap(id -> getPrincipalSession(id, routeSet, trace)))
+            // 세션 레디스로부터 Principal을 찾았으면 마이그레이션 상태 조회 (스크립트 모드에서 이미 조회했으면 생략)
+            .flatMap(p -> p.getRouteStatuses() != null ? Mono.just(p) : getPrincipalMigrationStatuses(p, routeSet, trace))
+            // 세션, CustomerId 혹은 상태를 찾지 못함 (예산 초과로 취소되면 호출되지 않는다)
+            .doOnSuccess(p -> {
+                if (p == null) {
+                    metrics.onOutcome(routeSet, RequestFilterMetrics.Outcome.NOT_FOUND);
+                }
+            });
+        if (latencyBudget != null) {
+            // 예산을 넘기거나 조회할 수 없으면 바이패스 (fail-open)
+            principal = principal
+                .timeout(latencyBudget)
+                .onErrorResume(e -> bypass(e, routeSet, trace));
+        } else {
+            // 동시 실행 한도를 넘어 조회하지 않은 요청은 바이패스 (spring.redis.principal-*.concurrency-limit)
+            principal = principal
+                .onErrorResume(AdaptiveConcurrencyLimiter.LimitExceededException.class, e -> {
+                    if (trace != null) {
+                        trace.onBypass();
+                    }
+                    metrics.onOutcome(routeSet, RequestFilterMetrics.Outcome.BYPASS);
+                    return Mono.empty();
+                });
+        }
+        principal = principal
+            // 바이패스하지 않은 조회 오류 (BLOCK은 아래에서 따로 센다)
+            .doOnError(e -> metrics.onOutcome(routeSet, RequestFilterMetrics.Outcome.ERROR))
+            // blocking 라우트가 "BLOCK" 상태이면 InternalServerException 발생
+            .flatMap(p -> {
+                for (RequestFilterProperties.Route route : routes) {
+                    String status = p.getRouteStatuses().get(route.getRouteId().name());
+                    if (route.isBlocking() && Objects.equals(status, UserStatus.BLOCK.name())) {
+                        if (trace != null) {
+                            trace.onBlock(p);
+                        }
+                        metrics.onOutcome(routeSet, RequestFilterMetrics.Outcome.BLOCK);
+                        return Mono.error(new InternalServerException("User status of `" + route.getRouteId() + "` is `BLOCK`"));
+                    }
+                }
+                metrics.onFound(routeSet, p);
+                return Mono.just(p);
+            });
+        return metrics.resolve.time(principal);
+    }
+
+    RequestFilterMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 다운스트림에 전달할 헤더. (헤더 이름 -> 값)<br>
+     * 라우트별로 상태에 매핑된 값(e.g. XO_SP_ROUTE ACTIVE: "x-sp-xo-migration-yn: Y"), 매핑이 없으면 defaultValue(e.g. "N").
+     * 상태가 없는 라우트의 헤더는 포함하지 않는다.
+     */
+    public Map<String, String> migrationHeaders(Principal principal) {
+        Assert.notNull(principal, "사용자 정보가 존재하지 않습니다");
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (RequestFilterProperties.Route route : routes) {
+            String status = principal.getRouteStatuses().get(route.getRouteId().name());
+            if (status == null) {
+                continue;
+            }
+            String value = route.getValues().getOrDefault(status, route.getDefaultValue());
+            if (value != null) {
+                headers.put(route.getHeader(), value);
+            }
+        }
+        return headers;
+    }
+
+    private Mono<Principal> bypass(Throwable error, RouteSet routeSet, CaptureTrace trace) {
+        if (trace != null) {
+            trace.onBypass();
+        }
+        metrics.onOutcome(routeSet, RequestFilterMetrics.Outcome.BYPASS);
+        String reason;
+        if (error instanceof TimeoutException) {
+            reason = BYPASS_TIMEOUT;
+        } else if (error instanceof CircuitBreaker.OpenException) {
+            reason = BYPASS_CIRCUIT_OPEN;
+        } else if (error instanceof AdaptiveConcurrencyLimiter.LimitExceededException) {
+            reason = BYPASS_SHED;
+        } else {
+            reason = BYPASS_ERROR;
+            log.warn("[PrincipalMigrationStatusResolver] Principal lookup failed, bypassing: {}", error.toString());
+        }
+        bypasses.get(reason).increment();
+        return Mono.empty();
+    }
+
+    private Mono<Principal> getPrincipalSession(String sessionId, RouteSet routeSet, CaptureTrace trace) {
+        // 스크립트는 한 라우트의 상태만 조회한다.
+        if (principalRouteStatusScriptRepository != null && principalRouteStatusScriptRepository.isAvailable() && routeSet.size() == 1) {
+            // 세션과 마이그레이션 상태를 스크립트 한 번으로 조회하고, 세션 값을 해석할 수 없으면 일반 경로로 조회
+            // (스크립트는 세션 레디스에서 실행된다)
+            String routeId = routeSet.getRouteIds().get(0);
+            Mono<ScriptResult> script = withCircuitBreaker(sessionCircuitBreaker,
+                principalRouteStatusScriptRepository.getPrincipalMigrationStatus(sessionId, routeId));
+            if (trace != null) {
+                trace.onScript();
+                script = trace.timeSession(script);
+            }
+            return script
+                .flatMap(r -> {
+                    if (!r.isReadable()) {
+                        return getPrincipalSessionFromRedis(sessionId, trace);
+                    }
+                    Principal principal = onSession(r.toPrincipal(routeId), r.isMember(), trace);
+                    // 비회원 세션(LoginAppId)에는 SckMbbrNo가 없으므로 바이패스
+                    return principal.getSckMbbrNo() == null ? Mono.empty() : Mono.just(principal);
+                });
+        }
+        return getPrincipalSessionFromRedis(sessionId, trace);
+    }
+
+    private Mono<Principal> getPrincipalSessionFromRedis(String sessionId, CaptureTrace trace) {
+        Mono<PrincipalSession> session = withCircuitBreaker(sessionCircuitBreaker, principalSessionRedisReactiveRepository.getPrincipalSession(sessionId));
+        if (trace != null) {
+            session = trace.timeSession(session);
+        }
+        return session
+            .flatMap(s -> Mono.justOrEmpty(s.getAttributes())
+                .map(p -> onSession(Principal.builder()
+                    .userId(p.get(StaticValues.USER_ID))
+                    .userName(p.get(StaticValues.USER_NAME))
+                    .sckMbbrNo(p.get(StaticValues.SCK_MBBR_NO))
+                    // UserType은 세션 조회(HMGET) 응답에 함께 들어 있다.
+                    .userType(s.getUserType())
+                    .build(), s.isMember(), trace))
+                // 비회원 세션(LoginAppId)에는 SckMbbrNo가 없으므로 바이패스
+                .filter(p -> p.getSckMbbrNo() != null)
+            );
+    }
+
+    private static Principal onSession(Principal principal, boolean member, CaptureTrace trace) {
+        if (trace != null) {
+            trace.onSession(principal, member);
+        }
+        return principal;
+    }
+
+    private Mono<Principal> getPrincipalMigrationStatuses(Principal principal, RouteSet routeSet, CaptureTrace trace) {
+        Mono<Map<String, String>> lookup = withCircuitBreaker(migrationStatusCircuitBreaker,
+            principalMigrationStatusRedisReactiveRepository.getPrincipalMigrationStatuses(principal.getSckMbbrNo(), routeSet.getRouteIds()));
+        if (trace != null) {
+            lookup = trace.timeMigration(lookup);
+        }
+        return lookup
+            // 어느 라우트의 상태도 없으면 미발견
+            .filter(statuses -> !statuses.isEmpty())
+            .map(statuses -> {
+                principal.setRouteStatuses(statuses);
+                return principal;
+            });
+    }
+
+    private static void validateRoutes(List<RequestFilterProperties.Route> routes) {
+        Assert.notEmpty(routes, "sp-filter.routes가 존재하지 않습니다");
+        Set<RouteId> routeIds = new HashSet<>();
+        Set<String> headers = new HashSet<>();
+        for (RequestFilterProperties.Route route : routes) {
+            Assert.notNull(route.getRouteId(), "sp-filter.routes의 route-id가 존재하지 않습니다");
+            Assert.hasText(route.getHeader(), "sp-filter.routes의 header가 존재하지 않습니다: " + route.getRouteId());
+            Assert.isTrue(routeIds.add(route.getRouteId()), "sp-filter.routes의 route-id가 중복되었습니다: " + route.getRouteId());
+            Assert.isTrue(headers.add(route.getHeader().toLowerCase(Locale.ROOT)),
+                "sp-filter.routes의 header가 중복되었습니다: " + route.getHeader());
+        }
+    }
+
+    private static <T> Mono<T> withCircuitBreaker(CircuitBreaker circuitBreaker, Mono<T> lookup) {
+        return circuitBreaker == null ? lookup : circuitBreaker.execute(lookup);
+    }
+}
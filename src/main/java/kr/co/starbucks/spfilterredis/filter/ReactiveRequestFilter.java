@@ -0,0 +1,104 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import java.util.Map;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.Branch;
+import kr.co.starbucks.spfilterredis.filter.model.Principal;
+import kr.co.starbucks.spfilterredis.filter.routing.RouteSet;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link RequestFilter}의 WebFlux 버전.<br>
+ * 같은 판단 로직({@link PrincipalMigrationStatusResolver})을 사용하며, 조회부터 헤더 주입까지 이벤트 루프에서 블로킹 없이 동작한다.<br>
+ * <p></p>
+ * * 어플리케이션이 Reactive(WebFlux)로 기동되면 {@link RequestFilter} 대신 자동으로 등록된다.<br>
+ * * "x-sp-xo-migration-yn" 등 라우트별 헤더는 ServerHttpRequest.mutate()로 주입한다.<br>
+ * * 메트릭은 {@link RequestFilter}와 같다. ({@link RequestFilterMetrics})<br>
+ * * BLOCK 상태의 InternalServerException(ResponseStatusException)은 WebFlux 기본 예외 처리에 의해 500으로 응답된다.
+ */
+@Component
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@ConditionalOnExpression(
+    "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-session.host:}') and "
+        + "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-session.port:}') and "
+        + "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-migration-status.host:}') and "
+        + "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-migration-status.port:}')"
+)
+public class ReactiveRequestFilter implements WebFilter, Ordered {
+    private final PrincipalMigrationStatusResolver principalMigrationStatusResolver;
+    private final SessionCookieScanner sessionCookieScanner;
+    private final RequestFilterMetrics metrics;
+
+    public ReactiveRequestFilter(PrincipalMigrationStatusResolver principalMigrationStatusResolver, RequestFilterProperties properties) {
+        this.principalMigrationStatusResolver = principalMigrationStatusResolver;
+        this.sessionCookieScanner = new SessionCookieScanner(StaticValues.JSESSIONID, properties.getSessionCookie().isStripJvmRoute());
+        this.metrics = principalMigrationStatusResolver.getMetrics();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    @NotNull
+    @Override
+    public Mono<Void> filter(@NotNull ServerWebExchange exchange, @NotNull WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        // 경로 규칙(sp-filter.path-rules)상 조회하지 않는 요청은 레디스 조회 없이 그대로 전달
+        RouteSet routeSet = principalMigrationStatusResolver.selectRoutes(
+            request.getMethodValue(), request.getURI().getHost(), request.getPath().value());
+        if (routeSet == null) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        String customerId = request.getHeaders().getFirst(StaticValues.X_SP_CUSTOMER_ID);
+        String sessionId = customerId == null ? getSessionId(request, start) : null;
+        if (customerId != null) {
+            metrics.onIdSource(Branch.CUSTOMER_ID, System.nanoTime() - start);
+        }
+        return principalMigrationStatusResolver.resolve(customerId, () -> sessionId, routeSet)
+            // 조회된 마이그레이션 상태로 라우트별 헤더 주입
+            .map(p -> putMigrationStatusHeaders(exchange, p))
+            // CustomerId나 마이그레이션 상태를 찾지 못하면 헤더 조작없이 바이패스
+            .defaultIfEmpty(exchange)
+            // 필터에 들어와서 다운스트림에 넘기기까지
+            .doOnEach(signal -> {
+                if (signal.isOnNext() || signal.isOnError()) {
+                    metrics.total.recordSince(start);
+                }
+            })
+            .flatMap(chain::filter);
+    }
+
+    private ServerWebExchange putMigrationStatusHeaders(ServerWebExchange exchange, Principal principal) {
+        Map<String, String> values = principalMigrationStatusResolver.migrationHeaders(principal);
+        return exchange.mutate()
+            .request(r -> r.headers(headers -> headers.setAll(values)))
+            .build();
+    }
+
+    private String getSessionId(ServerHttpRequest request, long start) {
+        // 헤더로부터
+        String sessionId = sessionCookieScanner.normalize(request.getHeaders().getFirst(StaticValues.JSESSIONID));
+        if (sessionId != null) {
+            metrics.onIdSource(Branch.SESSION_HEADER, System.nanoTime() - start);
+            return sessionId;
+        }
+        // 헤더에 없으면 쿠키로부터. getCookies()는 모든 쿠키를 파싱하므로 Cookie 헤더 원문에서 JSESSIONID만 찾는다.
+        sessionId = sessionCookieScanner.scan(request.getHeaders().get(HttpHeaders.COOKIE));
+        metrics.onIdSource(sessionId != null ? Branch.SESSION_COOKIE : Branch.NONE, System.nanoTime() - start);
+        return sessionId;
+    }
+}
@@ -1,31 +1,40 @@
 package kr.co.starbucks.spfilterredis.filter;
 
-import static kr.co.starbucks.spfilterredis.filter.common.StaticValues.X_SP_XO_MIGRATION_YN;
-
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Objects;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpFilter;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureTrace;
+import kr.co.starbucks.spfilterredis.filter.capture.TrafficCapture;
 import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
-import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
-import kr.co.starbucks.spfilterredis.filter.enums.UserStatus;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.Branch;
 import kr.co.starbucks.spfilterredis.filter.exception.InternalServerException;
-import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalMigrationStatusRedisReactiveRepository;
-import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalSessionRedisReactiveRepository;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalRouteStatusScriptRepository;
 import kr.co.starbucks.spfilterredis.filter.model.Principal;
-import lombok.RequiredArgsConstructor;
+import kr.co.starbucks.spfilterredis.filter.routing.RouteSet;
 import lombok.extern.slf4j.Slf4j;
-import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Mono;
 
 /**
@@ -41,7 +50,8 @@ import reactor.core.publisher.Mono;
  * 1.2. 존재하지 않으면 헤더 혹은 쿠키의 JSESSIONID를 키값으로 세션 레디스에서 SckMbbrNo 값을 찾음<br>
  * 1.3. 위 1.1., 1.2.에서 CustomerId에 해당하는 값(x-sp-customer-id 혹은 SckMbbrNo)을 찾지 못하면 다운스트림으로 트래픽을 바이패스 전달<br>
  * <p></p>
- * 2. 마이그레이션 레디스에서 위 1에서 얻은 CustomerId에 해당하는 값으로 XO_SP_ROUTE 상태 조회<br>
+ * 2. 마이그레이션 레디스에서 위 1에서 얻은 CustomerId에 해당하는 값으로 XO_SP_ROUTE 상태 조회
+ * (${sp-filter.routes}에 설정한 라우트들을 HMGET 한 번으로 함께 조회하고, 라우트별 헤더를 같은 방식으로 주입한다)<br>
  * 2-1. BLOCK: InternalServerException 발생<br>
  * 2.2. ACTIVE: ("x-sp-xo-migration-yn": Y) 헤더를 주입하여 다운스트림으로 트래픽을 전달<br>
  * 2-3. 그외 값: ("x-sp-xo-migtation-yn": "N") 헤더를 주입하여 다운스트림으로 트래픽을 전달<br>
@@ -54,13 +64,31 @@ import reactor.core.publisher.Mono;
  * * ${spring.redis.principal-session.port} <br>
  * * ${spring.redis.principal-migration-status.host} <br>
  * * ${spring.redis.principal-migration-status.port} <br>
+ * <p></p>
+ * 세션 레디스와 마이그레이션 상태 레디스가 같은 서버이고 ${spring.redis.principal-route-script.enabled}가 true이면,
+ * JSESSIONID 경로의 1.2.와 2.를 Lua 스크립트 한 번으로 처리한다. ({@link PrincipalRouteStatusScriptRepository})<br>
+ * <p></p>
+ * ${sp-filter.path-rules}에서 제외한 요청(e.g. 헬스 체크, 정적 리소스)은 레디스 조회 없이 그대로 다운스트림으로 전달한다.<br>
+ * <p></p>
+ * ${sp-filter.async.enabled}가 true이면 Mono.block() 대신 비동기 서블릿(startAsync)으로 조회를 기다린다.
+ * 조회 중에는 워커 스레드를 점유하지 않으므로 적은 워커 풀로도 많은 동시 조회를 처리할 수 있다.<br>
+ * <p></p>
+ * 단계별 소요 시간, 라우트별 결과, CustomerId를 얻은 경로는 "request.filter.*" 메트릭으로 노출된다. ({@link RequestFilterMetrics})<br>
+ * <p></p>
+ * ${sp-filter.capture.enabled}가 true이면 요청 일부의 조회 입력과 결과를 캡처 파일에 기록한다. ({@link TrafficCapture})<br>
+ * <p></p>
+ * ${sp-filter.latency-budget.enabled}가 true이면 조회 전체에 지연 예산(e.g. 20ms)을 두고, 예산 초과, Circuit Breaker OPEN,
+ * 레디스 오류인 요청은 2-4.(미발견)와 같이 바이패스한다.<br>
+ * <p></p>
+ * 판단 로직은 {@link PrincipalMigrationStatusResolver}에 있으며, WebFlux 어플리케이션에서는 이 필터 대신
+ * {@link ReactiveRequestFilter}가 같은 로직으로 동작한다.<br>
  *
  * @author Sanghyoun Kim
  */
 @Slf4j
-@RequiredArgsConstructor
 @Component
 @Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @ConditionalOnExpression(
     "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-session.host:}') and "
         + "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-session.port:}') and "
@@ -68,84 +96,202 @@ import reactor.core.publisher.Mono;
         + "!T(org.springframework.util.StringUtils).isEmpty('${spring.redis.principal-migration-status.port:}')"
 )
 public class RequestFilter extends HttpFilter {
-    private final PrincipalSessionRedisReactiveRepository principalSessionRedisReactiveRepository;
-    private final PrincipalMigrationStatusRedisReactiveRepository principalMigrationStatusRedisReactiveRepository;
+    // 비동기 서블릿 모드에서 조회 결과를 ASYNC 디스패치로 넘기는 request attribute
+    private static final String ASYNC_RESULT_ATTRIBUTE = RequestFilter.class.getName() + ".ASYNC_RESULT";
+    private static final Duration ASYNC_TIMEOUT_GRACE = Duration.ofSeconds(1);
+
+    private final PrincipalMigrationStatusResolver principalMigrationStatusResolver;
+    private final RequestFilterProperties properties;
+    private final SessionCookieScanner sessionCookieScanner;
+    // 요청 캡처 (sp-filter.capture.enabled=true 일 때만 존재)
+    private final TrafficCapture trafficCapture;
+    private final RequestFilterMetrics metrics;
+
+    public RequestFilter(
+        PrincipalMigrationStatusResolver principalMigrationStatusResolver,
+        RequestFilterProperties properties,
+        ObjectProvider<TrafficCapture> trafficCapture
+    ) {
+        this.principalMigrationStatusResolver = principalMigrationStatusResolver;
+        this.properties = properties;
+        this.sessionCookieScanner = new SessionCookieScanner(StaticValues.JSESSIONID, properties.getSessionCookie().isStripJvmRoute());
+        this.trafficCapture = trafficCapture.getIfAvailable();
+        this.metrics = principalMigrationStatusResolver.getMetrics();
+    }
 
     @Override
     protected void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (properties.getAsync().isEnabled() && request.getDispatcherType() == DispatcherType.ASYNC) {
+            resumeAsync(request, response, chain);
+            return;
+        }
+        // 경로 규칙(sp-filter.path-rules)상 조회하지 않는 요청은 레디스 조회 없이 그대로 전달
+        RouteSet routeSet = principalMigrationStatusResolver.selectRoutes(
+            request.getMethod(), request.getServerName(), request.getRequestURI());
+        if (routeSet == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (properties.getAsync().isEnabled()) {
+            doFilterAsync(request, response, chain, routeSet);
+        } else {
+            doFilterBlocking(request, response, chain, routeSet);
+        }
+    }
+
+    private void doFilterBlocking(HttpServletRequest request, HttpServletResponse response, FilterChain chain, RouteSet routeSet)
+        throws IOException, ServletException {
+        long start = System.nanoTime();
         // Mutable HTTP request from the source one.
         MutableHttpServletRequest mutableRequest = new MutableHttpServletRequest(request);
-        getPrincipalSession(request)
-            // 세션 레디스로부터 Principal을 찾았으면 마이그레이션 상태 조회
-            .flatMap(p -> getPrincipalMigrationStatus(p, RouteId.XO_SP_ROUTE.name()))
-            // "BLOCK" 상태이면 InternalServerException 발생
-            .flatMap(p -> {
-                if (Objects.equals(p.getUserStatus(), UserStatus.BLOCK.name())) {
-                    return Mono.error(new InternalServerException("User status is `BLOCK`"));
-                }
-                return Mono.just(p);
-            })
+        try {
+            resolveMigrationStatus(request, mutableRequest, routeSet)
+                // 세션 및 마이그레이션 상태 레디스 조회가 끝나기를 기다린다. (sp-filter.async.enabled=true 이면 비동기 서블릿 모드)
+                .block();
+        } finally {
+            metrics.total.recordSince(start);
+        }
+
+        // Hand over to the downstream.
+        chain.doFilter(mutableRequest, response);
+    }
+
+    /**
+     * 비동기 서블릿 모드.<br>
+     * REQUEST 디스패치에서 startAsync() 후 조회를 구독하고 워커 스레드를 반환한다.
+     * 조회가 끝나면(성공, 오류, 제한 시간 초과) 결과를 request attribute에 담아 ASYNC 디스패치하고,
+     * ASYNC 디스패치에서 다운스트림을 호출하거나 동기 모드와 같은 예외를 던진다.
+     */
+    private void doFilterAsync(HttpServletRequest request, HttpServletResponse response, FilterChain chain, RouteSet routeSet)
+        throws IOException, ServletException {
+        if (!request.isAsyncSupported()) {
+            log.warn("[RequestFilter] Async is not supported for {}, falling back to blocking mode.", request.getRequestURI());
+            doFilterBlocking(request, response, chain, routeSet);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Duration timeout = properties.getAsync().getTimeout();
+        MutableHttpServletRequest mutableRequest = new MutableHttpServletRequest(request);
+        AsyncContext asyncContext = request.startAsync(mutableRequest, response);
+        // 컨테이너 타임아웃은 Reactor 타임아웃이 먼저 동작하지 못한 경우의 안전장치
+        asyncContext.setTimeout(timeout.plus(ASYNC_TIMEOUT_GRACE).toMillis());
+
+        AtomicBoolean resumed = new AtomicBoolean();
+        Consumer<Throwable> resume = error -> {
+            if (resumed.compareAndSet(false, true)) {
+                asyncContext.getRequest().setAttribute(ASYNC_RESULT_ATTRIBUTE, new AsyncResult(mutableRequest, error, start));
+                asyncContext.dispatch();
+            }
+        };
+
+        // 조회가 즉시 끝나 dispatch()가 먼저 호출될 수 있으므로 리스너를 먼저 등록한다.
+        Disposable.Swap subscription = Disposables.swap();
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                subscription.dispose();
+                resume.accept(timedOut(timeout));
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                subscription.dispose();
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+                // nothing to do
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // nothing to do
+            }
+        });
+
+        subscription.update(Mono.defer(() -> resolveMigrationStatus(request, mutableRequest, routeSet))
+            .timeout(timeout, Mono.error(() -> timedOut(timeout)))
+            .subscribe(p -> { }, resume, () -> resume.accept(null)));
+    }
+
+    /**
+     * 비동기 서블릿 모드의 ASYNC 디스패치. 조회 결과로 다운스트림을 호출하거나 동기 모드와 같은 예외를 던진다.
+     */
+    private void resumeAsync(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
+        Object result = request.getAttribute(ASYNC_RESULT_ATTRIBUTE);
+        if (result instanceof AsyncResult) {
+            request.removeAttribute(ASYNC_RESULT_ATTRIBUTE);
+            AsyncResult asyncResult = (AsyncResult) result;
+            // 조회 시작부터 ASYNC 디스패치까지
+            metrics.total.recordSince(asyncResult.startNanos);
+            asyncResult.resume(response, chain);
+        } else {
+            // 다운스트림이 시작한 비동기 처리의 디스패치
+            chain.doFilter(request, response);
+        }
+    }
+
+    private Mono<Principal> resolveMigrationStatus(HttpServletRequest request, MutableHttpServletRequest mutableRequest, RouteSet routeSet) {
+        long start = System.nanoTime();
+        String customerId = request.getHeader(StaticValues.X_SP_CUSTOMER_ID);
+        String sessionId = null;
+        Branch branch = Branch.CUSTOMER_ID;
+        if (customerId == null) {
+            // 헤더로부터
+            sessionId = sessionCookieScanner.normalize(request.getHeader(StaticValues.JSESSIONID));
+            branch = Branch.SESSION_HEADER;
+            if (sessionId == null) {
+                // 헤더에 없으면 쿠키로부터. getCookies()는 모든 쿠키를 파싱하므로 Cookie 헤더 원문에서 JSESSIONID만 찾는다.
+                sessionId = sessionCookieScanner.scan(request.getHeaders(HttpHeaders.COOKIE));
+                branch = sessionId != null ? Branch.SESSION_COOKIE : Branch.NONE;
+            }
+        }
+        metrics.onIdSource(branch, System.nanoTime() - start);
+
+        CaptureTrace trace = trafficCapture != null ? trafficCapture.sample(customerId) : null;
+        if (trace != null) {
+            trace.onSessionId(branch, sessionId);
+        }
+        String jsessionId = sessionId;
+        Mono<Principal> principal = principalMigrationStatusResolver.resolve(customerId, () -> jsessionId, routeSet, trace)
             /*
              * 조회된 마이그레이션 상태로부터 필요한 조작을 수행한다.
-             * 현재 구현에서는 다운스트림 동작을 위해 "x-sp-xo-migration-yn" 헤더 주입.
-             * - <특정 사용자, "XO_SP_ROUTE", ACTIVE>: "x-sp-xo-migration-yn" = "Y"
-             * - 그외: "x-sp-xo-migration-yn" = "N"
+             * 현재 구현에서는 다운스트림 동작을 위해 "x-sp-xo-migration-yn" 등 라우트별 헤더 주입.
              */
-            .doOnNext(p -> putMigrationStatusHeader(mutableRequest, p))
-            // 세션 및 마이그레이션 상태 레디스 조회가 끝나기를 기다린다. 먼 미래에 Reactive 전환이 완료되면 subscribe() 등을 활용하자.
-            .block();
+            .doOnNext(p -> putMigrationStatusHeaders(mutableRequest, p));
+        return trace != null ? trafficCapture.record(principal, trace) : principal;
+    }
 
-        // Hand over to the downstream.
-        chain.doFilter(mutableRequest, response);
+    private static InternalServerException timedOut(Duration timeout) {
+        return new InternalServerException("Principal lookup timed out after " + timeout.toMillis() + "ms");
     }
 
-    private void putMigrationStatusHeader(MutableHttpServletRequest request, Principal principal) {
+    private void putMigrationStatusHeaders(MutableHttpServletRequest request, Principal principal) {
         Assert.notNull(request, "HTTP 리퀘스트가 존재하지 않습니다");
-        Assert.notNull(principal, "사용자 정보가 존재하지 않습니다");
-        request.putHeader(X_SP_XO_MIGRATION_YN, Objects.equals(principal.getUserStatus(), UserStatus.ACTIVE.name()) ? "Y" : "N");
+        principalMigrationStatusResolver.migrationHeaders(principal).forEach(request::putHeader);
     }
 
-    private Mono<Principal> getPrincipalSession(@NotNull HttpServletRequest request) {
-        return Optional.ofNullable(request.getHeader("x-sp-customer-id"))
-            .stream().findFirst()
-            // "x-sp-customer-id" 헤더가 있으면 SckMbbrNo를 가진 Principal Mono 반환
-            .map(id -> Mono.just(Principal.builder().sckMbbrNo(id).build()))
-            // 없으면 헤더 혹은 쿠키에 존재하는 JSESSIONID로 세션 레디스 조회
-            .orElse(
-                // 헤더로부터
-                Optional.ofNullable(request.getHeader(StaticValues.JSESSIONID))
-                    .map(Mono::just)
-                    // 헤더에 없으면 쿠키로부터
-                    .orElse(
-                        Optional.ofNullable(request.getCookies())
-                            .flatMap(cookies -> Arrays.stream(cookies)
-                                // JSSESIONID 쿠키가 있으면
-                                .filter(c -> StaticValues.JSESSIONID.equals(c.getName()))
-                                .findAny()
-                            )
-                            // 해당하는 쿠키가 있으면 쿠키 값 반환
-                            .map(c -> Mono.just(c.getValue()))
-                            .orElse(Mono.empty())
-                    )
-                    // 헤더나 쿠키에서 얻어온 JSESSIONID를 사용하여 세션 레디스 조회
-                    .flatMap(sid ->
-                        principalSessionRedisReactiveRepository.getPrincipalSession(sid)
-                            .flatMap(p -> Mono.just(Principal.builder()
-                                .userId(p.get(StaticValues.USER_ID))
-                                .userName(p.get(StaticValues.USER_NAME))
-                                .sckMbbrNo(p.get(StaticValues.SCK_MBBR_NO))
-                                // TODO: 향후 UserType이 필요할 경우 principalSessionRedisReactiveRepository.getUserType() 호출
-                                .build())
-                            )
-                    )
-            );
-    }
+    /**
+     * 비동기 조회 결과. ASYNC 디스패치에서 다운스트림을 호출하거나, 동기 모드(block())와 같은 예외를 던진다.
+     */
+    private static final class AsyncResult {
+        private final MutableHttpServletRequest request;
+        private final Throwable error;
+        private final long startNanos;
+
+        private AsyncResult(MutableHttpServletRequest request, Throwable error, long startNanos) {
+            this.request = request;
+            this.error = error;
+            this.startNanos = startNanos;
+        }
 
-    private Mono<Principal> getPrincipalMigrationStatus(Principal principal, String routeId) {
-        return principalMigrationStatusRedisReactiveRepository.getPrincipalMigrationStatus(principal.getSckMbbrNo(), routeId)
-            .flatMap(s -> {
-                principal.setUserStatus(s);
-                return Mono.just(principal);
-            });
+        private void resume(HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
+            if (error != null) {
+                // block()과 같이 RuntimeException은 그대로, Checked Exception은 감싸서 던진다.
+                throw Exceptions.propagate(error);
+            }
+            chain.doFilter(request, response);
+        }
     }
 }
@@ -0,0 +1,103 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.Branch;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.enums.UserStatus;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.StageTimer;
+import kr.co.starbucks.spfilterredis.filter.model.Principal;
+import kr.co.starbucks.spfilterredis.filter.routing.RouteSet;
+
+/**
+ * {@link RequestFilter}, {@link ReactiveRequestFilter}와 {@link PrincipalMigrationStatusResolver}의 메트릭.<br>
+ * <p></p>
+ * * "request.filter.stage": 단계별 소요 시간 ({@link StageTimer}). 이 클래스는 id, resolve, total 단계를 기록하고
+ * session, migration, script 단계는 각 레포지토리가 기록한다.<br>
+ * * "request.filter.outcomes": 라우트별 결과(route, outcome 태그). 상태를 찾은 요청은 라우트마다 active(ACTIVE 상태),
+ * other(그 외 상태), not-found(그 라우트의 상태 없음)로 세고 (헤더 값은 라우트 설정을 따르므로 태그는 상태 기준이다), not-found, bypass, block, error로 끝난 요청은
+ * 조회한 라우트마다 하나씩 센다.<br>
+ * * "request.filter.id.source": CustomerId를 얻은 경로(source 태그: customer-id, session-header, session-cookie, none)<br>
+ * <p></p>
+ * 카운터는 기동 시 모두 등록해 두므로 요청마다 태그로 미터를 찾지 않는다.
+ */
+final class RequestFilterMetrics {
+
+    enum Outcome {
+        ACTIVE, OTHER, NOT_FOUND, BYPASS, BLOCK, ERROR;
+
+        private final String tag = name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    final StageTimer id;
+
+    final StageTimer resolve;
+
+    final StageTimer total;
+
+    private final Map<RouteId, Counter[]> outcomes = new EnumMap<>(RouteId.class);
+
+    private final Counter[] idSources = new Counter[Branch.values().length];
+
+    RequestFilterMetrics(List<RequestFilterProperties.Route> routes, MeterRegistry registry) {
+        this.id = new StageTimer("id", registry);
+        this.resolve = new StageTimer("resolve", registry);
+        this.total = new StageTimer("total", registry);
+
+        for (RequestFilterProperties.Route route : routes) {
+            Counter[] counters = new Counter[Outcome.values().length];
+            for (Outcome outcome : Outcome.values()) {
+                counters[outcome.ordinal()] = Counter.builder("request.filter.outcomes")
+                    .description("Requests by migration routing outcome for each route")
+                    .tag("route", route.getRouteId().name())
+                    .tag("outcome", outcome.tag)
+                    .register(registry);
+            }
+            outcomes.put(route.getRouteId(), counters);
+        }
+        for (Branch branch : Branch.values()) {
+            idSources[branch.ordinal()] = Counter.builder("request.filter.id.source")
+                .description("Requests by where the customer id or session id was taken from")
+                .tag("source", branch.name().toLowerCase(Locale.ROOT).replace('_', '-'))
+                .register(registry);
+        }
+    }
+
+    void onIdSource(Branch branch, long nanos) {
+        idSources[branch.ordinal()].increment();
+        id.record(nanos);
+    }
+
+    /**
+     * 조회한 라우트마다 같은 결과로 센다.
+     */
+    void onOutcome(RouteSet routeSet, Outcome outcome) {
+        for (RequestFilterProperties.Route route : routeSet.getRoutes()) {
+            outcomes.get(route.getRouteId())[outcome.ordinal()].increment();
+        }
+    }
+
+    /**
+     * 상태를 찾은 요청. 라우트마다 상태에 따라 센다.
+     */
+    void onFound(RouteSet routeSet, Principal principal) {
+        for (RequestFilterProperties.Route route : routeSet.getRoutes()) {
+            String status = principal.getRouteStatuses().get(route.getRouteId().name());
+            Outcome outcome;
+            if (status == null) {
+                outcome = Outcome.NOT_FOUND;
+            } else if (Objects.equals(status, UserStatus.ACTIVE.name())) {
+                outcome = Outcome.ACTIVE;
+            } else {
+                outcome = Outcome.OTHER;
+            }
+            outcomes.get(route.getRouteId())[outcome.ordinal()].increment();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import java.util.Enumeration;
+import java.util.List;
+import org.springframework.util.Assert;
+
+/**
+ * Cookie 헤더 원문에서 세션 쿠키(JSESSIONID) 값만 찾는다.<br>
+ * <p></p>
+ * * request.getCookies()처럼 모든 쿠키를 Cookie 객체로 만들지 않고, 헤더 문자열을 제자리에서 훑어 찾은 값 하나만 String으로 만든다.
+ * 분석용 쿠키가 많고 큰 요청에서 쿠키 파싱 비용과 할당을 없앤다.<br>
+ * * "name=value; name=value" 형식(RFC 6265)이며 이름은 대소문자를 구분한다. 이름과 값 앞뒤의 공백, 값을 감싼 큰따옴표는 제거한다.<br>
+ * * 같은 이름이 여러 번 나오면(e.g. 경로가 다른 쿠키) 헤더 순서상 값이 비어 있지 않은 첫 번째 값을 사용한다.
+ * Cookie 헤더가 여러 개이면(e.g. HTTP/2) 순서대로 이어서 찾는다.<br>
+ * * stripJvmRoute가 true이면 Tomcat jvmRoute 접미사(e.g. "ABC123.node1"의 ".node1")를 제거한다.
+ */
+final class SessionCookieScanner {
+
+    private final String name;
+
+    private final boolean stripJvmRoute;
+
+    SessionCookieScanner(String name, boolean stripJvmRoute) {
+        Assert.hasText(name, "쿠키 이름이 존재하지 않습니다");
+        this.name = name;
+        this.stripJvmRoute = stripJvmRoute;
+    }
+
+    /**
+     * @return 없으면 null
+     */
+    String scan(Enumeration<String> cookieHeaders) {
+        if (cookieHeaders == null) {
+            return null;
+        }
+        while (cookieHeaders.hasMoreElements()) {
+            String value = scan(cookieHeaders.nextElement());
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return 없으면 null
+     */
+    String scan(List<String> cookieHeaders) {
+        if (cookieHeaders == null) {
+            return null;
+        }
+        for (int i = 0; i < cookieHeaders.size(); i++) {
+            String value = scan(cookieHeaders.get(i));
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param cookieHeader Cookie 헤더 하나
+     * @return 없으면 null
+     */
+    String scan(String cookieHeader) {
+        if (cookieHeader == null) {
+            return null;
+        }
+        int length = cookieHeader.length();
+        int i = 0;
+        while (i < length) {
+            int end = cookieHeader.indexOf(';', i);
+            if (end < 0) {
+                end = length;
+            }
+            int equals = cookieHeader.indexOf('=', i);
+            if (equals >= 0 && equals < end) {
+                int nameStart = skipWhitespace(cookieHeader, i, equals);
+                int nameEnd = trimWhitespace(cookieHeader, nameStart, equals);
+                if (nameEnd - nameStart == name.length() && cookieHeader.regionMatches(nameStart, name, 0, name.length())) {
+                    String value = value(cookieHeader, equals + 1, end);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+            }
+            i = end + 1;
+        }
+        return null;
+    }
+
+    /**
+     * JSESSIONID 헤더로 받은 값에도 쿠키와 같은 규칙(jvmRoute 제거)을 적용한다.
+     */
+    String normalize(String sessionId) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            return null;
+        }
+        return value(sessionId, 0, sessionId.length());
+    }
+
+    private String value(String source, int from, int to) {
+        int start = skipWhitespace(source, from, to);
+        int end = trimWhitespace(source, start, to);
+        if (end - start >= 2 && source.charAt(start) == '"' && source.charAt(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        if (stripJvmRoute) {
+            int dot = source.indexOf('.', start);
+            if (dot >= 0 && dot < end) {
+                end = dot;
+            }
+        }
+        return start < end ? source.substring(start, end) : null;
+    }
+
+    private static int skipWhitespace(String source, int from, int to) {
+        while (from < to && isWhitespace(source.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimWhitespace(String source, int from, int to) {
+        while (to > from && isWhitespace(source.charAt(to - 1))) {
+            to--;
+        }
+        return to;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
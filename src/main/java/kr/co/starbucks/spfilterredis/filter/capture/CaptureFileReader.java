@@ -0,0 +1,93 @@
+package kr.co.starbucks.spfilterredis.filter.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+
+/**
+ * {@link TrafficCapture}가 쓴 캡처 파일을 읽는다. 형식은 {@link CaptureFileWriter} 참고.<br>
+ * 레코드는 번호로 바로 읽으며, 레코드 객체를 재사용할 수 있다.
+ */
+public final class CaptureFileReader implements Closeable {
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final long startEpochMillis;
+
+    private final int size;
+
+    private final List<RouteId> routeIds;
+
+    public CaptureFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < CaptureFileWriter.HEADER_SIZE) {
+                throw new IOException("Not a capture file (too short): " + path);
+            }
+            this.buffer = channel.map(MapMode.READ_ONLY, 0, Math.min(fileSize, Integer.MAX_VALUE));
+            if (buffer.getInt(0) != CaptureFileWriter.MAGIC) {
+                throw new IOException("Not a capture file (bad magic): " + path);
+            }
+            if (buffer.getShort(4) != CaptureFileWriter.VERSION || buffer.getShort(6) != CaptureRecord.SIZE) {
+                throw new IOException("Unsupported capture file version " + buffer.getShort(4) + ": " + path);
+            }
+            this.startEpochMillis = buffer.getLong(CaptureFileWriter.START_OFFSET);
+            long count = buffer.getLong(CaptureFileWriter.COUNT_OFFSET);
+            long available = (buffer.capacity() - CaptureFileWriter.HEADER_SIZE) / CaptureRecord.SIZE;
+            this.size = (int) Math.min(count, available);
+
+            int routes = buffer.get(CaptureFileWriter.ROUTE_COUNT_OFFSET);
+            List<RouteId> ids = new ArrayList<>(routes);
+            for (int i = 0; i < routes; i++) {
+                ids.add(RouteId.values()[buffer.get(CaptureFileWriter.ROUTES_OFFSET + i)]);
+            }
+            this.routeIds = Collections.unmodifiableList(ids);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@link CaptureRecord#getRouteStatus(int)}의 라우트 순서
+     */
+    public List<RouteId> getRouteIds() {
+        return routeIds;
+    }
+
+    /**
+     * @param target 값을 채울 레코드 (재사용)
+     * @return target
+     */
+    public CaptureRecord read(int index, CaptureRecord target) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of " + size);
+        }
+        target.readFrom(buffer, CaptureFileWriter.HEADER_SIZE + index * CaptureRecord.SIZE);
+        return target;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
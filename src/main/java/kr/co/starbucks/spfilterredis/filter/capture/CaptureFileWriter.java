@@ -0,0 +1,106 @@
+package kr.co.starbucks.spfilterredis.filter.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import org.springframework.util.Assert;
+
+/**
+ * 캡처 파일을 메모리 맵으로 열어 레코드를 이어서 쓴다. 기록 스레드 하나에서만 사용한다.<br>
+ * <p></p>
+ * 파일 형식 (빅 엔디언)<br>
+ * * 헤더(32): magic(4) "SPFC", version(2), 레코드 크기(2), 캡처 시작 시각(epoch ms, 8), 레코드 수(8),
+ * 라우트 수(1), 라우트별 RouteId ordinal(최대 4), 예약(3)<br>
+ * * 레코드: {@link CaptureRecord} 고정 길이의 연속<br>
+ * 레코드 수는 레코드를 쓴 뒤 갱신하므로 캡처 중인 파일도 레코드 수만큼은 읽을 수 있다.
+ */
+final class CaptureFileWriter implements Closeable {
+
+    static final int MAGIC = 0x53504643;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int START_OFFSET = 8;
+    static final int COUNT_OFFSET = 16;
+    static final int ROUTE_COUNT_OFFSET = 24;
+    static final int ROUTES_OFFSET = 25;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final long capacity;
+
+    private long count;
+
+    CaptureFileWriter(Path path, long maxBytes, long startEpochMillis, List<RouteId> routeIds) throws IOException {
+        Assert.isTrue(maxBytes >= HEADER_SIZE + CaptureRecord.SIZE && maxBytes <= Integer.MAX_VALUE,
+            "sp-filter.capture.max-file-size must be between 72B and 2GB: " + maxBytes);
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(MapMode.READ_WRITE, 0, maxBytes);
+        this.capacity = (maxBytes - HEADER_SIZE) / CaptureRecord.SIZE;
+
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, (short) CaptureRecord.SIZE);
+        buffer.putLong(START_OFFSET, startEpochMillis);
+        buffer.putLong(COUNT_OFFSET, 0);
+        int routes = Math.min(routeIds.size(), CaptureRecord.MAX_ROUTES);
+        buffer.put(ROUTE_COUNT_OFFSET, (byte) routes);
+        for (int i = 0; i < routes; i++) {
+            buffer.put(ROUTES_OFFSET + i, (byte) routeIds.get(i).ordinal());
+        }
+    }
+
+    /**
+     * @return 파일이 가득 찼으면 false
+     */
+    boolean append(CaptureRecord record) {
+        if (count >= capacity) {
+            return false;
+        }
+        record.writeTo(buffer, (int) (HEADER_SIZE + count * CaptureRecord.SIZE));
+        count++;
+        return true;
+    }
+
+    /**
+     * 지금까지 쓴 레코드 수를 헤더에 기록한다.
+     */
+    void commit() {
+        buffer.putLong(COUNT_OFFSET, count);
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        commit();
+        buffer.force();
+        try {
+            // 쓰지 않은 뒷부분을 잘라 레코드 수만큼의 크기로 남긴다.
+            channel.truncate(HEADER_SIZE + count * CaptureRecord.SIZE);
+        } catch (IOException e) {
+            // 매핑된 파일을 자를 수 없는 OS(e.g. Windows)에서는 그대로 둔다. 읽을 때는 헤더의 레코드 수만 사용한다.
+        } finally {
+            channel.close();
+        }
+    }
+}
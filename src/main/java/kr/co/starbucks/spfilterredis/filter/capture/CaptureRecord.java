@@ -0,0 +1,179 @@
+package kr.co.starbucks.spfilterredis.filter.capture;
+
+import java.nio.ByteBuffer;
+import kr.co.starbucks.spfilterredis.filter.enums.Branch;
+
+/**
+ * 캡처 파일의 레코드 하나 (40바이트 고정 길이).<br>
+ * <p></p>
+ * * offsetMicros(8): 캡처 시작부터 요청까지의 시간<br>
+ * * idHash(8): 요청의 x-sp-customer-id 혹은 JSESSIONID의 해시 (없으면 0)<br>
+ * * customerHash(8): 세션에서 찾은(혹은 헤더의) CustomerId 해시 (없으면 0)<br>
+ * * sessionMicros(4), migrationMicros(4): 세션 레디스, 마이그레이션 상태 레디스 조회 시간. 스크립트 모드이면 세션 쪽에 둘을 합한 시간<br>
+ * * totalMicros(4): 조회 전체 시간<br>
+ * * branch(1), outcome(1), flags(1)<br>
+ * * statuses(1): 라우트별 상태 2비트씩 (캡처 파일 헤더의 라우트 순서, 최대 4개)<br>
+ * <p></p>
+ * ID는 원문 대신 솔트를 둔 64비트 해시만 기록하므로 같은 파일 안에서 같은 ID인지 여부만 알 수 있다.
+ */
+public final class CaptureRecord {
+
+    public static final int SIZE = 40;
+
+    public static final int MAX_ROUTES = 4;
+
+    private static final int FLAG_MEMBER = 1;
+    private static final int FLAG_SESSION_FOUND = 1 << 1;
+    private static final int FLAG_STATUS_FOUND = 1 << 2;
+    private static final int FLAG_SCRIPT = 1 << 3;
+
+    public enum Outcome {
+        /**
+         * 마이그레이션 상태를 찾아 헤더를 주입함
+         */
+        FOUND,
+        /**
+         * 세션, CustomerId 혹은 상태를 찾지 못함
+         */
+        NOT_FOUND,
+        /**
+         * 지연 예산 초과, Circuit Breaker OPEN, 동시 실행 한도 초과 등으로 조회하지 않고 바이패스
+         */
+        BYPASS,
+        /**
+         * blocking 라우트가 BLOCK 상태
+         */
+        BLOCK,
+        ERROR
+    }
+
+    public enum RouteStatus {
+        NONE, ACTIVE, BLOCK, OTHER
+    }
+
+    private long offsetMicros;
+    private long idHash;
+    private long customerHash;
+    private int sessionMicros;
+    private int migrationMicros;
+    private int totalMicros;
+    private Branch branch = Branch.NONE;
+    private Outcome outcome = Outcome.NOT_FOUND;
+    private int flags;
+    private int statuses;
+
+    public long getOffsetMicros() {
+        return offsetMicros;
+    }
+
+    public long getIdHash() {
+        return idHash;
+    }
+
+    public long getCustomerHash() {
+        return customerHash;
+    }
+
+    public int getSessionMicros() {
+        return sessionMicros;
+    }
+
+    public int getMigrationMicros() {
+        return migrationMicros;
+    }
+
+    public int getTotalMicros() {
+        return totalMicros;
+    }
+
+    public Branch getBranch() {
+        return branch;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * 회원(LoginUserInfo) 세션
+     */
+    public boolean isMember() {
+        return (flags & FLAG_MEMBER) != 0;
+    }
+
+    public boolean isSessionFound() {
+        return (flags & FLAG_SESSION_FOUND) != 0;
+    }
+
+    /**
+     * 마이그레이션 상태 레디스에 CustomerId의 상태가 있었음
+     */
+    public boolean isStatusFound() {
+        return (flags & FLAG_STATUS_FOUND) != 0;
+    }
+
+    public boolean isScript() {
+        return (flags & FLAG_SCRIPT) != 0;
+    }
+
+    /**
+     * @param routeIndex 캡처 파일 헤더의 라우트 순서
+     */
+    public RouteStatus getRouteStatus(int routeIndex) {
+        return RouteStatus.values()[(statuses >>> (routeIndex * 2)) & 0b11];
+    }
+
+    void set(long offsetMicros, long idHash, long customerHash, long sessionNanos, long migrationNanos, long totalNanos,
+             Branch branch, Outcome outcome, boolean member, boolean sessionFound, boolean statusFound, boolean script, int statuses) {
+        this.offsetMicros = offsetMicros;
+        this.idHash = idHash;
+        this.customerHash = customerHash;
+        this.sessionMicros = micros(sessionNanos);
+        this.migrationMicros = micros(migrationNanos);
+        this.totalMicros = micros(totalNanos);
+        this.branch = branch;
+        this.outcome = outcome;
+        this.flags = (member ? FLAG_MEMBER : 0)
+            | (sessionFound ? FLAG_SESSION_FOUND : 0)
+            | (statusFound ? FLAG_STATUS_FOUND : 0)
+            | (script ? FLAG_SCRIPT : 0);
+        this.statuses = statuses;
+    }
+
+    static int encodeStatus(int statuses, int routeIndex, RouteStatus status) {
+        if (routeIndex >= MAX_ROUTES) {
+            return statuses;
+        }
+        return statuses | (status.ordinal() << (routeIndex * 2));
+    }
+
+    void writeTo(ByteBuffer buffer, int position) {
+        buffer.putLong(position, offsetMicros);
+        buffer.putLong(position + 8, idHash);
+        buffer.putLong(position + 16, customerHash);
+        buffer.putInt(position + 24, sessionMicros);
+        buffer.putInt(position + 28, migrationMicros);
+        buffer.putInt(position + 32, totalMicros);
+        buffer.put(position + 36, (byte) branch.ordinal());
+        buffer.put(position + 37, (byte) outcome.ordinal());
+        buffer.put(position + 38, (byte) flags);
+        buffer.put(position + 39, (byte) statuses);
+    }
+
+    void readFrom(ByteBuffer buffer, int position) {
+        offsetMicros = buffer.getLong(position);
+        idHash = buffer.getLong(position + 8);
+        customerHash = buffer.getLong(position + 16);
+        sessionMicros = buffer.getInt(position + 24);
+        migrationMicros = buffer.getInt(position + 28);
+        totalMicros = buffer.getInt(position + 32);
+        branch = Branch.values()[buffer.get(position + 36)];
+        outcome = Outcome.values()[buffer.get(position + 37)];
+        flags = buffer.get(position + 38) & 0xFF;
+        statuses = buffer.get(position + 39) & 0xFF;
+    }
+
+    private static int micros(long nanos) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, nanos / 1000));
+    }
+}
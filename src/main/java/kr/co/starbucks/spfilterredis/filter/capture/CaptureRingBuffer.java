@@ -0,0 +1,89 @@
+package kr.co.starbucks.spfilterredis.filter.capture;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import org.springframework.util.Assert;
+
+/**
+ * 요청 스레드들(여러 생산자)이 레코드를 넣고 기록 스레드(소비자 하나)가 꺼내는 고정 크기 링 버퍼.<br>
+ * <p></p>
+ * * 락 없이 동작한다. 생산자는 CAS로 순번을 얻어 미리 만들어 둔 슬롯에 값을 쓰고, 슬롯별 published 순번으로 공개한다.<br>
+ * * 소비자는 공개된 순번까지만 읽고, 읽은 만큼 tail을 옮겨 생산자가 슬롯을 다시 쓸 수 있게 한다.<br>
+ * * 가득 차면 기다리지 않고 레코드를 버린다. (요청 처리를 늦추지 않는다)
+ */
+final class CaptureRingBuffer {
+
+    private final CaptureRecord[] slots;
+
+    // 슬롯별로 공개된 순번 + 1 (0이면 아직 공개되지 않음)
+    private final AtomicLongArray published;
+
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();
+
+    private volatile long tail;
+
+    /**
+     * @param capacity 2의 거듭제곱
+     */
+    CaptureRingBuffer(int capacity) {
+        Assert.isTrue(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of two: " + capacity);
+        this.slots = new CaptureRecord[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new CaptureRecord();
+        }
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @param writer 얻은 슬롯에 값을 쓴다.
+     * @return 가득 차서 버렸으면 false
+     */
+    boolean offer(Consumer<CaptureRecord> writer) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail >= slots.length) {
+                return false;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        writer.accept(slots[index]);
+        published.lazySet(index, sequence + 1);
+        return true;
+    }
+
+    /**
+     * 소비자 스레드에서만 호출한다. 순서대로 공개된 레코드를 넘긴다.
+     *
+     * @param consumer false를 반환하면 그 레코드부터 남겨 두고 멈춘다.
+     * @return 꺼낸 레코드 수
+     */
+    int drain(RecordConsumer consumer) {
+        long current = tail;
+        int drained = 0;
+        while (true) {
+            int index = (int) current & mask;
+            if (published.get(index) != current + 1 || !consumer.accept(slots[index])) {
+                break;
+            }
+            // 읽은 슬롯은 바로 생산자에게 돌려준다.
+            tail = ++current;
+            drained++;
+        }
+        return drained;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    @FunctionalInterface
+    interface RecordConsumer {
+        boolean accept(CaptureRecord record);
+    }
+}
@@ -0,0 +1,107 @@
+package kr.co.starbucks.spfilterredis.filter.capture;
+
+import java.util.Map;
+import kr.co.starbucks.spfilterredis.filter.enums.Branch;
+import kr.co.starbucks.spfilterredis.filter.model.Principal;
+import reactor.core.publisher.Mono;
+
+/**
+ * 캡처하기로 고른(샘플링된) 요청 하나의 조회 과정.<br>
+ * 필터가 만들어 {@link kr.co.starbucks.spfilterredis.filter.PrincipalMigrationStatusResolver}에 넘기며,
+ * 조회가 끝나면 {@link TrafficCapture#record(Mono, CaptureTrace)}가 레코드로 기록한다.
+ * 한 요청의 조회 체인 안에서 순서대로만 접근한다.
+ */
+public final class CaptureTrace {
+
+    final long startNanos;
+
+    Branch branch;
+
+    String id;
+
+    String customerId;
+
+    boolean member;
+
+    boolean sessionFound;
+
+    boolean script;
+
+    boolean bypassed;
+
+    boolean blocked;
+
+    // BLOCK이면 오류로 끝나므로 상태를 따로 남긴다.
+    Map<String, String> blockedStatuses;
+
+    long sessionNanos;
+
+    long migrationNanos;
+
+    CaptureTrace(long startNanos, String customerId) {
+        this.startNanos = startNanos;
+        if (customerId != null) {
+            this.branch = Branch.CUSTOMER_ID;
+            this.id = customerId;
+            this.customerId = customerId;
+        } else {
+            this.branch = Branch.NONE;
+        }
+    }
+
+    /**
+     * x-sp-customer-id가 없을 때 JSESSIONID를 찾은 경로
+     */
+    public void onSessionId(Branch branch, String sessionId) {
+        if (sessionId != null) {
+            this.branch = branch;
+            this.id = sessionId;
+        }
+    }
+
+    /**
+     * 세션(혹은 스크립트)으로부터 찾은 Principal
+     */
+    public void onSession(Principal principal, boolean member) {
+        this.sessionFound = true;
+        this.member = member;
+        this.customerId = principal.getSckMbbrNo();
+    }
+
+    public void onScript() {
+        this.script = true;
+    }
+
+    public void onBypass() {
+        this.bypassed = true;
+    }
+
+    /**
+     * blocking 라우트가 BLOCK 상태인 Principal
+     */
+    public void onBlock(Principal principal) {
+        this.blocked = true;
+        this.blockedStatuses = principal.getRouteStatuses();
+    }
+
+    /**
+     * 세션 레디스(스크립트 모드이면 스크립트) 조회 시간을 잰다.
+     * 결과가 다운스트림(레코드 기록)에 전달되기 전에 기록하도록 doFinally 대신 doOnTerminate를 사용한다.
+     */
+    public <T> Mono<T> timeSession(Mono<T> lookup) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return lookup.doOnTerminate(() -> sessionNanos += System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * 마이그레이션 상태 레디스 조회 시간을 잰다.
+     */
+    public <T> Mono<T> timeMigration(Mono<T> lookup) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return lookup.doOnTerminate(() -> migrationNanos += System.nanoTime() - start);
+        });
+    }
+}
@@ -0,0 +1,226 @@
+package kr.co.starbucks.spfilterredis.filter.capture;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureRecord.Outcome;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureRecord.RouteStatus;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.enums.UserStatus;
+import kr.co.starbucks.spfilterredis.filter.model.Principal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * 요청 일부(${sp-filter.capture.sample-rate})의 조회 입력과 결과를 캡처 파일에 기록한다.<br>
+ * <p></p>
+ * * 레코드에는 세션 ID와 CustomerId의 솔트 해시, CustomerId를 얻은 경로, 레디스별 조회 시간, 결과와 라우트별 상태만 남긴다.
+ * 형식은 {@link CaptureRecord}, {@link CaptureFileWriter} 참고.<br>
+ * * 요청 스레드는 락 없는 링 버퍼({@link CaptureRingBuffer})에 레코드를 넣기만 하고, 기록 스레드 하나가 메모리 맵 파일에 옮겨 쓴다.
+ * 버퍼나 파일이 가득 차면 기다리지 않고 버린다.<br>
+ * * 기록한 파일은 부하 테스트의 재생 모드(load-test.replay.file)로 레디스 데이터를 만들고 같은 순서와 간격으로 다시 호출할 수 있다.<br>
+ * <p></p>
+ * 기록 및 버린 레코드 수는 "capture.records" 메트릭(result=written|dropped)으로 노출된다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "sp-filter.capture.enabled", havingValue = "true")
+public class TrafficCapture {
+
+    private final double sampleRate;
+
+    private final long salt;
+
+    private final List<RouteId> routeIds;
+
+    private final long startNanos;
+
+    private final long flushIntervalNanos;
+
+    private final CaptureRingBuffer ringBuffer;
+
+    private final CaptureFileWriter writer;
+
+    private final Thread writerThread;
+
+    private final Counter written;
+
+    private final Counter dropped;
+
+    private volatile boolean running = true;
+
+    private volatile boolean full;
+
+    public TrafficCapture(RequestFilterProperties properties, MeterRegistry meterRegistry) throws IOException {
+        RequestFilterProperties.Capture capture = properties.getCapture();
+        this.sampleRate = capture.getSampleRate();
+        this.salt = capture.getSalt() == null || capture.getSalt().isEmpty()
+            ? new SecureRandom().nextLong()
+            : hash(0, capture.getSalt());
+        this.routeIds = properties.getRoutes().stream()
+            .map(RequestFilterProperties.Route::getRouteId)
+            .limit(CaptureRecord.MAX_ROUTES)
+            .collect(Collectors.toUnmodifiableList());
+        if (properties.getRoutes().size() > CaptureRecord.MAX_ROUTES) {
+            log.warn("[TrafficCapture] Only the first {} routes are captured.", CaptureRecord.MAX_ROUTES);
+        }
+        this.flushIntervalNanos = capture.getFlushInterval().toNanos();
+        this.ringBuffer = new CaptureRingBuffer(capture.getBufferSize());
+
+        Path path = Path.of(capture.getFile());
+        this.startNanos = System.nanoTime();
+        this.writer = new CaptureFileWriter(path, capture.getMaxFileSize().toBytes(), System.currentTimeMillis(), routeIds);
+
+        this.written = Counter.builder("capture.records")
+            .description("Sampled requests written to the capture file or dropped because the buffer or file was full")
+            .tag("result", "written")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("capture.records")
+            .description("Sampled requests written to the capture file or dropped because the buffer or file was full")
+            .tag("result", "dropped")
+            .register(meterRegistry);
+
+        this.writerThread = new Thread(this::writeLoop, "sp-filter-capture");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        log.info("[TrafficCapture] Capturing {}% of requests to {}", sampleRate * 100, path.toAbsolutePath());
+    }
+
+    /**
+     * @param customerId x-sp-customer-id 헤더 값 (없으면 null)
+     * @return 이 요청을 기록하면 trace, 아니면 null
+     */
+    public CaptureTrace sample(String customerId) {
+        if (full || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        return new CaptureTrace(System.nanoTime(), customerId);
+    }
+
+    /**
+     * 조회 결과(Principal, empty, 오류)가 나오면 레코드를 기록한다. 취소된 조회는 기록하지 않는다.
+     */
+    public Mono<Principal> record(Mono<Principal> principal, CaptureTrace trace) {
+        return principal
+            .doOnSuccess(p -> offer(trace, p, null))
+            .doOnError(e -> offer(trace, null, e));
+    }
+
+    private void offer(CaptureTrace trace, Principal principal, Throwable error) {
+        long now = System.nanoTime();
+        Outcome outcome;
+        if (error != null) {
+            outcome = trace.blocked ? Outcome.BLOCK : Outcome.ERROR;
+        } else if (principal != null) {
+            outcome = Outcome.FOUND;
+        } else {
+            outcome = trace.bypassed ? Outcome.BYPASS : Outcome.NOT_FOUND;
+        }
+        Map<String, String> routeStatuses = principal != null ? principal.getRouteStatuses() : trace.blockedStatuses;
+        int statuses = statuses(routeStatuses);
+        long idHash = trace.id != null ? hash(salt, trace.id) : 0;
+        long customerHash = trace.customerId != null ? hash(salt, trace.customerId) : 0;
+
+        boolean offered = ringBuffer.offer(record -> record.set(
+            (trace.startNanos - startNanos) / 1000,
+            idHash,
+            customerHash,
+            trace.sessionNanos,
+            trace.migrationNanos,
+            now - trace.startNanos,
+            trace.branch,
+            outcome,
+            trace.member,
+            trace.sessionFound,
+            routeStatuses != null && !routeStatuses.isEmpty(),
+            trace.script,
+            statuses
+        ));
+        if (!offered) {
+            dropped.increment();
+        }
+    }
+
+    private int statuses(Map<String, String> routeStatuses) {
+        if (routeStatuses == null) {
+            return 0;
+        }
+        int statuses = 0;
+        for (int i = 0; i < routeIds.size(); i++) {
+            String status = routeStatuses.get(routeIds.get(i).name());
+            RouteStatus routeStatus;
+            if (status == null) {
+                routeStatus = RouteStatus.NONE;
+            } else if (Objects.equals(status, UserStatus.ACTIVE.name())) {
+                routeStatus = RouteStatus.ACTIVE;
+            } else if (Objects.equals(status, UserStatus.BLOCK.name())) {
+                routeStatus = RouteStatus.BLOCK;
+            } else {
+                routeStatus = RouteStatus.OTHER;
+            }
+            statuses = CaptureRecord.encodeStatus(statuses, i, routeStatus);
+        }
+        return statuses;
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+        drain();
+    }
+
+    private int drain() {
+        int drained = ringBuffer.drain(writer::append);
+        if (drained > 0) {
+            writer.commit();
+            written.increment(drained);
+        }
+        if (!full && writer.isFull()) {
+            full = true;
+            log.warn("[TrafficCapture] Capture file is full after {} records, capture stopped.", writer.getCount());
+        }
+        return drained;
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        writer.close();
+        log.info("[TrafficCapture] Wrote {} records ({} dropped).", writer.getCount(), (long) dropped.count());
+    }
+
+    /**
+     * 솔트를 둔 64비트 해시 (FNV-1a + murmur3 fmix64). 0은 "없음"을 뜻하므로 쓰지 않는다.
+     */
+    static long hash(long salt, String value) {
+        long h = salt ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+}
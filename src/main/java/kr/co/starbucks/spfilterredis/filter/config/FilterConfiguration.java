@@ -16,17 +16,27 @@ public class FilterConfiguration {
 
     private final RequestFilter requestFilter;
 
+    private final RequestFilterProperties requestFilterProperties;
+
     @Autowired
-    public FilterConfiguration(RequestFilter requestFilter) {
+    public FilterConfiguration(RequestFilter requestFilter, RequestFilterProperties requestFilterProperties) {
         this.requestFilter = requestFilter;
+        this.requestFilterProperties = requestFilterProperties;
     }
 
     @Bean
     public FilterRegistrationBean<RequestFilter> requestFilterRegistration() {
         FilterRegistrationBean<RequestFilter> filterRegistrationBean = new FilterRegistrationBean<>();
         filterRegistrationBean.setFilter(requestFilter);
+        // 요청별 조회 여부는 필터 안에서 sp-filter.path-rules로 판단한다.
         filterRegistrationBean.setUrlPatterns(Collections.singletonList("/*"));
-        filterRegistrationBean.setDispatcherTypes(DispatcherType.REQUEST);
+        if (requestFilterProperties.getAsync().isEnabled()) {
+            // 비동기 서블릿 모드에서는 조회가 끝난 뒤 ASYNC 디스패치로 다운스트림을 호출한다.
+            filterRegistrationBean.setAsyncSupported(true);
+            filterRegistrationBean.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        } else {
+            filterRegistrationBean.setDispatcherTypes(DispatcherType.REQUEST);
+        }
         filterRegistrationBean.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
         return filterRegistrationBean;
     }
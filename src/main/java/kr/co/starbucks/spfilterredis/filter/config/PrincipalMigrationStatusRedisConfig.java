@@ -1,10 +1,26 @@
 package kr.co.starbucks.spfilterredis.filter.config;
 
 import io.lettuce.core.ClientOptions;
+import io.lettuce.core.ReadFrom;
 import io.lettuce.core.SocketOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.resource.ClientResources;
 import java.time.Duration;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.batch.MigrationStatusBatchProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.bloom.CustomerBloomFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.cache.NearCacheProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.connection.RedisClusterProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.KeyspaceNotificationProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.replica.MigrationStatusReplicaProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.ConcurrencyLimitProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.HedgingProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -12,8 +28,10 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.RedisNode;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration.LettuceClientConfigurationBuilder;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 
@@ -33,38 +51,81 @@ public class PrincipalMigrationStatusRedisConfig {
     @Bean
     @Primary
     @Profile("local")
-    public ReactiveRedisConnectionFactory principalMigrationStatusRedisStandaloneConnectionFactory() {
+    public ReactiveRedisConnectionFactory principalMigrationStatusRedisStandaloneConnectionFactory(
+        ObjectProvider<ClientResources> clientResources
+    ) {
         RedisConfiguration configuration = new RedisStandaloneConfiguration(
             principalMigrationStatusRedistHost, principalMigrationStatusRedisPort);
 
-        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+        LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder()
             .clientOptions(ClientOptions.builder()
                 .socketOptions(SocketOptions.builder()
                     .connectTimeout(Duration.ofMillis(300)).build())
                 .build())
-            .commandTimeout(Duration.ofSeconds(3))
-            .build();
+            .commandTimeout(Duration.ofSeconds(3));
+        clientResources.ifAvailable(builder::clientResources);
 
-        return new LettuceConnectionFactory(configuration, clientConfiguration);
+        return new LettuceConnectionFactory(configuration, builder.build());
     }
 
+    /**
+     * 읽기 노드(ReadFrom), 시드 노드, 토폴로지 갱신은 "spring.redis.principal-migration-status.cluster" 설정을 따른다.<br>
+     * 스프링 부트의 ClientResources를 사용하므로 노드별 명령 지연과 분포가 "lettuce.command.completion"(remote 태그)
+     * 메트릭으로 노출된다.
+     */
     @Bean
     @Primary
     @Profile("!local")
-    public ReactiveRedisConnectionFactory principalMigrationStatusRedisClusterConnectionFactory() {
+    public ReactiveRedisConnectionFactory principalMigrationStatusRedisClusterConnectionFactory(
+        @Qualifier("principalMigrationStatusClusterProperties") RedisClusterProperties clusterProperties,
+        ObjectProvider<ClientResources> clientResources
+    ) {
         RedisClusterConfiguration configuration = new RedisClusterConfiguration();
         configuration.clusterNode(principalMigrationStatusRedistHost,
             principalMigrationStatusRedisPort);
+        for (String node : clusterProperties.getNodes()) {
+            configuration.addClusterNode(RedisNode.fromString(node));
+        }
 
-        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
-            .clientOptions(ClientOptions.builder()
+        RedisClusterProperties.TopologyRefresh refresh = clusterProperties.getTopologyRefresh();
+        ClusterTopologyRefreshOptions.Builder refreshOptions = ClusterTopologyRefreshOptions.builder()
+            .dynamicRefreshSources(refresh.isDynamicSources())
+            .closeStaleConnections(true);
+        if (!refresh.getPeriod().isZero()) {
+            refreshOptions.enablePeriodicRefresh(refresh.getPeriod());
+        }
+        if (refresh.isAdaptive()) {
+            refreshOptions.enableAllAdaptiveRefreshTriggers()
+                .adaptiveRefreshTriggersTimeout(refresh.getAdaptiveTimeout());
+        }
+
+        LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder()
+            .clientOptions(ClusterClientOptions.builder()
                 .socketOptions(SocketOptions.builder()
                     .connectTimeout(Duration.ofMillis(300)).build())
+                .topologyRefreshOptions(refreshOptions.build())
                 .build())
-            .commandTimeout(Duration.ofSeconds(3))
-            .build();
+            .readFrom(ReadFrom.valueOf(clusterProperties.getReadFrom()))
+            .commandTimeout(Duration.ofSeconds(3));
+        clientResources.ifAvailable(builder::clientResources);
 
-        return new LettuceConnectionFactory(configuration, clientConfiguration);
+        return new LettuceConnectionFactory(configuration, builder.build());
+    }
+
+    /**
+     * 헤지 요청 전용 커넥션 팩토리. 기본 커넥션 팩토리와 같은 설정(노드, ReadFrom, ClientResources)으로 별도 커넥션을 맺으므로
+     * 헤지 요청이 느린 조회와 같은 커넥션 뒤에 줄 서지 않는다.
+     */
+    @Bean(name = "principalMigrationStatusHedgeRedisConnectionFactory")
+    @ConditionalOnProperty(name = "spring.redis.principal-migration-status.hedging.enabled", havingValue = "true")
+    public ReactiveRedisConnectionFactory principalMigrationStatusHedgeRedisConnectionFactory(
+        ReactiveRedisConnectionFactory principalMigrationStatusRedisConnectionFactory
+    ) {
+        LettuceConnectionFactory primary = (LettuceConnectionFactory) principalMigrationStatusRedisConnectionFactory;
+        RedisConfiguration configuration = primary.isClusterAware()
+            ? primary.getClusterConfiguration()
+            : primary.getStandaloneConfiguration();
+        return new LettuceConnectionFactory(configuration, primary.getClientConfiguration());
     }
 
     @Bean
@@ -72,4 +133,52 @@ public class PrincipalMigrationStatusRedisConfig {
     public ReactiveStringRedisTemplate principalMigrationStatusRedisTemplate(ReactiveRedisConnectionFactory principalMigrationStatusRedisConnectionFactory) {
         return new ReactiveStringRedisTemplate(principalMigrationStatusRedisConnectionFactory);
     }
+
+    @Bean(name = "principalMigrationStatusNearCacheProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-migration-status.near-cache")
+    public NearCacheProperties principalMigrationStatusNearCacheProperties() {
+        return new NearCacheProperties();
+    }
+
+    @Bean(name = "principalMigrationStatusHedgingProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-migration-status.hedging")
+    public HedgingProperties principalMigrationStatusHedgingProperties() {
+        return new HedgingProperties();
+    }
+
+    @Bean(name = "principalMigrationStatusConcurrencyLimitProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-migration-status.concurrency-limit")
+    public ConcurrencyLimitProperties principalMigrationStatusConcurrencyLimitProperties() {
+        return new ConcurrencyLimitProperties();
+    }
+
+    @Bean(name = "principalMigrationStatusKeyspaceNotificationProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-migration-status.keyspace-notifications")
+    public KeyspaceNotificationProperties principalMigrationStatusKeyspaceNotificationProperties() {
+        return new KeyspaceNotificationProperties();
+    }
+
+    @Bean(name = "principalMigrationStatusReplicaProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-migration-status.replica")
+    public MigrationStatusReplicaProperties principalMigrationStatusReplicaProperties() {
+        return new MigrationStatusReplicaProperties();
+    }
+
+    @Bean(name = "principalMigrationStatusBloomFilterProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-migration-status.bloom-filter")
+    public CustomerBloomFilterProperties principalMigrationStatusBloomFilterProperties() {
+        return new CustomerBloomFilterProperties();
+    }
+
+    @Bean(name = "principalMigrationStatusBatchProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-migration-status.batch")
+    public MigrationStatusBatchProperties principalMigrationStatusBatchProperties() {
+        return new MigrationStatusBatchProperties();
+    }
+
+    @Bean(name = "principalMigrationStatusClusterProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-migration-status.cluster")
+    public RedisClusterProperties principalMigrationStatusClusterProperties() {
+        return new RedisClusterProperties();
+    }
 }
@@ -1,8 +1,25 @@
 package kr.co.starbucks.spfilterredis.filter.config;
 
+import io.lettuce.core.resource.ClientResources;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.cache.NearCacheProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.connection.LettuceConnectionFactories;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.connection.RedisConnectionProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.connection.StripedReactiveRedisTemplate;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.serializer.ProjectingSessionValueReader;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.serializer.SessionValueDecoderProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.ConcurrencyLimitProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.HedgingProperties;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
@@ -12,6 +29,7 @@ import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactor
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -27,26 +45,135 @@ public class PrincipalSessionRedisConfig {
     @Value("${spring.redis.principal-session.port}")
     private int principalSessionRedisPort;
 
+    // 세션 레디스의 모든 커넥션(스트라이프)이 공유하는 Netty 이벤트 루프.
+    // 빈으로 등록하면 스프링 부트 기본 커넥션 팩토리도 이를 사용하게 되므로 직접 관리한다.
+    private ClientResources clientResources;
+
+    // 스프링 부트의 ClientResources와 같은 설정. 명령 지연 메트릭("lettuce.command.*")도 여기에 포함된다.
+    private final ObjectProvider<ClientResourcesBuilderCustomizer> clientResourcesCustomizers;
+
+    public PrincipalSessionRedisConfig(ObjectProvider<ClientResourcesBuilderCustomizer> clientResourcesCustomizers) {
+        this.clientResourcesCustomizers = clientResourcesCustomizers;
+    }
+
     @Bean(name = "principalSessionRedisConnectionFactory")
-    public ReactiveRedisConnectionFactory principalSessionRedisConnectionFactory() {
-        RedisStandaloneConfiguration standaloneConfiguration = new RedisStandaloneConfiguration(
-            principalSessionRedisHost, principalSessionRedisPort);
-        standaloneConfiguration.setPassword(RedisPassword.none());
-        return new LettuceConnectionFactory(standaloneConfiguration);
+    public ReactiveRedisConnectionFactory principalSessionRedisConnectionFactory(
+        @Qualifier("principalSessionRedisConnectionProperties") RedisConnectionProperties connectionProperties
+    ) {
+        return createConnectionFactory(connectionProperties);
     }
 
     @Bean(name = "principalSessionRedisHashTemplate")
     public ReactiveRedisTemplate<String, Object> principalSessionRedisHashTemplate(
-        @Qualifier("principalSessionRedisConnectionFactory") ReactiveRedisConnectionFactory factory
+        @Qualifier("principalSessionRedisConnectionFactory") ReactiveRedisConnectionFactory factory,
+        @Qualifier("principalSessionValueDecoderProperties") SessionValueDecoderProperties decoderProperties
     ) {
+        return createHashTemplate(factory, decoderProperties);
+    }
+
+    /**
+     * STRIPED 모드이면 세션 ID의 해시로 고르는 stripes개의 템플릿, 그 외에는 principalSessionRedisHashTemplate 하나.
+     */
+    @Bean(name = "principalSessionRedisHashTemplates")
+    public StripedReactiveRedisTemplate<String, Object> principalSessionRedisHashTemplates(
+        @Qualifier("principalSessionRedisHashTemplate") ReactiveRedisTemplate<String, Object> primary,
+        @Qualifier("principalSessionRedisConnectionProperties") RedisConnectionProperties connectionProperties,
+        @Qualifier("principalSessionValueDecoderProperties") SessionValueDecoderProperties decoderProperties
+    ) {
+        if (connectionProperties.getMode() != RedisConnectionProperties.Mode.STRIPED || connectionProperties.getStripes() <= 1) {
+            return StripedReactiveRedisTemplate.single(primary);
+        }
+        List<LettuceConnectionFactory> factories = new ArrayList<>();
+        for (int i = 1; i < connectionProperties.getStripes(); i++) {
+            factories.add(createConnectionFactory(connectionProperties));
+        }
+        return new StripedReactiveRedisTemplate<>(primary, factories,
+            factory -> createHashTemplate(factory, decoderProperties));
+    }
+
+    /**
+     * 헤지 요청 전용 커넥션 팩토리. 세션 조회와 같은 설정으로 별도 커넥션을 맺으므로
+     * 헤지 요청이 느린 조회와 같은 커넥션 뒤에 줄 서지 않는다.
+     */
+    @Bean(name = "principalSessionRedisHedgeConnectionFactory")
+    @ConditionalOnProperty(name = "spring.redis.principal-session.hedging.enabled", havingValue = "true")
+    public ReactiveRedisConnectionFactory principalSessionRedisHedgeConnectionFactory(
+        @Qualifier("principalSessionRedisConnectionProperties") RedisConnectionProperties connectionProperties
+    ) {
+        return createConnectionFactory(connectionProperties);
+    }
+
+    @Bean(name = "principalSessionRedisHedgeHashTemplate")
+    @ConditionalOnProperty(name = "spring.redis.principal-session.hedging.enabled", havingValue = "true")
+    public ReactiveRedisTemplate<String, Object> principalSessionRedisHedgeHashTemplate(
+        @Qualifier("principalSessionRedisHedgeConnectionFactory") ReactiveRedisConnectionFactory factory,
+        @Qualifier("principalSessionValueDecoderProperties") SessionValueDecoderProperties decoderProperties
+    ) {
+        return createHashTemplate(factory, decoderProperties);
+    }
+
+    @Bean(name = "principalSessionRedisConnectionProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-session.connection")
+    public RedisConnectionProperties principalSessionRedisConnectionProperties() {
+        return new RedisConnectionProperties();
+    }
+
+    @Bean(name = "principalSessionNearCacheProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-session.near-cache")
+    public NearCacheProperties principalSessionNearCacheProperties() {
+        return new NearCacheProperties();
+    }
+
+    @Bean(name = "principalSessionHedgingProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-session.hedging")
+    public HedgingProperties principalSessionHedgingProperties() {
+        return new HedgingProperties();
+    }
+
+    @Bean(name = "principalSessionConcurrencyLimitProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-session.concurrency-limit")
+    public ConcurrencyLimitProperties principalSessionConcurrencyLimitProperties() {
+        return new ConcurrencyLimitProperties();
+    }
+
+    @Bean(name = "principalSessionValueDecoderProperties")
+    @ConfigurationProperties(prefix = "spring.redis.principal-session.value-decoder")
+    public SessionValueDecoderProperties principalSessionValueDecoderProperties() {
+        return new SessionValueDecoderProperties();
+    }
+
+    // 커넥션 팩토리와 스트라이프 템플릿 빈이 모두 종료된 뒤에 호출된다.
+    @PreDestroy
+    public void shutdownClientResources() {
+        if (clientResources != null) {
+            clientResources.shutdown();
+        }
+    }
+
+    private synchronized LettuceConnectionFactory createConnectionFactory(RedisConnectionProperties connectionProperties) {
+        if (clientResources == null) {
+            clientResources = LettuceConnectionFactories.clientResources(connectionProperties,
+                clientResourcesCustomizers.orderedStream().collect(Collectors.toList()));
+        }
+        RedisStandaloneConfiguration standaloneConfiguration = new RedisStandaloneConfiguration(
+            principalSessionRedisHost, principalSessionRedisPort);
+        standaloneConfiguration.setPassword(RedisPassword.none());
+        return LettuceConnectionFactories.create(standaloneConfiguration, connectionProperties, clientResources);
+    }
+
+    private static ReactiveRedisTemplate<String, Object> createHashTemplate(ReactiveRedisConnectionFactory factory,
+        SessionValueDecoderProperties decoderProperties) {
+        // 세션 값은 필요한 키만 읽는 디코더 혹은 JDK 역직렬화로 읽는다.
+        SerializationPair<Object> hashValue = decoderProperties.isEnabled()
+            ? ProjectingSessionValueReader.pair(decoderProperties.getProjectedKeys(), decoderProperties.getAllowedClasses())
+            : SerializationPair.fromSerializer(new JdkSerializationRedisSerializer());
         RedisSerializationContext<String, Object> context = RedisSerializationContext
             .<String, Object>newSerializationContext()
             .key(new StringRedisSerializer())
             .value(new JdkSerializationRedisSerializer())
             .hashKey(new JdkSerializationRedisSerializer())
-            .hashValue(new JdkSerializationRedisSerializer())
+            .hashValue(hashValue)
             .build();
         return new ReactiveRedisTemplate<>(factory, context);
     }
-
 }
@@ -0,0 +1,223 @@
+package kr.co.starbucks.spfilterredis.filter.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.enums.UserStatus;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.CircuitBreakerProperties;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * RequestFilter 동작 설정. "sp-filter" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+@Component
+@ConfigurationProperties(prefix = "sp-filter")
+public class RequestFilterProperties {
+
+    private final Async async = new Async();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final LatencyBudget latencyBudget = new LatencyBudget();
+
+    private final SessionCookie sessionCookie = new SessionCookie();
+
+    private final Capture capture = new Capture();
+
+    /**
+     * 마이그레이션 상태를 조회할 라우트와 주입할 헤더. 모든 라우트는 고객당 HMGET 한 번으로 함께 조회한다.<br>
+     * 기본값은 XO_SP_ROUTE -> "x-sp-xo-migration-yn" (ACTIVE: Y, 그외: N, BLOCK이면 InternalServerException)
+     */
+    private List<Route> routes = new ArrayList<>(List.of(Route.xoSpRoute()));
+
+    /**
+     * 요청 경로(컨텍스트 경로 포함), 메서드, 호스트별 조회 규칙. 가장 긴 pathPrefix가 일치하는 규칙을 적용한다.<br>
+     * 일치하는 규칙이 없으면 모든 라우트를 조회한다. 제외(exclude) 규칙에 일치하면 레디스 조회 없이 다운스트림으로 전달한다.
+     */
+    private List<PathRule> pathRules = new ArrayList<>();
+
+    @Getter
+    @Setter
+    @ToString
+    public static class Async {
+        /**
+         * 비동기 서블릿 모드 사용 여부. 기본값은 Mono.block()으로 조회를 기다림.<br>
+         * 사용하면 request.startAsync()로 워커 스레드를 반환하고, 조회가 끝나면 ASYNC 디스패치에서 다운스트림을 호출한다.
+         */
+        private boolean enabled = false;
+
+        /**
+         * 세션 및 마이그레이션 상태 조회 제한 시간. 초과하면 InternalServerException으로 처리한다.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class VirtualThreads {
+        /**
+         * Tomcat 요청 처리를 가상 스레드에서 실행할지 여부. 가상 스레드를 지원하지 않는 JDK에서는 무시된다.
+         * ({@link VirtualThreadConfiguration})
+         */
+        private boolean enabled = false;
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class LatencyBudget {
+        /**
+         * 요청당 지연 예산 사용 여부. 기본값은 레디스 commandTimeout(3초)까지 기다림.<br>
+         * 사용하면 예산을 넘기거나, Circuit Breaker가 열려 있거나, 레디스 조회가 실패한 요청은
+         * 마이그레이션 헤더 없이 다운스트림으로 바이패스 전달한다. (BLOCK 상태는 그대로 InternalServerException)
+         */
+        private boolean enabled = false;
+
+        /**
+         * 세션 및 마이그레이션 상태 조회 전체에 허용하는 시간.
+         */
+        private Duration timeout = Duration.ofMillis(20);
+
+        /**
+         * 레디스 역할(세션, 마이그레이션 상태)별 Circuit Breaker 설정. 예산을 넘겨 취소된 조회는 실패로 센다.
+         */
+        private final CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class SessionCookie {
+        /**
+         * JSESSIONID(헤더, 쿠키)의 Tomcat jvmRoute 접미사(e.g. "ABC123.node1"의 ".node1")를 제거하고 세션 레디스를 조회할지 여부.
+         * 세션 레디스의 키가 jvmRoute 없는 세션 ID일 때 사용한다.
+         */
+        private boolean stripJvmRoute = false;
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class Capture {
+        /**
+         * 요청 일부의 조회 입력과 결과를 캡처 파일에 기록할지 여부. 기록한 파일은 부하 테스트(loadTest)에서 재생할 수 있다.
+         */
+        private boolean enabled = false;
+
+        /**
+         * 기록할 요청의 비율 (0~1)
+         */
+        private double sampleRate = 0.01;
+
+        /**
+         * 캡처 파일 경로. 기동할 때마다 새로 쓴다.
+         */
+        private String file = "capture/sp-filter-capture.bin";
+
+        /**
+         * 캡처 파일 크기 상한 (최대 2GB, 레코드당 40바이트). 가득 차면 기록을 멈춘다.
+         */
+        private DataSize maxFileSize = DataSize.ofMegabytes(256);
+
+        /**
+         * 요청 스레드와 기록 스레드 사이 링 버퍼의 레코드 수 (2의 거듭제곱). 가득 차면 레코드를 버린다.
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * 기록할 레코드가 없을 때 기록 스레드가 기다리는 시간
+         */
+        private Duration flushInterval = Duration.ofMillis(100);
+
+        /**
+         * 세션 ID, CustomerId 해시의 솔트. 비어 있으면 기동할 때마다 임의로 정하므로 다른 파일의 같은 ID와 연결되지 않는다.
+         */
+        private String salt = "";
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class Route {
+        /**
+         * 마이그레이션 상태 레디스 Hash의 필드 (e.g. XO_SP_ROUTE)
+         */
+        private RouteId routeId;
+
+        /**
+         * 다운스트림에 주입할 헤더 이름
+         */
+        private String header;
+
+        /**
+         * 상태 -> 헤더 값 (e.g. ACTIVE: Y)
+         */
+        private Map<String, String> values = new LinkedHashMap<>();
+
+        /**
+         * values에 없는 상태일 때의 헤더 값. 없으면 헤더를 주입하지 않는다. 상태가 없으면(미발견) 항상 주입하지 않는다.
+         */
+        private String defaultValue;
+
+        /**
+         * BLOCK 상태이면 InternalServerException으로 요청을 막을지 여부
+         */
+        private boolean blocking = false;
+
+        private static Route xoSpRoute() {
+            Route route = new Route();
+            route.setRouteId(RouteId.XO_SP_ROUTE);
+            route.setHeader(StaticValues.X_SP_XO_MIGRATION_YN);
+            route.getValues().put(UserStatus.ACTIVE.name(), "Y");
+            route.setDefaultValue("N");
+            route.setBlocking(true);
+            return route;
+        }
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class PathRule {
+        /**
+         * 경로 접두사. "/"로 시작해야 하며 경로 세그먼트 단위로 비교한다. (e.g. "/actuator"는 "/actuator/health"와 일치하고 "/actuators"와는 일치하지 않음)<br>
+         * 정규화가 필요한 요청 경로(e.g. "/actuator/../orders", "%", ";" 포함)에는 규칙을 적용하지 않는다.
+         */
+        private String pathPrefix = "/";
+
+        /**
+         * HTTP 메서드 (e.g. GET). 없으면 모든 메서드.
+         */
+        private Set<String> methods = new LinkedHashSet<>();
+
+        /**
+         * 호스트 (대소문자 구분 없음). 없으면 모든 호스트.
+         */
+        private Set<String> hosts = new LinkedHashSet<>();
+
+        /**
+         * 일치하는 요청의 레디스 조회를 생략할지 여부
+         */
+        private boolean exclude = false;
+
+        /**
+         * 조회할 라우트. routes에 설정된 라우트여야 하며, 없으면 routes 전체.
+         */
+        private List<RouteId> routeIds = new ArrayList<>();
+    }
+}
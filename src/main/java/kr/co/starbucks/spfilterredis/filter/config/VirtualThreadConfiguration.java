@@ -0,0 +1,57 @@
+package kr.co.starbucks.spfilterredis.filter.config;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.startup.Tomcat;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tomcat 요청 처리(및 RequestFilter의 block() 대기)를 가상 스레드에서 실행한다.<br>
+ * <p></p>
+ * * ${sp-filter.virtual-threads.enabled}가 true이고 가상 스레드를 지원하는 JDK(21+)에서 기동될 때만 적용된다.
+ * 빌드 타깃이 Java 11이므로 Executors.newVirtualThreadPerTaskExecutor()는 리플렉션으로 찾는다.<br>
+ * * 지원하지 않는 JDK(e.g. 11)에서는 경고만 남기고 기존 Tomcat 스레드 풀(server.tomcat.threads.*)을 그대로 사용한다.<br>
+ * * 레디스 조회를 기다리는 동안 가상 스레드는 캐리어(플랫폼) 스레드를 반환하므로, 지연이 커져도 워커 풀이 고갈되지 않는다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(Tomcat.class)
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@ConditionalOnProperty(name = "sp-filter.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> newVirtualThreadPerTaskExecutor()
+            .ifPresentOrElse(
+                executor -> {
+                    protocolHandler.setExecutor(executor);
+                    log.info("[VirtualThreads] Tomcat requests are handled on virtual threads.");
+                },
+                () -> log.warn("[VirtualThreads] Virtual threads are not supported on Java {}, keeping the Tomcat thread pool.",
+                    System.getProperty("java.version"))
+            );
+    }
+
+    /**
+     * @return 가상 스레드 Executor. 지원하지 않는 JDK이면 empty
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Optional.of((ExecutorService) factory.invoke(null));
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            // Java 19, 20에서 --enable-preview 없이 호출하면 UnsupportedOperationException
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package kr.co.starbucks.spfilterredis.filter.enums;
+
+/**
+ * CustomerId를 얻은 경로
+ */
+public enum Branch {
+    /**
+     * x-sp-customer-id와 JSESSIONID가 모두 없음
+     */
+    NONE,
+    CUSTOMER_ID,
+    SESSION_HEADER,
+    SESSION_COOKIE
+}
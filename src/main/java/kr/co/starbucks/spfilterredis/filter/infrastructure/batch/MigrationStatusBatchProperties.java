@@ -0,0 +1,30 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.batch;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 마이그레이션 상태 조회 마이크로 배치 설정.<br>
+ * "spring.redis.principal-migration-status.batch" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class MigrationStatusBatchProperties {
+    /**
+     * 여러 요청의 조회를 모아 한 번에 보낼지 여부. standalone 전용이며 클러스터 커넥션에서는 무시된다.
+     */
+    private boolean enabled = false;
+
+    /**
+     * 첫 조회가 들어온 뒤 배치를 모으는 최대 시간. 조회마다 최대 이만큼 지연될 수 있다. (e.g. 200us)
+     */
+    private Duration window = Duration.ofNanos(200_000);
+
+    /**
+     * 이 개수만큼 모이면 window를 기다리지 않고 바로 보낸다. 스크립트 호출 한 번의 최대 키 개수이기도 하다.
+     */
+    private int maxBatchSize = 64;
+}
@@ -0,0 +1,239 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.batch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 여러 요청의 마이그레이션 상태 조회(HGET)를 모아 Lua 스크립트 한 번으로 조회한다.<br>
+ * <p></p>
+ * * 첫 조회가 들어오면 window 동안 모으고, 그 전에 maxBatchSize만큼 모이면 바로 보낸다.<br>
+ * * 결과는 각 조회의 구독자에게 나누어 전달한다. 배치 전체가 실패하면 모든 구독자에게 같은 오류가 전달된다.<br>
+ * * standalone 전용이다. 클러스터에서는 한 스크립트의 키가 모두 같은 슬롯이어야 해서 배치가 거의 모이지 않고,
+ * 스크립트는 항상 마스터에서 실행되어 ReadFrom(e.g. replica) 설정을 무시하게 된다. ({@link #supports(ReactiveStringRedisTemplate)})<br>
+ * * 배치 크기는 "principal.migration.batch.size", 보낸 이유(size, window)는 "principal.migration.batch.flushes" 메트릭으로 노출된다.
+ */
+@Slf4j
+public class MigrationStatusBatcher implements MeterBinder {
+
+    private static final RedisScript<byte[]> BATCH_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/principal-migration-status-batch.lua"), byte[].class);
+
+    private static final RedisElementWriter<String> ARGS_WRITER = RedisElementWriter.from(StringRedisSerializer.UTF_8);
+
+    private static final RedisElementReader<byte[]> RESULT_READER = buffer -> {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    };
+
+    private final ReactiveStringRedisTemplate template;
+
+    private final int maxBatchSize;
+
+    private final long windowNanos;
+
+    private final Scheduler scheduler = Schedulers.parallel();
+
+    private final Object lock = new Object();
+
+    // 모으는 중인 배치 (lock)
+    private List<Pending> pending = new ArrayList<>();
+
+    // 현재 배치 번호. window 타이머가 이미 보낸 배치를 다시 보내지 않도록 한다. (lock)
+    private long batchId;
+
+    private Disposable windowTimer;
+
+    private DistributionSummary batchSize;
+
+    private Counter sizeFlushes;
+
+    private Counter windowFlushes;
+
+    public MigrationStatusBatcher(ReactiveStringRedisTemplate template, MigrationStatusBatchProperties properties) {
+        Assert.isTrue(properties.getMaxBatchSize() > 0, "maxBatchSize는 0보다 커야 합니다");
+        Assert.notNull(properties.getWindow(), "window가 존재하지 않습니다");
+        Assert.isTrue(supports(template), "클러스터 커넥션에서는 배치 조회를 사용할 수 없습니다");
+        this.template = template;
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.windowNanos = properties.getWindow().toNanos();
+
+        log.info("[MigrationStatusBatcher] Batching enabled: {}", properties);
+    }
+
+    /**
+     * @return 배치 조회를 사용할 수 있는 커넥션(standalone)이면 true
+     */
+    public static boolean supports(ReactiveStringRedisTemplate template) {
+        ReactiveRedisConnectionFactory factory = template.getConnectionFactory();
+        return !(factory instanceof LettuceConnectionFactory && ((LettuceConnectionFactory) factory).isClusterAware());
+    }
+
+    public Mono<String> get(String customerId, String routeId) {
+        return Mono.create(sink -> {
+            Pending request = new Pending(customerId, routeId, sink);
+            sink.onCancel(request::cancel);
+            enqueue(request);
+        });
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        this.batchSize = DistributionSummary.builder("principal.migration.batch.size")
+            .description("Migration status lookups sent in one batch")
+            .register(registry);
+        this.sizeFlushes = Counter.builder("principal.migration.batch.flushes")
+            .description("Batches sent, by trigger")
+            .tag("trigger", "size")
+            .register(registry);
+        this.windowFlushes = Counter.builder("principal.migration.batch.flushes")
+            .description("Batches sent, by trigger")
+            .tag("trigger", "window")
+            .register(registry);
+    }
+
+    private void enqueue(Pending request) {
+        List<Pending> full = null;
+        synchronized (lock) {
+            pending.add(request);
+            if (pending.size() >= maxBatchSize || windowNanos <= 0) {
+                full = takeBatch();
+            } else if (pending.size() == 1) {
+                long id = batchId;
+                windowTimer = scheduler.schedule(() -> flushWindow(id), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            send(full, true);
+        }
+    }
+
+    private void flushWindow(long id) {
+        List<Pending> batch;
+        synchronized (lock) {
+            if (id != batchId || pending.isEmpty()) {
+                return;
+            }
+            batch = takeBatch();
+        }
+        send(batch, false);
+    }
+
+    private List<Pending> takeBatch() {
+        List<Pending> batch = pending;
+        pending = new ArrayList<>(Math.min(maxBatchSize, 16));
+        batchId++;
+        if (windowTimer != null) {
+            windowTimer.dispose();
+            windowTimer = null;
+        }
+        return batch;
+    }
+
+    private void send(List<Pending> batch, boolean full) {
+        if (batchSize != null) {
+            (full ? sizeFlushes : windowFlushes).increment();
+            batchSize.record(batch.size());
+        }
+        List<Pending> live = new ArrayList<>(batch.size());
+        List<String> keys = new ArrayList<>(batch.size());
+        List<String> routes = new ArrayList<>(batch.size());
+        for (Pending request : batch) {
+            if (!request.cancelled) {
+                live.add(request);
+                keys.add(request.customerId);
+                routes.add(request.routeId);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        template.execute(BATCH_SCRIPT, keys, routes, ARGS_WRITER, RESULT_READER)
+            .next()
+            .subscribe(
+                reply -> complete(live, reply),
+                error -> live.forEach(request -> request.sink.error(error))
+            );
+    }
+
+    /**
+     * "&lt;길이&gt;:&lt;값&gt;", "-", "!&lt;길이&gt;:&lt;오류&gt;"가 조회 순서대로 이어진 응답을 나누어 전달한다. 길이는 바이트 단위이다.
+     */
+    private static void complete(List<Pending> group, byte[] reply) {
+        ByteBuffer buffer = ByteBuffer.wrap(reply);
+        for (Pending request : group) {
+            if (!buffer.hasRemaining()) {
+                request.sink.error(new IllegalStateException("Truncated batch reply"));
+                continue;
+            }
+            byte marker = buffer.get(buffer.position());
+            if (marker == '-') {
+                buffer.get();
+                request.sink.success();
+                continue;
+            }
+            boolean error = marker == '!';
+            if (error) {
+                buffer.get();
+            }
+            String value = readValue(buffer);
+            if (error) {
+                request.sink.error(new InvalidDataAccessApiUsageException(value));
+            } else {
+                request.sink.success(value);
+            }
+        }
+    }
+
+    private static String readValue(ByteBuffer buffer) {
+        int length = 0;
+        byte b;
+        while ((b = buffer.get()) != ':') {
+            length = length * 10 + (b - '0');
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static final class Pending {
+        private final String customerId;
+        private final String routeId;
+        private final MonoSink<String> sink;
+        private volatile boolean cancelled;
+
+        private Pending(String customerId, String routeId, MonoSink<String> sink) {
+            this.customerId = customerId;
+            this.routeId = routeId;
+            this.sink = sink;
+        }
+
+        private void cancel() {
+            cancelled = true;
+        }
+    }
+}
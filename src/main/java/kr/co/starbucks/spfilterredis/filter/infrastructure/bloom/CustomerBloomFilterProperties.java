@@ -0,0 +1,46 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.bloom;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 마이그레이션 레코드가 없는 고객을 걸러내는 Bloom Filter 설정.<br>
+ * "spring.redis.principal-migration-status.bloom-filter" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class CustomerBloomFilterProperties {
+    /**
+     * Bloom Filter 사용 여부. 놓친 이벤트가 잘못된 미발견이 되지 않도록 keyspace-notifications.enabled=true 일 때만 생성된다.
+     */
+    private boolean enabled = false;
+
+    /**
+     * 목표 오탐률. 오탐이면 레디스를 그대로 조회하므로 정확도에는 영향이 없다.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * 비트 배열 메모리 상한. 목표 오탐률을 맞추는 데 필요한 크기가 이보다 크면 오탐률이 올라간다.
+     */
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+
+    /**
+     * 빌드 시점 키 개수(DBSIZE) 대비 여유율. 다음 재빌드까지 늘어날 고객 수를 감안한다.
+     */
+    private double capacityHeadroom = 1.5;
+
+    /**
+     * 재빌드 주기. 삭제된 고객은 재빌드 시에만 빠진다. 0이면 기동 시와 RESYNC 시에만 빌드한다.
+     */
+    private Duration rebuildInterval = Duration.ofHours(1);
+
+    /**
+     * SCAN 한 번에 요청할 키 개수(COUNT).
+     */
+    private int scanCount = 1000;
+}
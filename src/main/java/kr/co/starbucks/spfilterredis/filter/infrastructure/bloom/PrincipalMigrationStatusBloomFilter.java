@@ -0,0 +1,245 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.bloom;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import kr.co.starbucks.spfilterredis.filter.config.PrincipalMigrationStatusRedisConfig;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.KeyspaceEvent;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.PrincipalMigrationStatusKeyspaceListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 마이그레이션 레디스에 레코드가 없는 고객(RequestFilter 2-4. 미발견)의 조회를 생략하기 위한 Bloom Filter.<br>
+ * <p></p>
+ * * 빌드: SCAN으로 키만 순회하여 새 필터를 만든 뒤 교체한다. 주기적 재빌드로 삭제된 고객을 걸러낸다.<br>
+ * * 증분 반영: Keyspace Notification(hset 등)으로 새로 생긴 고객을 즉시 추가한다.<br>
+ * * {@link #mightContain(String)}가 false이면 "확실히 없음"이므로 레디스 조회를 생략해도 된다.<br>
+ * <p></p>
+ * 놓친 hset 이벤트는 곧 잘못된 "확실히 없음"(BLOCK 상태 누락)이 되므로 Keyspace Notification을 함께 켠 경우에만 생성한다.
+ * 구독이 끊겼거나, 다시 수립된 뒤 새로 시작한 빌드가 끝나기 전에는 필터를 쓰지 않고 레디스를 조회한다.
+ * ({@link PrincipalMigrationStatusKeyspaceListener#getListeningEpoch()})
+ */
+@Slf4j
+@Component
+@ConditionalOnBean(PrincipalMigrationStatusRedisConfig.class)
+@ConditionalOnProperty(name = {
+    "spring.redis.principal-migration-status.bloom-filter.enabled",
+    "spring.redis.principal-migration-status.keyspace-notifications.enabled"
+}, havingValue = "true")
+public class PrincipalMigrationStatusBloomFilter {
+
+    // 키가 새로 생길 수 있는 이벤트. 삭제 계열은 Bloom Filter에서 뺄 수 없으므로 재빌드에 맡긴다.
+    private static final Set<String> INSERT_EVENTS = Set.of("hset", "hsetnx", "hincrby", "hincrbyfloat", "rename_to");
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+    private static final long MIN_EXPECTED_INSERTIONS = 1_000;
+
+    // 필터가 없거나 이벤트를 놓쳤을 수 있음
+    private static final long STALE = -1;
+
+    private final ReactiveStringRedisTemplate template;
+
+    private final CustomerBloomFilterProperties properties;
+
+    private final PrincipalMigrationStatusKeyspaceListener keyspaceListener;
+
+    private final Counter skipped;
+
+    private final Counter passed;
+
+    private final Counter stale;
+
+    private final Object updateLock = new Object();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    private volatile BloomFilter current;
+
+    // 빌드 중인 필터. 빌드 중에 생긴 고객도 놓치지 않도록 양쪽에 추가한다. (updateLock)
+    private BloomFilter building;
+
+    // 현재 필터가 유효한 구독 구간
+    private volatile long currentEpoch = STALE;
+
+    // 빌드 중인 필터의 구독 구간
+    private volatile long buildingEpoch = STALE;
+
+    public PrincipalMigrationStatusBloomFilter(
+        ReactiveStringRedisTemplate principalMigrationStatusRedisTemplate,
+        @Qualifier("principalMigrationStatusBloomFilterProperties") CustomerBloomFilterProperties properties,
+        PrincipalMigrationStatusKeyspaceListener keyspaceListener,
+        MeterRegistry meterRegistry
+    ) {
+        this.template = principalMigrationStatusRedisTemplate;
+        this.properties = properties;
+        this.keyspaceListener = keyspaceListener;
+
+        this.skipped = Counter.builder("principal.migration.bloom.lookups")
+            .description("Migration status lookups answered by the bloom filter")
+            .tag("result", "skipped")
+            .register(meterRegistry);
+        this.passed = Counter.builder("principal.migration.bloom.lookups")
+            .description("Migration status lookups answered by the bloom filter")
+            .tag("result", "passed")
+            .register(meterRegistry);
+        this.stale = Counter.builder("principal.migration.bloom.lookups")
+            .description("Migration status lookups answered by the bloom filter")
+            .tag("result", "stale")
+            .register(meterRegistry);
+        Gauge.builder("principal.migration.bloom.expected.fpp", this,
+                f -> f.current == null ? Double.NaN : f.current.expectedFalsePositiveRate())
+            .description("Expected false positive rate of the current bloom filter")
+            .register(meterRegistry);
+        Gauge.builder("principal.migration.bloom.bits", this, f -> f.current == null ? 0 : f.current.bitCount())
+            .description("Size of the current bloom filter in bits")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        subscriptions.add(keyspaceListener.events().subscribe(this::onKeyspaceEvent));
+
+        // 아직 구독 중이 아니면 구독이 수립될 때의 RESYNC가 첫 빌드를 시작한다.
+        if (keyspaceListener.isListening()) {
+            rebuild();
+        }
+
+        Duration interval = properties.getRebuildInterval();
+        if (interval != null && !interval.isZero() && !interval.isNegative()) {
+            subscriptions.add(Flux.interval(interval, interval).subscribe(t -> rebuild()));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * @return false이면 해당 고객의 레코드가 확실히 없다. 필터가 없거나 빌드 이후의 이벤트를 놓쳤을 수 있으면 항상 true.
+     */
+    public boolean mightContain(String customerId) {
+        BloomFilter filter = current;
+        if (filter == null || customerId == null) {
+            return true;
+        }
+        long epoch = currentEpoch;
+        if (epoch == STALE || epoch != keyspaceListener.getListeningEpoch()) {
+            stale.increment();
+            return true;
+        }
+        if (filter.mightContain(customerId)) {
+            passed.increment();
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+
+    /**
+     * 재빌드를 시작한다. 이미 빌드 중이면 끝난 뒤 한 번 더 빌드한다.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            rebuildRequested.set(true);
+            return;
+        }
+        // SCAN 이전에 생긴 고객은 SCAN이, 이후에 생긴 고객은 이벤트가 building에 추가한다.
+        // 이 구독 구간이 끝까지 이어지면 새 필터는 유효하다.
+        buildingEpoch = keyspaceListener.getListeningEpoch();
+
+        template.execute(connection -> connection.serverCommands().dbSize())
+            .next()
+            .defaultIfEmpty(0L)
+            .map(size -> {
+                long expected = Math.max(MIN_EXPECTED_INSERTIONS, (long) (size * properties.getCapacityHeadroom()));
+                BloomFilter next = BloomFilter.create(expected, properties.getFalsePositiveRate(),
+                    properties.getMaxMemory().toBytes());
+                synchronized (updateLock) {
+                    building = next;
+                }
+                return next;
+            })
+            .flatMap(next -> template.scan(ScanOptions.scanOptions().count(properties.getScanCount()).build())
+                .doOnNext(next::put)
+                .then(Mono.just(next)))
+            .subscribe(this::swap, this::rebuildFailed);
+    }
+
+    private void swap(BloomFilter next) {
+        synchronized (updateLock) {
+            current = next;
+            currentEpoch = buildingEpoch;
+            building = null;
+            buildingEpoch = STALE;
+        }
+        log.info("[MigrationStatusBloomFilter] Built with {} bits, {} hashes, expected fpp {}",
+            next.bitCount(), next.hashCount(), String.format("%.4f", next.expectedFalsePositiveRate()));
+        rebuildFinished();
+    }
+
+    private void rebuildFailed(Throwable e) {
+        synchronized (updateLock) {
+            building = null;
+            buildingEpoch = STALE;
+        }
+        log.error("[MigrationStatusBloomFilter] Rebuild failed, keeping the previous filter.", e);
+        // 필터를 쓰지 못하는 동안에는 다음 주기를 기다리지 않고 다시 시도한다.
+        if (currentEpoch == STALE) {
+            rebuildRequested.set(false);
+            subscriptions.add(Mono.delay(RETRY_DELAY).subscribe(t -> rebuild()));
+        }
+        rebuildFinished();
+    }
+
+    private void rebuildFinished() {
+        rebuilding.set(false);
+        if (rebuildRequested.getAndSet(false)) {
+            rebuild();
+        }
+    }
+
+    private void onKeyspaceEvent(KeyspaceEvent event) {
+        if (event.isResync()) {
+            // 구독이 끊겨 있던 동안 추가된 고객을 알 수 없으므로 재빌드.
+            // 지금 구독 구간에 시작한 빌드가 있으면(e.g. 기동 시 첫 빌드) 그 빌드가 이미 모든 고객을 반영한다.
+            long epoch = keyspaceListener.getListeningEpoch();
+            if (epoch == STALE || (rebuilding.get() ? buildingEpoch : currentEpoch) != epoch) {
+                rebuild();
+            }
+            return;
+        }
+        if (!INSERT_EVENTS.contains(event.getEvent())) {
+            return;
+        }
+        synchronized (updateLock) {
+            BloomFilter filter = current;
+            if (filter != null) {
+                filter.put(event.getKey());
+            }
+            if (building != null) {
+                building.put(event.getKey());
+            }
+        }
+    }
+}
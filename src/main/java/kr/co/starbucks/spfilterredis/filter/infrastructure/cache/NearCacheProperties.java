@@ -0,0 +1,41 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.cache;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 레디스 조회 결과를 담아두는 로컬 near-cache 설정.<br>
+ * 역할(세션, 마이그레이션 상태)별로 "spring.redis.principal-*.near-cache" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class NearCacheProperties {
+    /**
+     * near-cache 사용 여부. 기본값은 사용하지 않음.
+     */
+    private boolean enabled = false;
+
+    /**
+     * 최대 엔트리 수. 초과 시 W-TinyLFU 정책으로 축출된다.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * 값이 존재하는 엔트리의 만료 시간.
+     */
+    private Duration ttl = Duration.ofSeconds(60);
+
+    /**
+     * 레디스에 존재하지 않는 키(Negative Caching)의 만료 시간.
+     */
+    private Duration negativeTtl = Duration.ofSeconds(5);
+
+    /**
+     * 이 시간이 지난 엔트리는 조회 시 기존 값을 그대로 반환하고 백그라운드에서 다시 읽는다(stale-while-revalidate).<br>
+     * ttl보다 작아야 의미가 있으며, 0 혹은 미지정이면 사용하지 않는다.
+     */
+    private Duration refreshAfter = Duration.ofSeconds(20);
+}
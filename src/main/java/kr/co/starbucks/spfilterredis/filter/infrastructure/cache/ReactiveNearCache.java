@@ -0,0 +1,153 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+/**
+ * 레디스 조회 앞단에 두는 크기 제한 로컬 캐시.<br>
+ * <p></p>
+ * * Caffeine(W-TinyLFU) 기반으로 maximumSize를 넘으면 사용 빈도가 낮은 엔트리부터 축출한다.<br>
+ * * 레디스에 없는 키도 Optional.empty()로 저장하여 negativeTtl 동안 다시 조회하지 않는다.<br>
+ * * refreshAfter가 지난 엔트리는 기존 값을 즉시 반환하고 백그라운드에서 갱신한다(stale-while-revalidate).
+ * 따라서 레디스가 느려져도 캐시 히트 경로의 지연시간에는 드러나지 않는다.<br>
+ * * 히트/미스/축출 카운터는 Micrometer "cache.*" 메트릭으로 노출된다.
+ *
+ * @param <K> 캐시 키 (e.g. JSESSIONID)
+ * @param <V> 레디스 조회 결과
+ */
+@Slf4j
+public class ReactiveNearCache<K, V> implements MeterBinder {
+
+    private final String name;
+
+    private final AsyncLoadingCache<K, Optional<V>> cache;
+
+    public ReactiveNearCache(String name, NearCacheProperties properties, Function<K, Mono<V>> loader) {
+        Assert.hasText(name, "캐시 이름이 존재하지 않습니다");
+        Assert.notNull(properties.getTtl(), "ttl이 존재하지 않습니다");
+        Assert.notNull(properties.getNegativeTtl(), "negativeTtl이 존재하지 않습니다");
+        this.name = name;
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .recordStats();
+
+        Duration refreshAfter = properties.getRefreshAfter();
+        if (refreshAfter != null && !refreshAfter.isZero() && !refreshAfter.isNegative()) {
+            if (refreshAfter.compareTo(properties.getTtl()) >= 0) {
+                log.warn("[{}] refreshAfter({}) >= ttl({}), stale-while-revalidate가 동작하지 않습니다.",
+                    name, refreshAfter, properties.getTtl());
+            }
+            builder.refreshAfterWrite(refreshAfter);
+        }
+
+        this.cache = builder
+            .expireAfter(new PresenceAwareExpiry<K, V>(properties.getTtl(), properties.getNegativeTtl()))
+            .buildAsync((key, executor) -> loader.apply(key)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .toFuture());
+
+        log.info("[{}] Near-cache enabled: {}", name, properties);
+    }
+
+    public Mono<V> get(K key) {
+        // 캐시가 보관하는 Future를 구독자가 취소하지 않도록 사본(copy)에 구독한다.
+        return Mono.fromFuture(cache.get(key).copy())
+            .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * 캐시에 없는 키만 모아 bulkLoader로 한 번에 조회한다. bulkLoader 결과에 없는 키는 "값 없음"으로 저장된다.<br>
+     * 이후 각 엔트리의 갱신(refreshAfter)은 키 단위 loader로 동작한다.
+     *
+     * @return 값이 있는 키만 담은 Map
+     */
+    public Mono<Map<K, V>> getAll(Collection<K> keys, Function<List<K>, Mono<Map<K, V>>> bulkLoader) {
+        return Mono.fromFuture(cache.getAll(keys, (missing, executor) -> {
+                List<K> toLoad = new ArrayList<>();
+                missing.forEach(toLoad::add);
+                return bulkLoader.apply(toLoad)
+                    .defaultIfEmpty(Map.of())
+                    .map(found -> {
+                        Map<K, Optional<V>> loaded = new HashMap<>(toLoad.size() * 2);
+                        for (K key : toLoad) {
+                            loaded.put(key, Optional.ofNullable(found.get(key)));
+                        }
+                        return loaded;
+                    })
+                    .toFuture();
+            }).copy())
+            .map(entries -> {
+                Map<K, V> present = new HashMap<>(entries.size() * 2);
+                entries.forEach((key, value) -> value.ifPresent(v -> present.put(key, v)));
+                return present;
+            });
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long estimatedSize() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), name);
+    }
+
+    /**
+     * 값이 있는 엔트리와 없는 엔트리(Negative)의 만료 시간을 다르게 적용한다.
+     */
+    private static final class PresenceAwareExpiry<K, V> implements Expiry<K, Optional<V>> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private PresenceAwareExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(@NotNull K key, @NotNull Optional<V> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(@NotNull K key, @NotNull Optional<V> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(@NotNull K key, @NotNull Optional<V> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.connection;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import java.util.List;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.data.redis.connection.RedisConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration.LettuceClientConfigurationBuilder;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+
+/**
+ * {@link RedisConnectionProperties}로 LettuceConnectionFactory를 만든다.
+ */
+public final class LettuceConnectionFactories {
+
+    private LettuceConnectionFactories() {
+    }
+
+    /**
+     * Netty I/O, computation 스레드 개수를 적용한 ClientResources. 사용이 끝나면 shutdown()해야 한다.
+     */
+    public static ClientResources clientResources(RedisConnectionProperties properties) {
+        return clientResources(properties, List.of());
+    }
+
+    /**
+     * @param customizers 스프링 부트의 ClientResources와 같은 설정(e.g. "lettuce.command.*" 명령 지연 메트릭)을 적용한다.
+     */
+    public static ClientResources clientResources(RedisConnectionProperties properties, List<ClientResourcesBuilderCustomizer> customizers) {
+        DefaultClientResources.Builder builder = DefaultClientResources.builder();
+        customizers.forEach(customizer -> customizer.customize(builder));
+        if (properties.getIoThreads() > 0) {
+            builder.ioThreadPoolSize(properties.getIoThreads());
+        }
+        if (properties.getComputationThreads() > 0) {
+            builder.computationThreadPoolSize(properties.getComputationThreads());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 초기화(afterPropertiesSet)되지 않은 커넥션 팩토리를 만든다.
+     * POOLED 모드이면 네이티브 커넥션을 공유하지 않고 명령마다 풀에서 커넥션을 빌린다.
+     */
+    public static LettuceConnectionFactory create(RedisConfiguration configuration, RedisConnectionProperties properties,
+        ClientResources clientResources) {
+        boolean pooled = properties.getMode() == RedisConnectionProperties.Mode.POOLED;
+
+        LettuceClientConfigurationBuilder builder;
+        if (pooled) {
+            RedisConnectionProperties.Pool pool = properties.getPool();
+            GenericObjectPoolConfig<?> poolConfig = new GenericObjectPoolConfig<>();
+            poolConfig.setMaxTotal(pool.getMaxActive());
+            poolConfig.setMaxIdle(pool.getMaxIdle());
+            poolConfig.setMinIdle(pool.getMinIdle());
+            poolConfig.setMaxWait(pool.getMaxWait());
+            builder = LettucePoolingClientConfiguration.builder().poolConfig(poolConfig);
+        } else {
+            builder = LettuceClientConfiguration.builder();
+        }
+
+        LettuceClientConfiguration clientConfiguration = builder
+            .clientResources(clientResources)
+            .clientOptions(ClientOptions.builder()
+                .socketOptions(SocketOptions.builder()
+                    .connectTimeout(properties.getConnectTimeout()).build())
+                // commandTimeout만으로는 동기 API에만 적용되므로 리액티브 명령에도 타임아웃을 건다.
+                .timeoutOptions(TimeoutOptions.enabled(properties.getCommandTimeout()))
+                .build())
+            .commandTimeout(properties.getCommandTimeout())
+            .build();
+
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(configuration, clientConfiguration);
+        factory.setShareNativeConnection(!pooled);
+        return factory;
+    }
+}
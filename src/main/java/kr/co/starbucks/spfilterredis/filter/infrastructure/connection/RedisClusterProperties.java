@@ -0,0 +1,57 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.connection;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 레디스 클러스터 커넥션 설정. (!local 프로파일)<br>
+ * "spring.redis.principal-migration-status.cluster" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class RedisClusterProperties {
+    /**
+     * 추가 시드 노드 목록 ("host:port"). host/port 노드와 함께 사용하며, 일부 노드가 내려가 있어도 토폴로지를 가져올 수 있다.
+     */
+    private List<String> nodes = new ArrayList<>();
+
+    /**
+     * 읽기 명령을 보낼 노드. Lettuce ReadFrom 이름 (e.g. upstream, upstreamPreferred, replicaPreferred, lowestLatency, any)
+     */
+    private String readFrom = "upstream";
+
+    /**
+     * 클러스터 토폴로지 갱신 설정.
+     */
+    private TopologyRefresh topologyRefresh = new TopologyRefresh();
+
+    @Getter
+    @Setter
+    @ToString
+    public static class TopologyRefresh {
+        /**
+         * 주기적 갱신 간격. 0이면 주기적으로 갱신하지 않는다.
+         */
+        private Duration period = Duration.ofSeconds(30);
+
+        /**
+         * MOVED/ASK 리다이렉트, 재연결 실패 등이 발생하면 즉시 갱신할지 여부.
+         */
+        private boolean adaptive = true;
+
+        /**
+         * 적응형 갱신이 연달아 발생하지 않도록 하는 최소 간격.
+         */
+        private Duration adaptiveTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 시드 노드뿐 아니라 발견한 모든 노드에 토폴로지를 물어볼지 여부.
+         */
+        private boolean dynamicSources = true;
+    }
+}
@@ -0,0 +1,82 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.connection;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 레디스 커넥션 구성 설정.<br>
+ * "spring.redis.principal-session.connection" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class RedisConnectionProperties {
+    /**
+     * 커넥션 구성 방식.
+     */
+    private Mode mode = Mode.SHARED;
+
+    /**
+     * STRIPED 모드의 커넥션 개수. 키의 해시로 커넥션을 고른다.
+     */
+    private int stripes = 4;
+
+    /**
+     * POOLED 모드의 커넥션 풀 설정.
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * 커넥션 수립 타임아웃.
+     */
+    private Duration connectTimeout = Duration.ofMillis(300);
+
+    /**
+     * 명령 타임아웃. 리액티브 명령에도 적용된다.
+     */
+    private Duration commandTimeout = Duration.ofSeconds(3);
+
+    /**
+     * Netty I/O 스레드 개수. 0이면 Lettuce 기본값(CPU 코어 수, 최소 2)을 사용한다.
+     */
+    private int ioThreads = 0;
+
+    /**
+     * 응답을 발행하는 computation 스레드 개수. 0이면 Lettuce 기본값(CPU 코어 수, 최소 2)을 사용한다.
+     */
+    private int computationThreads = 0;
+
+    public enum Mode {
+        /**
+         * 모든 요청이 하나의 멀티플렉싱 커넥션을 공유한다. (기존 동작)
+         */
+        SHARED,
+        /**
+         * 고정된 개수(stripes)의 멀티플렉싱 커넥션에 키를 나누어 보낸다.
+         * 큰 값의 응답이 다른 요청을 막는 Head-of-line blocking이 한 커넥션으로 제한된다.
+         */
+        STRIPED,
+        /**
+         * 명령마다 풀에서 커넥션을 빌려 쓴다. 커넥션을 빌리고 반납하는 비용이 있다.
+         */
+        POOLED
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class Pool {
+        private int maxActive = 16;
+
+        private int maxIdle = 16;
+
+        private int minIdle = 0;
+
+        /**
+         * 풀이 가득 찼을 때 커넥션을 기다리는 최대 시간.
+         */
+        private Duration maxWait = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,85 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.connection;
+
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * 커넥션(스트라이프)마다 하나씩 만든 ReactiveRedisTemplate 묶음.<br>
+ * <p></p>
+ * * 같은 키는 항상 같은 스트라이프로 보내므로 키 단위의 명령 순서는 유지된다.<br>
+ * * 첫 번째 스트라이프는 스프링 빈으로 등록된 커넥션 팩토리를 사용하며, 나머지 팩토리는 이 객체가 종료한다.
+ *
+ * @see RedisConnectionProperties.Mode#STRIPED
+ */
+public class StripedReactiveRedisTemplate<K, V> implements DisposableBean {
+
+    private final List<ReactiveRedisTemplate<K, V>> templates;
+
+    private final List<LettuceConnectionFactory> ownedFactories;
+
+    /**
+     * @param primary       첫 번째 스트라이프. 수명은 호출자가 관리한다.
+     * @param ownedFactories 나머지 스트라이프의 커넥션 팩토리. 초기화되지 않았으면 여기서 초기화한다.
+     * @param templateFactory 커넥션 팩토리로 템플릿을 만든다. (직렬화 설정은 모든 스트라이프가 같아야 한다)
+     */
+    public StripedReactiveRedisTemplate(ReactiveRedisTemplate<K, V> primary, List<LettuceConnectionFactory> ownedFactories,
+        Function<LettuceConnectionFactory, ReactiveRedisTemplate<K, V>> templateFactory) {
+        Assert.notNull(primary, "첫 번째 스트라이프가 존재하지 않습니다");
+        this.ownedFactories = List.copyOf(ownedFactories);
+
+        ReactiveRedisTemplate<K, V>[] stripes = newArray(ownedFactories.size() + 1);
+        stripes[0] = primary;
+        for (int i = 0; i < ownedFactories.size(); i++) {
+            LettuceConnectionFactory factory = ownedFactories.get(i);
+            factory.afterPropertiesSet();
+            stripes[i + 1] = templateFactory.apply(factory);
+        }
+        this.templates = List.of(stripes);
+    }
+
+    /**
+     * 스트라이프 하나(= 기존과 같은 단일 템플릿)
+     */
+    public static <K, V> StripedReactiveRedisTemplate<K, V> single(ReactiveRedisTemplate<K, V> template) {
+        return new StripedReactiveRedisTemplate<>(template, List.of(), factory -> template);
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public List<ReactiveRedisTemplate<K, V>> getTemplates() {
+        return templates;
+    }
+
+    /**
+     * @return 키가 속한 스트라이프 번호 (0 ~ size() - 1)
+     */
+    public int indexOf(Object key) {
+        int size = templates.size();
+        if (size == 1) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        // JSESSIONID처럼 하위 비트가 고르지 않은 키도 고르게 나눈다.
+        return Math.floorMod(hash ^ (hash >>> 16), size);
+    }
+
+    public ReactiveRedisTemplate<K, V> forKey(Object key) {
+        return templates.get(indexOf(key));
+    }
+
+    @Override
+    public void destroy() {
+        ownedFactories.forEach(LettuceConnectionFactory::destroy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> ReactiveRedisTemplate<K, V>[] newArray(int size) {
+        return new ReactiveRedisTemplate[size];
+    }
+}
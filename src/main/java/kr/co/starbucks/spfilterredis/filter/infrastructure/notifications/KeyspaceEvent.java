@@ -0,0 +1,48 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.notifications;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 레디스 Keyspace Notification 한 건.<br>
+ * 구독이 끊겼다가 다시 연결되면 그 사이의 이벤트는 유실되므로 key 없이 RESYNC 이벤트를 발행한다.
+ * 구독자는 RESYNC를 받으면 로컬 상태 전체를 무효화(혹은 재적재)해야 한다.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class KeyspaceEvent {
+
+    public enum Type {
+        KEY_CHANGED,
+        RESYNC
+    }
+
+    private static final KeyspaceEvent RESYNC = new KeyspaceEvent(Type.RESYNC, null, null);
+
+    private final Type type;
+
+    /**
+     * 변경된 키 (e.g. CustomerId)
+     */
+    private final String key;
+
+    /**
+     * 레디스 이벤트 이름 (e.g. hset, hdel, del, expire, expired)
+     */
+    private final String event;
+
+    public static KeyspaceEvent keyChanged(String key, String event) {
+        return new KeyspaceEvent(Type.KEY_CHANGED, key, event);
+    }
+
+    public static KeyspaceEvent resync() {
+        return RESYNC;
+    }
+
+    public boolean isResync() {
+        return type == Type.RESYNC;
+    }
+}
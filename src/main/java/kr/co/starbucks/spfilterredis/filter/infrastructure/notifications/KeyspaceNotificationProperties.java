@@ -0,0 +1,37 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.notifications;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 마이그레이션 상태 레디스 Keyspace Notification 구독 설정.<br>
+ * "spring.redis.principal-migration-status.keyspace-notifications" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class KeyspaceNotificationProperties {
+    /**
+     * 구독 사용 여부.
+     */
+    private boolean enabled = false;
+
+    /**
+     * 기동 시 "notify-keyspace-events" 서버 설정에 필요한 플래그를 추가할지 여부. (클러스터이면 모든 노드)<br>
+     * 애플리케이션이 서버 설정을 바꾸므로 명시적으로 켠 경우에만 사용한다.
+     * 기본값(false)이면 파라미터 그룹 등에서 "Kghxe" 플래그를 미리 설정해 두어야 한다.
+     */
+    private boolean configureServer = false;
+
+    /**
+     * 구독이 끊겼을 때 재구독 최소 대기 시간.
+     */
+    private Duration minBackoff = Duration.ofMillis(100);
+
+    /**
+     * 구독이 끊겼을 때 재구독 최대 대기 시간.
+     */
+    private Duration maxBackoff = Duration.ofSeconds(10);
+}
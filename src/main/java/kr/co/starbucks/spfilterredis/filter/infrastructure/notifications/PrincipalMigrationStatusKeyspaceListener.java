@@ -0,0 +1,351 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.notifications;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.event.ClusterTopologyChangedEvent;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.cluster.pubsub.RedisClusterPubSubAdapter;
+import io.lettuce.core.cluster.pubsub.StatefulRedisClusterPubSubConnection;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import kr.co.starbucks.spfilterredis.filter.config.PrincipalMigrationStatusRedisConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.ReactiveRedisClusterConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * 마이그레이션 상태 레디스의 Keyspace Notification을 전용 Pub/Sub 커넥션으로 구독하여
+ * 변경된 CustomerId를 {@link KeyspaceEvent}로 발행한다.<br>
+ * <p></p>
+ * * 로컬 캐시 등은 {@link #events()}를 구독하여 변경된 키를 즉시 무효화한다.<br>
+ * * 레디스 클러스터에서는 Keyspace Notification이 노드 단위로만 발행되므로 모든 upstream 노드를 각각 구독한다.
+ * 토폴로지가 바뀌면(페일오버, 노드 추가) 처음부터 다시 구독한다.<br>
+ * * 모든 노드의 구독이 (재)수립될 때마다 RESYNC 이벤트를 발행한다. 끊겨 있던 동안의 변경은 알 수 없기 때문이다.<br>
+ * * 이벤트 유실을 허용할 수 없는 구독자(e.g. Bloom Filter, 전체 복제본)는 {@link #isListening()}이 false인 동안 레디스를 조회해야 한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnBean(PrincipalMigrationStatusRedisConfig.class)
+@ConditionalOnProperty(name = "spring.redis.principal-migration-status.keyspace-notifications.enabled", havingValue = "true")
+public class PrincipalMigrationStatusKeyspaceListener {
+
+    private static final String NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events";
+
+    // K: Keyspace 채널, g: del/expire/rename 등 일반 명령, h: 해시 명령, x: 만료, e: 축출
+    private static final String REQUIRED_FLAGS = "Kghxe";
+
+    // "A"는 "g$lshzxe"의 별칭
+    private static final String ALL_ALIASED_FLAGS = "g$lshzxe";
+
+    private static final String KEYSPACE_PATTERN = "__keyspace@*__:*";
+
+    // 단독 서버의 노드 ID
+    private static final String STANDALONE = "standalone";
+
+    private static final Set<String> CHANGE_EVENTS = Set.of(
+        "hset", "hsetnx", "hdel", "hincrby", "hincrbyfloat",
+        "del", "expire", "expired", "evicted", "rename_from", "rename_to"
+    );
+
+    private final ReactiveRedisConnectionFactory connectionFactory;
+
+    private final KeyspaceNotificationProperties properties;
+
+    private final Sinks.Many<KeyspaceEvent> sink = Sinks.many().multicast().directBestEffort();
+
+    private Disposable subscription;
+
+    private final AtomicLong epochs = new AtomicLong();
+
+    // 모든 노드의 구독이 수립될 때마다 새로 발급하는 번호. 구독 중 끊긴 노드가 있으면 -1
+    private volatile long epoch = -1;
+
+    public PrincipalMigrationStatusKeyspaceListener(
+        ReactiveRedisConnectionFactory principalMigrationStatusRedisConnectionFactory,
+        @Qualifier("principalMigrationStatusKeyspaceNotificationProperties") KeyspaceNotificationProperties properties
+    ) {
+        this.connectionFactory = principalMigrationStatusRedisConnectionFactory;
+        this.properties = properties;
+    }
+
+    /**
+     * 변경 이벤트 스트림 (Hot). 구독 이전의 이벤트는 전달되지 않는다.
+     */
+    public Flux<KeyspaceEvent> events() {
+        return sink.asFlux();
+    }
+
+    /**
+     * @return 모든 (upstream) 노드의 이벤트를 수신 중이면 true. false인 동안의 변경은 다음 RESYNC 전까지 알 수 없다.
+     */
+    public boolean isListening() {
+        return epoch >= 0;
+    }
+
+    /**
+     * 이벤트를 빠짐없이 수신 중인 구간의 번호. 구독이 끊겼다가 다시 수립되면 바뀌며, 수신 중이 아니면 -1이다.<br>
+     * 전체 적재 시작 시점의 번호가 지금과 같으면 그 적재 이후의 변경은 모두 이벤트로 전달된 것이다.
+     */
+    public long getListeningEpoch() {
+        return epoch;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!(connectionFactory instanceof LettuceConnectionFactory)) {
+            throw new IllegalStateException("Keyspace notifications require a LettuceConnectionFactory: " + connectionFactory);
+        }
+        AbstractRedisClient client = ((LettuceConnectionFactory) connectionFactory).getRequiredNativeClient();
+        subscription = configureServer()
+            .thenMany(Flux.defer(() -> receive(client)))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getMinBackoff())
+                .maxBackoff(properties.getMaxBackoff())
+                .transientErrors(true)
+                .doBeforeRetry(s -> log.warn("[KeyspaceListener] Subscription failed, retrying: {}", s.failure().toString())))
+            .subscribe(sink::tryEmitNext);
+        log.info("[KeyspaceListener] Subscribing to {} ({})", KEYSPACE_PATTERN, properties);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Flux<KeyspaceEvent> receive(AbstractRedisClient client) {
+        return Flux.usingWhen(
+            // 커넥션(클러스터이면 토폴로지 조회)이 블로킹이므로 이벤트 루프 밖에서 연결한다.
+            Mono.fromCallable(() -> connectPubSub(client)).subscribeOn(Schedulers.boundedElastic()),
+            connection -> Flux.<KeyspaceEvent>create(events -> listen(client, connection, events)),
+            connection -> Mono.fromCompletionStage(connection.closeAsync())
+        )
+            // 구독이 정상 종료되어도 재구독하도록 오류로 바꾼다.
+            .concatWith(Mono.error(new IllegalStateException("Keyspace subscription completed")));
+    }
+
+    private static StatefulRedisPubSubConnection<String, String> connectPubSub(AbstractRedisClient client) {
+        if (client instanceof RedisClusterClient) {
+            return ((RedisClusterClient) client).connectPubSub();
+        }
+        return ((RedisClient) client).connectPubSub();
+    }
+
+    private void listen(AbstractRedisClient client, StatefulRedisPubSubConnection<String, String> connection,
+        FluxSink<KeyspaceEvent> events) {
+        NodeSubscriptions nodes = new NodeSubscriptions(events);
+        Disposable.Composite disposables = Disposables.composite();
+        client.addListener(nodes);
+        events.onDispose(() -> {
+            epoch = -1;
+            client.removeListener(nodes);
+            disposables.dispose();
+        });
+
+        if (connection instanceof StatefulRedisClusterPubSubConnection) {
+            StatefulRedisClusterPubSubConnection<String, String> cluster = (StatefulRedisClusterPubSubConnection<String, String>) connection;
+            // 노드 커넥션의 메시지와 구독 응답을 클러스터 커넥션의 리스너로 전달받는다.
+            cluster.setNodeMessagePropagation(true);
+            cluster.addListener(new RedisClusterPubSubAdapter<>() {
+                @Override
+                public void message(RedisClusterNode node, String pattern, String channel, String message) {
+                    nodes.onMessage(channel, message);
+                }
+
+                @Override
+                public void psubscribed(RedisClusterNode node, String pattern, long count) {
+                    nodes.onSubscribed(node.getNodeId());
+                }
+            });
+            disposables.add(client.getResources().eventBus().get()
+                .ofType(ClusterTopologyChangedEvent.class)
+                .subscribe(e -> events.error(new IllegalStateException("Cluster topology changed"))));
+
+            List<RedisClusterNode> upstreams = cluster.getPartitions().stream()
+                .filter(node -> node.getRole().isUpstream())
+                .collect(Collectors.toList());
+            nodes.expect(upstreams.stream().map(RedisClusterNode::getNodeId).collect(Collectors.toList()));
+            disposables.add(Flux.fromIterable(upstreams)
+                .flatMap(node -> Mono.fromCompletionStage(cluster.getConnectionAsync(node.getNodeId()))
+                    .flatMap(nodeConnection -> {
+                        nodes.register(nodeConnection, node.getNodeId());
+                        return nodeConnection.reactive().psubscribe(KEYSPACE_PATTERN);
+                    }))
+                .subscribe(null, events::error));
+            log.info("[KeyspaceListener] Subscribing to {} upstream nodes", upstreams.size());
+        } else {
+            connection.addListener(new RedisPubSubAdapter<>() {
+                @Override
+                public void message(String pattern, String channel, String message) {
+                    nodes.onMessage(channel, message);
+                }
+
+                @Override
+                public void psubscribed(String pattern, long count) {
+                    nodes.onSubscribed(STANDALONE);
+                }
+            });
+            nodes.expect(List.of(STANDALONE));
+            nodes.register(connection, STANDALONE);
+            disposables.add(connection.reactive().psubscribe(KEYSPACE_PATTERN).subscribe(null, events::error));
+        }
+    }
+
+    // "__keyspace@0__:20220712112147hilbmq" -> "20220712112147hilbmq"
+    private static String keyOf(String channel) {
+        return channel.substring(channel.indexOf("__:") + 3);
+    }
+
+    /**
+     * 클러스터이면 모든 노드(복제 노드 포함, 페일오버 대비)에 설정한다.
+     */
+    private Mono<Void> configureServer() {
+        if (!properties.isConfigureServer()) {
+            return Mono.empty();
+        }
+        Mono<Void> configure;
+        if (((LettuceConnectionFactory) connectionFactory).isClusterAware()) {
+            configure = Mono.usingWhen(
+                Mono.fromSupplier(connectionFactory::getReactiveClusterConnection),
+                connection -> connection.clusterGetNodes()
+                    .flatMap(node -> configureNode(node.asString(),
+                        connection.serverCommands().getConfig(node, NOTIFY_KEYSPACE_EVENTS),
+                        flags -> connection.serverCommands().setConfig(node, NOTIFY_KEYSPACE_EVENTS, flags)))
+                    .then(),
+                ReactiveRedisClusterConnection::closeLater
+            );
+        } else {
+            configure = Mono.usingWhen(
+                Mono.fromSupplier(connectionFactory::getReactiveConnection),
+                connection -> configureNode("standalone",
+                    connection.serverCommands().getConfig(NOTIFY_KEYSPACE_EVENTS),
+                    flags -> connection.serverCommands().setConfig(NOTIFY_KEYSPACE_EVENTS, flags)),
+                ReactiveRedisConnection::closeLater
+            );
+        }
+        return configure
+            .onErrorResume(e -> {
+                log.warn("[KeyspaceListener] Could not configure {}: {}", NOTIFY_KEYSPACE_EVENTS, e.toString());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> configureNode(String node, Mono<Properties> config, Function<String, Mono<String>> setConfig) {
+        return config
+            // 클러스터에서는 "host:port.notify-keyspace-events" 형태의 키로 반환된다.
+            .map(p -> p.stringPropertyNames().stream()
+                .filter(name -> name.endsWith(NOTIFY_KEYSPACE_EVENTS))
+                .map(p::getProperty)
+                .findFirst()
+                .orElse(""))
+            .defaultIfEmpty("")
+            .flatMap(current -> {
+                String merged = mergeFlags(current);
+                if (merged.equals(current)) {
+                    return Mono.empty();
+                }
+                log.info("[KeyspaceListener] {} {}: '{}' -> '{}'", node, NOTIFY_KEYSPACE_EVENTS, current, merged);
+                return setConfig.apply(merged).then();
+            });
+    }
+
+    static String mergeFlags(String current) {
+        StringBuilder merged = new StringBuilder(current);
+        boolean all = current.indexOf('A') >= 0;
+        for (char flag : REQUIRED_FLAGS.toCharArray()) {
+            boolean covered = current.indexOf(flag) >= 0 || (all && ALL_ALIASED_FLAGS.indexOf(flag) >= 0);
+            if (!covered) {
+                merged.append(flag);
+            }
+        }
+        return merged.toString();
+    }
+
+    /**
+     * 구독 한 번(커넥션 하나)의 노드별 구독 상태.<br>
+     * 노드 커넥션이 끊기면 Lettuce가 재연결 후 다시 구독하며, 모든 노드의 구독이 다시 수립되면 RESYNC를 발행한다.
+     */
+    private final class NodeSubscriptions implements RedisConnectionStateListener {
+
+        private final FluxSink<KeyspaceEvent> events;
+
+        // 노드 ID -> 구독 수립 여부
+        private final Map<String, Boolean> subscribed = new ConcurrentHashMap<>();
+
+        // 노드별 Pub/Sub 커넥션 -> 노드 ID
+        private final Map<RedisChannelHandler<?, ?>, String> connections = new ConcurrentHashMap<>();
+
+        NodeSubscriptions(FluxSink<KeyspaceEvent> events) {
+            this.events = events;
+        }
+
+        void expect(List<String> nodeIds) {
+            nodeIds.forEach(nodeId -> subscribed.put(nodeId, false));
+        }
+
+        void register(StatefulRedisPubSubConnection<String, String> connection, String nodeId) {
+            if (connection instanceof RedisChannelHandler) {
+                connections.put((RedisChannelHandler<?, ?>) connection, nodeId);
+            }
+        }
+
+        void onMessage(String channel, String message) {
+            if (CHANGE_EVENTS.contains(message)) {
+                events.next(KeyspaceEvent.keyChanged(keyOf(channel), message));
+            }
+        }
+
+        synchronized void onSubscribed(String nodeId) {
+            if (subscribed.replace(nodeId, true) == null || epoch >= 0 || subscribed.containsValue(false)) {
+                return;
+            }
+            epoch = epochs.incrementAndGet();
+            events.next(KeyspaceEvent.resync());
+            log.info("[KeyspaceListener] Listening on {} node(s)", subscribed.size());
+        }
+
+        @Override
+        public synchronized void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+            String nodeId = connections.get(connection);
+            if (nodeId == null) {
+                return;
+            }
+            subscribed.put(nodeId, false);
+            if (epoch >= 0) {
+                epoch = -1;
+                log.warn("[KeyspaceListener] Lost subscription on node {}, waiting for resubscription", nodeId);
+            }
+        }
+
+        @Override
+        public void onRedisExceptionCaught(RedisChannelHandler<?, ?> connection, Throwable cause) {
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.replica;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 마이그레이션 상태 전체 복제(In-memory Replica) 설정.<br>
+ * "spring.redis.principal-migration-status.replica" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class MigrationStatusReplicaProperties {
+    /**
+     * 전체 복제 사용 여부.
+     */
+    private boolean enabled = false;
+
+    /**
+     * 전체 재적재(Build-and-swap) 주기. 0이면 기동 시와 RESYNC 시에만 적재한다.
+     */
+    private Duration reloadInterval = Duration.ofHours(1);
+
+    /**
+     * SCAN 한 번에 요청할 키 개수(COUNT).
+     */
+    private int scanCount = 1000;
+
+    /**
+     * 적재 시 동시에 보낼(파이프라인) HGETALL 개수.
+     */
+    private int loadConcurrency = 64;
+}
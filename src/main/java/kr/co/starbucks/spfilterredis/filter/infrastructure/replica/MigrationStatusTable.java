@@ -0,0 +1,234 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.replica;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 마이그레이션 상태 키스페이스 전체를 담는 불변(Immutable) 스냅샷.<br>
+ * <p></p>
+ * 수백만 고객을 담아야 하므로 엔트리별 객체를 만들지 않는다.<br>
+ * * CustomerId: Latin-1 바이트로 하나의 byte[]에 이어 붙이고 offset(int[])으로 구분<br>
+ * * 상태: 고객별로 RouteId ordinal마다 1바이트 코드 ({@link StatusDictionary})<br>
+ * * 인덱스: 선형 탐사(Linear Probing) 오픈 어드레싱 해시 테이블(int[])<br>
+ * 조회는 CustomerId 문자열을 바이트로 변환하지 않고 문자 단위로 비교하므로 할당이 없다.
+ * Latin-1로 표현할 수 없는 CustomerId는 예외적으로 별도 Map에 담는다.
+ */
+final class MigrationStatusTable {
+
+    private final int routeCount;
+
+    private final byte[] keys;
+
+    private final int[] offsets;
+
+    private final byte[] statuses;
+
+    private final int[] slots;
+
+    private final Map<String, byte[]> wideKeys;
+
+    private final int size;
+
+    private MigrationStatusTable(int routeCount, byte[] keys, int[] offsets, byte[] statuses, int[] slots,
+        Map<String, byte[]> wideKeys, int size) {
+        this.routeCount = routeCount;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.statuses = statuses;
+        this.slots = slots;
+        this.wideKeys = wideKeys;
+        this.size = size;
+    }
+
+    static Builder builder(int routeCount) {
+        return new Builder(routeCount);
+    }
+
+    int size() {
+        return size + wideKeys.size();
+    }
+
+    /**
+     * @return 상태 코드, 고객이 없거나 해당 Route 상태가 없으면 {@link StatusDictionary#ABSENT}
+     */
+    byte code(String customerId, int routeOrdinal) {
+        int index = indexOf(customerId);
+        if (index >= 0) {
+            return statuses[index * routeCount + routeOrdinal];
+        }
+        if (!wideKeys.isEmpty()) {
+            byte[] codes = wideKeys.get(customerId);
+            if (codes != null) {
+                return codes[routeOrdinal];
+            }
+        }
+        return StatusDictionary.ABSENT;
+    }
+
+    private int indexOf(String customerId) {
+        if (slots.length == 0) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        for (int slot = hash(customerId) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (matches(entry - 1, customerId)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private boolean matches(int index, String customerId) {
+        int from = offsets[index];
+        int length = offsets[index + 1] - from;
+        if (length != customerId.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if ((keys[from + i] & 0xFF) != customerId.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(CharSequence s) {
+        int h = 0x811C9DC5;
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 벌크 적재용 빌더. 단일 스레드에서만 사용한다.<br>
+     * 같은 CustomerId가 여러 번 추가되면(SCAN은 중복을 반환할 수 있다) 마지막 값이 남는다.
+     */
+    static final class Builder {
+        private final int routeCount;
+        private byte[] keys = new byte[1 << 16];
+        private int[] offsets = new int[1 << 12];
+        private byte[] statuses;
+        private final Map<String, byte[]> wideKeys = new HashMap<>();
+        private int keyLength;
+        private int size;
+
+        private Builder(int routeCount) {
+            this.routeCount = routeCount;
+            this.statuses = new byte[offsets.length * routeCount];
+        }
+
+        Builder add(String customerId, byte[] codes) {
+            if (codes.length != routeCount) {
+                throw new IllegalArgumentException("Expected " + routeCount + " route codes but got " + codes.length);
+            }
+            if (!isLatin1(customerId)) {
+                wideKeys.put(customerId, codes.clone());
+                return this;
+            }
+            int length = customerId.length();
+            if (keyLength + length > keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(keys.length * 2, keyLength + length));
+            }
+            if (size + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                statuses = Arrays.copyOf(statuses, offsets.length * routeCount);
+            }
+            for (int i = 0; i < length; i++) {
+                keys[keyLength + i] = (byte) customerId.charAt(i);
+            }
+            System.arraycopy(codes, 0, statuses, size * routeCount, routeCount);
+            offsets[size] = keyLength;
+            keyLength += length;
+            size++;
+            offsets[size] = keyLength;
+            return this;
+        }
+
+        MigrationStatusTable build() {
+            int[] compactOffsets = Arrays.copyOf(offsets, size + 1);
+            byte[] compactKeys = Arrays.copyOf(keys, keyLength);
+            byte[] compactStatuses = Arrays.copyOf(statuses, size * routeCount);
+            int[] slots = new int[size == 0 ? 0 : Integer.highestOneBit(Math.max(size * 2, 2) - 1) << 1];
+
+            MigrationStatusTable table = new MigrationStatusTable(routeCount, compactKeys, compactOffsets,
+                compactStatuses, slots, Map.copyOf(wideKeys), size);
+            int mask = slots.length - 1;
+            int distinct = 0;
+            for (int index = 0; index < size; index++) {
+                int slot = hash(table.keyAt(index)) & mask;
+                while (slots[slot] != 0 && !table.sameKey(slots[slot] - 1, index)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (slots[slot] == 0) {
+                    distinct++;
+                }
+                // 중복 키는 뒤에 추가된 엔트리가 슬롯을 덮어쓴다.
+                slots[slot] = index + 1;
+            }
+            if (distinct == size) {
+                return table;
+            }
+            // 중복 키는 고객 수(size)에 세지 않는다.
+            return new MigrationStatusTable(routeCount, compactKeys, compactOffsets, compactStatuses, slots,
+                table.wideKeys, distinct);
+        }
+    }
+
+    private CharSequence keyAt(int index) {
+        return new Latin1Sequence(keys, offsets[index], offsets[index + 1]);
+    }
+
+    private boolean sameKey(int left, int right) {
+        return Arrays.equals(keys, offsets[left], offsets[left + 1], keys, offsets[right], offsets[right + 1]);
+    }
+
+    /**
+     * 빌드 시 해시 계산용 Latin-1 바이트 뷰.
+     */
+    private static final class Latin1Sequence implements CharSequence {
+        private final byte[] bytes;
+        private final int from;
+        private final int to;
+
+        private Latin1Sequence(byte[] bytes, int from, int to) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public int length() {
+            return to - from;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[from + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new Latin1Sequence(bytes, from + start, from + end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, from, to - from, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
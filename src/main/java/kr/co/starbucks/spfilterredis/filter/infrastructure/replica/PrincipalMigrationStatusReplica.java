@@ -0,0 +1,309 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import kr.co.starbucks.spfilterredis.filter.config.PrincipalMigrationStatusRedisConfig;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.KeyspaceEvent;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.PrincipalMigrationStatusKeyspaceListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 마이그레이션 상태 키스페이스 전체를 각 노드 메모리에 복제하여 네트워크 I/O 없이 조회에 응답한다.<br>
+ * <p></p>
+ * * 적재: SCAN으로 키를 순회하며 HGETALL을 파이프라인으로 보내 {@link MigrationStatusTable}을 새로 빌드한 뒤 교체(Build-and-swap)한다.<br>
+ * * 증분 반영: Keyspace Notification으로 변경된 고객만 다시 읽어 델타(Overlay)에 반영한다. 델타는 다음 재적재 시 비워진다.<br>
+ * * 조회: volatile 스냅샷과 ConcurrentHashMap 델타만 읽으므로 재적재 중에도 락이 없다.<br>
+ * <p></p>
+ * 변경 이벤트를 하나라도 놓쳤을 수 있으면 {@link #canServe(String, String)}가 false를 반환하며 호출자는 레디스를 조회해야 한다.<br>
+ * * 첫 적재가 끝나기 전, Keyspace Notification을 사용하지 않을 때<br>
+ * * 구독이 끊겼거나, 다시 수립된 뒤 새로 시작한 재적재가 끝나기 전 ({@link PrincipalMigrationStatusKeyspaceListener#getListeningEpoch()})<br>
+ * * 변경 반영이 밀려 이벤트를 버렸거나 변경된 고객을 다시 읽지 못했을 때 (다음 재적재까지)
+ */
+@Slf4j
+@Component
+@ConditionalOnBean(PrincipalMigrationStatusRedisConfig.class)
+@ConditionalOnProperty(name = "spring.redis.principal-migration-status.replica.enabled", havingValue = "true")
+public class PrincipalMigrationStatusReplica {
+
+    private static final RouteId[] ROUTES = RouteId.values();
+
+    private static final Map<String, Integer> ROUTE_ORDINALS = new HashMap<>();
+
+    static {
+        for (RouteId routeId : ROUTES) {
+            ROUTE_ORDINALS.put(routeId.name(), routeId.ordinal());
+        }
+    }
+
+    // 적재 실패 시 재시도 대기 시간
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+    // 반영을 기다리는 변경 이벤트 상한. 넘치면 이벤트를 버리고 재적재한다.
+    private static final int MAX_PENDING_EVENTS = 10_000;
+
+    // 스냅샷이 없거나 이벤트를 놓쳤을 수 있음
+    private static final long STALE = -1;
+
+    private final ReactiveStringRedisTemplate template;
+
+    private final ReactiveHashOperations<String, String, String> hashOperations;
+
+    private final MigrationStatusReplicaProperties properties;
+
+    private final PrincipalMigrationStatusKeyspaceListener keyspaceListener;
+
+    private final StatusDictionary dictionary = new StatusDictionary();
+
+    private final Timer reloadTimer;
+
+    private final Object updateLock = new Object();
+
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    private volatile MigrationStatusTable table;
+
+    private volatile Map<String, byte[]> delta = new ConcurrentHashMap<>();
+
+    // 현재 스냅샷(과 델타)이 유효한 구독 구간. 구독 구간이 바뀌면 그 사이의 변경을 놓쳤을 수 있다.
+    private volatile long tableEpoch = STALE;
+
+    // 진행 중인 재적재를 시작한 구독 구간
+    private volatile long loadingEpoch = STALE;
+
+    // 재적재 중에 들어온 변경. 새 스냅샷에 반영되지 않았을 수 있으므로 교체 후 델타로 넘긴다. (updateLock)
+    private Map<String, byte[]> pendingDelta;
+
+    public PrincipalMigrationStatusReplica(
+        ReactiveStringRedisTemplate principalMigrationStatusRedisTemplate,
+        @Qualifier("principalMigrationStatusReplicaProperties") MigrationStatusReplicaProperties properties,
+        ObjectProvider<PrincipalMigrationStatusKeyspaceListener> keyspaceListener,
+        MeterRegistry meterRegistry
+    ) {
+        this.template = principalMigrationStatusRedisTemplate;
+        this.hashOperations = principalMigrationStatusRedisTemplate.opsForHash();
+        this.properties = properties;
+        this.keyspaceListener = keyspaceListener.getIfAvailable();
+
+        this.reloadTimer = Timer.builder("principal.migration.replica.reload")
+            .description("Time to bulk-load the migration status replica")
+            .register(meterRegistry);
+        Gauge.builder("principal.migration.replica.size", this, r -> r.table == null ? 0 : r.table.size())
+            .description("Customers in the current migration status snapshot")
+            .register(meterRegistry);
+        Gauge.builder("principal.migration.replica.delta", this, r -> r.delta.size())
+            .description("Customers updated since the current snapshot was built")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (keyspaceListener == null) {
+            log.error("[MigrationStatusReplica] Keyspace notifications are disabled, the replica cannot follow changes and is not used.");
+            return;
+        }
+        subscriptions.add(keyspaceListener.events()
+            .onBackpressureBuffer(MAX_PENDING_EVENTS, dropped -> onEventsDropped(), BufferOverflowStrategy.DROP_OLDEST)
+            .flatMapSequential(this::onKeyspaceEvent, properties.getLoadConcurrency())
+            .subscribe());
+
+        // 아직 구독 중이 아니면 구독이 수립될 때의 RESYNC가 첫 적재를 시작한다.
+        if (keyspaceListener.isListening()) {
+            reload();
+        }
+
+        Duration interval = properties.getReloadInterval();
+        if (interval != null && !interval.isZero() && !interval.isNegative()) {
+            subscriptions.add(Flux.interval(interval, interval).subscribe(t -> reload()));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * 복제본이 적재된 뒤의 변경을 빠짐없이 반영했고 해당 RouteId를 알고 있을 때만 true.
+     */
+    public boolean canServe(String customerId, String routeId) {
+        long epoch = tableEpoch;
+        return epoch != STALE && epoch == keyspaceListener.getListeningEpoch()
+            && customerId != null && ROUTE_ORDINALS.containsKey(routeId);
+    }
+
+    /**
+     * @return 상태 값, 없으면 null. {@link #canServe(String, String)}가 true일 때만 호출해야 한다.
+     */
+    public String getStatus(String customerId, String routeId) {
+        int route = ROUTE_ORDINALS.get(routeId);
+        byte[] overlay = delta.get(customerId);
+        byte code = overlay != null ? overlay[route] : table.code(customerId, route);
+        return dictionary.decode(code);
+    }
+
+    /**
+     * 전체 재적재를 시작한다. 이미 적재 중이면 끝난 뒤 한 번 더 적재한다.
+     */
+    public void reload() {
+        if (!reloading.compareAndSet(false, true)) {
+            reloadRequested.set(true);
+            return;
+        }
+        synchronized (updateLock) {
+            pendingDelta = new ConcurrentHashMap<>();
+        }
+        // 적재를 시작한 뒤의 변경은 pendingDelta로 들어오므로, 이 구간이 끝까지 이어지면 새 스냅샷은 유효하다.
+        long epoch = keyspaceListener.getListeningEpoch();
+        loadingEpoch = epoch;
+
+        long started = System.nanoTime();
+        MigrationStatusTable.Builder builder = MigrationStatusTable.builder(ROUTES.length);
+        template.scan(ScanOptions.scanOptions().count(properties.getScanCount()).build())
+            .flatMapSequential(key -> hashOperations.entries(key)
+                .collectList()
+                .map(entries -> Map.entry(key, encode(entries)))
+                // 해시가 아닌 키(WRONGTYPE)는 건너뛴다.
+                .onErrorResume(PrincipalMigrationStatusReplica::isWrongType, e -> Mono.empty()),
+                properties.getLoadConcurrency())
+            .filter(e -> !isAbsent(e.getValue()))
+            .doOnNext(e -> builder.add(e.getKey(), e.getValue()))
+            .then(Mono.fromCallable(builder::build))
+            .subscribe(
+                next -> swap(next, System.nanoTime() - started),
+                this::reloadFailed
+            );
+    }
+
+    private void swap(MigrationStatusTable next, long elapsedNanos) {
+        synchronized (updateLock) {
+            table = next;
+            delta = pendingDelta;
+            pendingDelta = null;
+            tableEpoch = loadingEpoch;
+            loadingEpoch = STALE;
+        }
+        reloadTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        log.info("[MigrationStatusReplica] Loaded {} customers in {} ms", next.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        reloadFinished();
+    }
+
+    private void reloadFailed(Throwable e) {
+        synchronized (updateLock) {
+            pendingDelta = null;
+            loadingEpoch = STALE;
+        }
+        log.error("[MigrationStatusReplica] Reload failed, keeping the previous snapshot.", e);
+        // 응답하지 못하는 동안에는 다음 주기를 기다리지 않고 다시 시도한다.
+        if (tableEpoch == STALE) {
+            reloadRequested.set(false);
+            subscriptions.add(Mono.delay(RETRY_DELAY).subscribe(t -> reload()));
+        }
+        reloadFinished();
+    }
+
+    private void reloadFinished() {
+        reloading.set(false);
+        if (reloadRequested.getAndSet(false)) {
+            reload();
+        }
+    }
+
+    private Mono<Void> onKeyspaceEvent(KeyspaceEvent event) {
+        if (event.isResync()) {
+            // 구독이 끊겨 있던 동안의 변경은 알 수 없으므로 전체 재적재.
+            // 지금 구독 구간에 시작한 적재가 있으면(e.g. 기동 시 첫 적재) 그 적재가 이미 모든 변경을 반영한다.
+            long epoch = keyspaceListener.getListeningEpoch();
+            if (epoch == STALE || (reloading.get() ? loadingEpoch : tableEpoch) != epoch) {
+                reload();
+            }
+            return Mono.empty();
+        }
+        return hashOperations.entries(event.getKey())
+            .collectList()
+            .doOnNext(entries -> applyUpdate(event.getKey(), encode(entries)))
+            .onErrorResume(e -> {
+                log.warn("[MigrationStatusReplica] Could not apply update of {}, reloading: {}", event.getKey(), e.toString());
+                invalidate();
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private void onEventsDropped() {
+        log.warn("[MigrationStatusReplica] More than {} pending updates, reloading.", MAX_PENDING_EVENTS);
+        invalidate();
+    }
+
+    /**
+     * 변경을 놓쳤으므로 다음 재적재가 끝날 때까지 응답하지 않는다.
+     */
+    private void invalidate() {
+        synchronized (updateLock) {
+            tableEpoch = STALE;
+            loadingEpoch = STALE;
+        }
+        reload();
+    }
+
+    private void applyUpdate(String customerId, byte[] codes) {
+        synchronized (updateLock) {
+            delta.put(customerId, codes);
+            if (pendingDelta != null) {
+                pendingDelta.put(customerId, codes);
+            }
+        }
+    }
+
+    private byte[] encode(List<Entry<String, String>> entries) {
+        byte[] codes = new byte[ROUTES.length];
+        for (Entry<String, String> entry : entries) {
+            Integer route = ROUTE_ORDINALS.get(entry.getKey());
+            if (route != null) {
+                codes[route] = dictionary.encode(entry.getValue());
+            }
+        }
+        return codes;
+    }
+
+    private static boolean isWrongType(Throwable e) {
+        return e.getMessage() != null && e.getMessage().startsWith("WRONGTYPE");
+    }
+
+    private static boolean isAbsent(byte[] codes) {
+        for (byte code : codes) {
+            if (code != StatusDictionary.ABSENT) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
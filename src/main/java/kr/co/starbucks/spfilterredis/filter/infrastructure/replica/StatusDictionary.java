@@ -0,0 +1,52 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.replica;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 마이그레이션 상태 문자열(e.g. ACTIVE, BLOCK)과 1바이트 코드 간 사전.<br>
+ * 코드 0은 "상태 없음"을 의미하며, 서로 다른 상태 값은 최대 255개까지 등록할 수 있다.
+ * 등록은 드물기 때문에 동기화하고, 조회는 락 없이 배열을 읽는다.
+ */
+final class StatusDictionary {
+
+    static final byte ABSENT = 0;
+
+    private static final int MAX_CODES = 255;
+
+    private final Map<String, Byte> codes = new ConcurrentHashMap<>();
+
+    private volatile String[] values = new String[1];
+
+    byte encode(String value) {
+        if (value == null) {
+            return ABSENT;
+        }
+        Byte code = codes.get(value);
+        return code != null ? code : register(value);
+    }
+
+    String decode(byte code) {
+        int index = code & 0xFF;
+        String[] current = values;
+        return index < current.length ? current[index] : null;
+    }
+
+    private synchronized byte register(String value) {
+        Byte code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        String[] current = values;
+        if (current.length > MAX_CODES) {
+            throw new IllegalStateException("Too many distinct migration status values: " + MAX_CODES);
+        }
+        String[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = value.intern();
+        byte newCode = (byte) current.length;
+        values = next;
+        codes.put(next[current.length], newCode);
+        return newCode;
+    }
+}
@@ -1,23 +1,314 @@
 package kr.co.starbucks.spfilterredis.filter.infrastructure.repositories;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
 import kr.co.starbucks.spfilterredis.filter.config.PrincipalMigrationStatusRedisConfig;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.batch.MigrationStatusBatchProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.batch.MigrationStatusBatcher;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.bloom.PrincipalMigrationStatusBloomFilter;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.cache.NearCacheProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.cache.ReactiveNearCache;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.KeyspaceEvent;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.PrincipalMigrationStatusKeyspaceListener;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.replica.PrincipalMigrationStatusReplica;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.AdaptiveConcurrencyLimiter;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.ConcurrencyLimitProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.Hedging;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.HedgingProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.SingleFlight;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.StageTimer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Repository;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+@Slf4j
 @Repository
 @ConditionalOnBean(PrincipalMigrationStatusRedisConfig.class)
 public class PrincipalMigrationStatusRedisReactiveRepository {
 
     private final ReactiveHashOperations<String, String, String> principalMigrationStatusRedisHashStringOperations;
 
-    public PrincipalMigrationStatusRedisReactiveRepository(ReactiveStringRedisTemplate principalMigrationStatusRedisTemplate) {
+    // 마이그레이션 상태 전체 복제본 (spring.redis.principal-migration-status.replica.enabled=true 일 때만 존재)
+    private final PrincipalMigrationStatusReplica replica;
+
+    // 레코드가 없는 고객을 걸러내는 Bloom Filter (spring.redis.principal-migration-status.bloom-filter.enabled=true 일 때만 존재)
+    private final PrincipalMigrationStatusBloomFilter bloomFilter;
+
+    // (CustomerId, RouteId) 기준 로컬 캐시 (spring.redis.principal-migration-status.near-cache.enabled=true 일 때만 생성)
+    private final ReactiveNearCache<StatusKey, String> nearCache;
+
+    // 같은 (CustomerId, RouteId)의 동시 조회를 하나로 합친다 (spring.redis.principal-migration-status.single-flight.enabled=false 이면 생성하지 않음)
+    private final SingleFlight<StatusKey, String> singleFlight;
+
+    // 같은 (CustomerId, RouteId 목록)의 동시 조회를 하나로 합친다 (singleFlight와 같은 조건으로 생성)
+    private final SingleFlight<List<StatusKey>, Map<StatusKey, String>> multiRouteSingleFlight;
+
+    // 여러 요청의 HGET을 모아 스크립트 한 번으로 조회 (spring.redis.principal-migration-status.batch.enabled=true 이고 standalone일 때만 생성)
+    private final MigrationStatusBatcher batcher;
+
+    // 느린 조회를 한 번 더 보내 먼저 온 응답을 사용 (spring.redis.principal-migration-status.hedging.enabled=true 일 때만 생성)
+    private final Hedging hedging;
+
+    // 헤지 요청 전용 커넥션의 해시 연산. 느린 조회와 같은 커넥션 뒤에 줄 서지 않는다. (hedging과 함께 생성)
+    private final ReactiveHashOperations<String, String, String> hedgeHashOperations;
+
+    // 레디스 조회 동시 실행 수 제한 (spring.redis.principal-migration-status.concurrency-limit.enabled=true 일 때만 생성)
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    // Keyspace Notification 기반 캐시 무효화 구독
+    private final Disposable invalidation;
+
+    // 마이그레이션 상태 조회 시간 ("request.filter.stage", stage=migration)
+    private final StageTimer lookupTimer;
+
+    public PrincipalMigrationStatusRedisReactiveRepository(
+        ReactiveStringRedisTemplate principalMigrationStatusRedisTemplate,
+        @Qualifier("principalMigrationStatusNearCacheProperties") NearCacheProperties nearCacheProperties,
+        @Qualifier("principalMigrationStatusBatchProperties") MigrationStatusBatchProperties batchProperties,
+        @Qualifier("principalMigrationStatusHedgingProperties") HedgingProperties hedgingProperties,
+        @Qualifier("principalMigrationStatusHedgeRedisConnectionFactory") ObjectProvider<ReactiveRedisConnectionFactory> hedgeConnectionFactory,
+        @Qualifier("principalMigrationStatusConcurrencyLimitProperties") ConcurrencyLimitProperties concurrencyLimitProperties,
+        ObjectProvider<PrincipalMigrationStatusKeyspaceListener> keyspaceListener,
+        ObjectProvider<PrincipalMigrationStatusReplica> replica,
+        ObjectProvider<PrincipalMigrationStatusBloomFilter> bloomFilter,
+        @Value("${spring.redis.principal-migration-status.single-flight.enabled:true}") boolean singleFlightEnabled,
+        MeterRegistry meterRegistry
+    ) {
         this.principalMigrationStatusRedisHashStringOperations = principalMigrationStatusRedisTemplate.opsForHash();
+        this.replica = replica.getIfAvailable();
+        this.bloomFilter = bloomFilter.getIfAvailable();
+        this.lookupTimer = new StageTimer("migration", meterRegistry);
+
+        if (singleFlightEnabled) {
+            this.singleFlight = new SingleFlight<>("principal-migration-status");
+            this.singleFlight.bindTo(meterRegistry);
+            this.multiRouteSingleFlight = new SingleFlight<>("principal-migration-status-routes");
+            this.multiRouteSingleFlight.bindTo(meterRegistry);
+        } else {
+            this.singleFlight = null;
+            this.multiRouteSingleFlight = null;
+        }
+
+        if (batchProperties.isEnabled() && !MigrationStatusBatcher.supports(principalMigrationStatusRedisTemplate)) {
+            // 클러스터는 커넥션별로 HGET을 파이프라이닝하며 ReadFrom에 따라 레플리카에서도 읽는다.
+            log.warn("[PrincipalMigrationStatus] Batching is not supported in cluster mode, batch.enabled is ignored.");
+            this.batcher = null;
+        } else if (batchProperties.isEnabled()) {
+            this.batcher = new MigrationStatusBatcher(principalMigrationStatusRedisTemplate, batchProperties);
+            this.batcher.bindTo(meterRegistry);
+        } else {
+            this.batcher = null;
+        }
+
+        ReactiveRedisConnectionFactory hedgeFactory = hedgingProperties.isEnabled() ? hedgeConnectionFactory.getIfAvailable() : null;
+        if (hedgeFactory != null) {
+            this.hedging = new Hedging("principal-migration-status", hedgingProperties);
+            this.hedging.bindTo(meterRegistry);
+            this.hedgeHashOperations = new ReactiveStringRedisTemplate(hedgeFactory).opsForHash();
+        } else {
+            if (hedgingProperties.isEnabled()) {
+                // 같은 커넥션으로 보낸 헤지 요청은 느린 조회를 앞지를 수 없다.
+                log.warn("[PrincipalMigrationStatus] No separate connection for hedged requests, hedging is disabled.");
+            }
+            this.hedging = null;
+            this.hedgeHashOperations = null;
+        }
+
+        if (concurrencyLimitProperties.isEnabled()) {
+            this.limiter = new AdaptiveConcurrencyLimiter("principal-migration-status", concurrencyLimitProperties);
+            this.limiter.bindTo(meterRegistry);
+        } else {
+            this.limiter = null;
+        }
+
+        if (!nearCacheProperties.isEnabled()) {
+            this.nearCache = null;
+            this.invalidation = null;
+            return;
+        }
+
+        this.nearCache = new ReactiveNearCache<>("principal-migration-status", nearCacheProperties,
+            this::fetchPrincipalMigrationStatus);
+        this.nearCache.bindTo(meterRegistry);
+
+        PrincipalMigrationStatusKeyspaceListener listener = keyspaceListener.getIfAvailable();
+        if (listener == null) {
+            log.warn("[PrincipalMigrationStatus] Keyspace notifications are disabled, near-cache relies on ttl only.");
+            this.invalidation = null;
+        } else {
+            this.invalidation = listener.events().subscribe(this::invalidate);
+        }
     }
 
     public Mono<String> getPrincipalMigrationStatus(String customerId, String routeId) {
-        return principalMigrationStatusRedisHashStringOperations.get(customerId, routeId);
+        // 복제본이 적재되어 있으면 네트워크 I/O 없이 응답
+        if (replica != null && replica.canServe(customerId, routeId)) {
+            return Mono.justOrEmpty(replica.getStatus(customerId, routeId));
+        }
+        // 레코드가 확실히 없는 고객이면 조회 생략 (미발견)
+        if (bloomFilter != null && !bloomFilter.mightContain(customerId)) {
+            return Mono.empty();
+        }
+        StatusKey key = new StatusKey(customerId, routeId);
+        if (nearCache != null) {
+            return nearCache.get(key);
+        }
+        return fetchPrincipalMigrationStatus(key);
+    }
+
+    /**
+     * 여러 라우트의 상태를 함께 조회한다. 레디스에는 고객당 HMGET 한 번만 보낸다. (near-cache에 있는 라우트는 제외)
+     *
+     * @return RouteId -> 상태. 상태가 없는 라우트는 포함하지 않는다.
+     */
+    public Mono<Map<String, String>> getPrincipalMigrationStatuses(String customerId, List<String> routeIds) {
+        return lookupTimer.time(lookupPrincipalMigrationStatuses(customerId, routeIds));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (invalidation != null) {
+            invalidation.dispose();
+        }
+    }
+
+    private Mono<Map<String, String>> lookupPrincipalMigrationStatuses(String customerId, List<String> routeIds) {
+        if (routeIds.size() == 1) {
+            String routeId = routeIds.get(0);
+            return getPrincipalMigrationStatus(customerId, routeId)
+                .map(status -> Map.of(routeId, status))
+                .defaultIfEmpty(Map.of());
+        }
+        // 복제본이 적재되어 있으면 네트워크 I/O 없이 응답
+        if (replica != null && routeIds.stream().allMatch(routeId -> replica.canServe(customerId, routeId))) {
+            Map<String, String> statuses = new HashMap<>(routeIds.size() * 2);
+            for (String routeId : routeIds) {
+                String status = replica.getStatus(customerId, routeId);
+                if (status != null) {
+                    statuses.put(routeId, status);
+                }
+            }
+            return Mono.just(statuses);
+        }
+        // 레코드가 확실히 없는 고객이면 조회 생략 (미발견)
+        if (bloomFilter != null && !bloomFilter.mightContain(customerId)) {
+            return Mono.just(Map.of());
+        }
+        List<StatusKey> keys = routeIds.stream()
+            .map(routeId -> new StatusKey(customerId, routeId))
+            .collect(Collectors.toList());
+        Mono<Map<StatusKey, String>> found = nearCache != null
+            ? nearCache.getAll(keys, this::fetchPrincipalMigrationStatuses)
+            : fetchPrincipalMigrationStatuses(keys);
+        return found.map(statuses -> {
+            Map<String, String> byRoute = new HashMap<>(statuses.size() * 2);
+            statuses.forEach((key, status) -> byRoute.put(key.getRouteId(), status));
+            return byRoute;
+        });
+    }
+
+    private Mono<String> fetchPrincipalMigrationStatus(StatusKey key) {
+        if (singleFlight != null) {
+            return singleFlight.execute(key, () -> hgetPrincipalMigrationStatus(key));
+        }
+        return hgetPrincipalMigrationStatus(key);
+    }
+
+    private Mono<String> hgetPrincipalMigrationStatus(StatusKey key) {
+        // 헤지 요청은 배치를 기다리지 않고 헤지 전용 커넥션으로 바로 보낸다.
+        return execute(() -> hget(key),
+            () -> hedgeHashOperations.get(key.getCustomerId(), key.getRouteId()));
+    }
+
+    /**
+     * @param keys 모두 같은 CustomerId
+     */
+    private Mono<Map<StatusKey, String>> fetchPrincipalMigrationStatuses(List<StatusKey> keys) {
+        if (multiRouteSingleFlight != null) {
+            return multiRouteSingleFlight.execute(keys, () -> hmgetPrincipalMigrationStatuses(keys));
+        }
+        return hmgetPrincipalMigrationStatuses(keys);
+    }
+
+    private Mono<Map<StatusKey, String>> hmgetPrincipalMigrationStatuses(List<StatusKey> keys) {
+        return execute(() -> hmget(keys), () -> multiGet(hedgeHashOperations, keys));
+    }
+
+    /**
+     * 동시 실행 수 제한과 헤징을 적용한다.
+     *
+     * @param backup 헤지 요청
+     */
+    private <T> Mono<T> execute(Supplier<Mono<T>> primary, Supplier<Mono<T>> backup) {
+        Supplier<Mono<T>> lookup = hedging != null ? () -> hedging.execute(primary, backup) : primary;
+        if (limiter != null) {
+            // 한도를 넘으면 LimitExceededException (near-cache가 있으면 기존 값이 유지된다)
+            return limiter.execute(lookup);
+        }
+        return lookup.get();
+    }
+
+    private Mono<String> hget(StatusKey key) {
+        if (batcher != null) {
+            return batcher.get(key.getCustomerId(), key.getRouteId());
+        }
+        return principalMigrationStatusRedisHashStringOperations.get(key.getCustomerId(), key.getRouteId());
+    }
+
+    private Mono<Map<StatusKey, String>> hmget(List<StatusKey> keys) {
+        if (batcher != null) {
+            // 같은 윈도우에 들어가므로 배치 스크립트 한 번으로 함께 조회된다.
+            return Flux.fromIterable(keys)
+                .flatMap(key -> batcher.get(key.getCustomerId(), key.getRouteId()).map(status -> Map.entry(key, status)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+        }
+        return multiGet(principalMigrationStatusRedisHashStringOperations, keys);
+    }
+
+    private static Mono<Map<StatusKey, String>> multiGet(ReactiveHashOperations<String, String, String> operations, List<StatusKey> keys) {
+        List<String> routeIds = keys.stream().map(StatusKey::getRouteId).collect(Collectors.toList());
+        return operations.multiGet(keys.get(0).getCustomerId(), routeIds)
+            .map(statuses -> {
+                // 없는 필드는 null
+                Map<StatusKey, String> found = new HashMap<>(keys.size() * 2);
+                for (int i = 0; i < keys.size(); i++) {
+                    if (statuses.get(i) != null) {
+                        found.put(keys.get(i), statuses.get(i));
+                    }
+                }
+                return found;
+            });
+    }
+
+    private void invalidate(KeyspaceEvent event) {
+        if (event.isResync()) {
+            // 구독이 끊겨 있던 동안의 변경은 알 수 없으므로 전체 무효화
+            nearCache.invalidateAll();
+            return;
+        }
+        for (RouteId routeId : RouteId.values()) {
+            nearCache.invalidate(new StatusKey(event.getKey(), routeId.name()));
+        }
+    }
+
+    @lombok.Value
+    private static class StatusKey {
+        String customerId;
+        String routeId;
     }
 }
@@ -0,0 +1,176 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.repositories;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import kr.co.starbucks.spfilterredis.filter.config.PrincipalMigrationStatusRedisConfig;
+import kr.co.starbucks.spfilterredis.filter.config.PrincipalSessionRedisConfig;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.StageTimer;
+import kr.co.starbucks.spfilterredis.filter.model.Principal;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * 세션 레디스와 마이그레이션 상태 레디스가 같은 서버를 가리킬 때(e.g. local 프로파일),
+ * 세션 -> CustomerId -> 마이그레이션 상태 조회를 Lua 스크립트 한 번으로 처리한다.<br>
+ * <p></p>
+ * * 스크립트는 EVALSHA로 실행하고, 서버에 캐시되어 있지 않으면(NOSCRIPT) EVAL로 적재하며 실행한다.<br>
+ * * 세션 값은 JDK 직렬화된 HashMap이므로 스크립트가 바이트 패턴으로 sckMbbrNo를 찾는다.
+ * 해석할 수 없는 형태이면 {@link ScriptResult#isReadable()}가 false이며 호출자는 일반 경로로 다시 조회해야 한다.
+ * sckMbbrNo가 없는 세션(e.g. 비회원)은 해석 실패가 아니며 {@link ScriptResult#getSckMbbrNo()}가 null이다.<br>
+ * * 해석 실패가 연속으로 {@value #MAX_CONSECUTIVE_UNREADABLE}번 발생하면 이중 조회를 피하기 위해
+ * ${spring.redis.principal-route-script.unreadable-cool-down} 동안 스스로 비활성화한 뒤 다시 시도한다.
+ */
+@Slf4j
+@Repository
+@ConditionalOnBean({PrincipalSessionRedisConfig.class, PrincipalMigrationStatusRedisConfig.class})
+@ConditionalOnProperty(name = "spring.redis.principal-route-script.enabled", havingValue = "true")
+public class PrincipalRouteStatusScriptRepository {
+
+    private static final int MAX_CONSECUTIVE_UNREADABLE = 100;
+
+    private static final RedisScript<String> ROUTE_STATUS_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/principal-route-status.lua"), String.class);
+
+    private final ReactiveStringRedisTemplate template;
+
+    private final AtomicInteger consecutiveUnreadable = new AtomicInteger();
+
+    // 세션 레디스와 마이그레이션 상태 레디스가 같은 standalone 서버인지 여부
+    private final boolean supported;
+
+    // 해석 실패가 이어져 비활성화한 뒤 다시 시도할 시각 (System.nanoTime)
+    private volatile long disabledUntil;
+
+    private final Duration unreadableCoolDown;
+
+    // 스크립트 조회 시간 ("request.filter.stage", stage=script)
+    private final StageTimer lookupTimer;
+
+    public PrincipalRouteStatusScriptRepository(
+        @Qualifier("principalSessionRedisConnectionFactory") ReactiveRedisConnectionFactory principalSessionRedisConnectionFactory,
+        ReactiveRedisConnectionFactory principalMigrationStatusRedisConnectionFactory,
+        @Value("${spring.redis.principal-session.host}") String principalSessionRedisHost,
+        @Value("${spring.redis.principal-session.port}") int principalSessionRedisPort,
+        @Value("${spring.redis.principal-migration-status.host}") String principalMigrationStatusRedisHost,
+        @Value("${spring.redis.principal-migration-status.port}") int principalMigrationStatusRedisPort,
+        @Value("${spring.redis.principal-route-script.unreadable-cool-down:1m}") Duration unreadableCoolDown,
+        MeterRegistry meterRegistry
+    ) {
+        this.template = new ReactiveStringRedisTemplate(principalSessionRedisConnectionFactory);
+        this.lookupTimer = new StageTimer("script", meterRegistry);
+        this.unreadableCoolDown = unreadableCoolDown;
+        this.disabledUntil = System.nanoTime();
+
+        boolean sameServer = Objects.equals(principalSessionRedisHost, principalMigrationStatusRedisHost)
+            && principalSessionRedisPort == principalMigrationStatusRedisPort;
+        boolean cluster = principalMigrationStatusRedisConnectionFactory instanceof LettuceConnectionFactory
+            && ((LettuceConnectionFactory) principalMigrationStatusRedisConnectionFactory).isClusterAware();
+        this.supported = sameServer && !cluster;
+        if (!supported) {
+            log.warn("[RouteStatusScript] Session and migration status redis are not the same standalone server, "
+                + "script mode is disabled.");
+        }
+    }
+
+    /**
+     * 스크립트 모드를 사용할 수 있는지 여부. 서버 구성이 맞지 않거나, 세션 값을 해석할 수 없어 비활성화한 동안에는 false.
+     */
+    public boolean isAvailable() {
+        return supported && System.nanoTime() - disabledUntil >= 0;
+    }
+
+    /**
+     * @return 세션이나 마이그레이션 상태가 없으면 empty
+     */
+    public Mono<ScriptResult> getPrincipalMigrationStatus(String sessionId, String routeId) {
+        List<String> args = List.of(routeId,
+            PrincipalSessionRedisReactiveRepository.MEMBER_SESSION_KEY,
+            PrincipalSessionRedisReactiveRepository.GUEST_SESSION_KEY,
+            StaticValues.SCK_MBBR_NO,
+            PrincipalSessionRedisReactiveRepository.USER_TYPE_KEY,
+            StaticValues.USER_TYPE);
+        return lookupTimer.time(template.execute(ROUTE_STATUS_SCRIPT, List.of(sessionId), args).next())
+            .flatMap(reply -> Mono.justOrEmpty(parse(reply)));
+    }
+
+    private ScriptResult parse(String reply) {
+        String[] parts = reply.split("\n", 5);
+        switch (parts[0]) {
+            case "FOUND":
+                consecutiveUnreadable.set(0);
+                return ScriptResult.found("M".equals(parts[1]), parts[2], parts[3], parts[4].isEmpty() ? null : parts[4]);
+            case "NOCUSTOMER":
+                consecutiveUnreadable.set(0);
+                return ScriptResult.noCustomer("M".equals(parts[1]), parts[2].isEmpty() ? null : parts[2]);
+            case "NOSTATUS":
+            case "NOSESSION":
+                consecutiveUnreadable.set(0);
+                return null;
+            default:
+                // 한 번만 비활성화하도록 정확히 한도에 도달한 호출만 처리한다.
+                if (consecutiveUnreadable.incrementAndGet() == MAX_CONSECUTIVE_UNREADABLE) {
+                    consecutiveUnreadable.set(0);
+                    disabledUntil = System.nanoTime() + unreadableCoolDown.toNanos();
+                    log.warn("[RouteStatusScript] Session values are not readable by the script, script mode is disabled for {}.",
+                        unreadableCoolDown);
+                }
+                return ScriptResult.UNREADABLE;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class ScriptResult {
+        private static final ScriptResult UNREADABLE = new ScriptResult(false, false, null, null, null);
+
+        private final boolean readable;
+
+        // LoginUserInfo(회원) 세션이면 true
+        private final boolean member;
+
+        // 세션에 CustomerId가 없으면(e.g. 비회원) null
+        private final String sckMbbrNo;
+
+        private final String userType;
+
+        private final String userStatus;
+
+        private static ScriptResult found(boolean member, String sckMbbrNo, String userStatus, String userType) {
+            return new ScriptResult(true, member, sckMbbrNo, userType, userStatus);
+        }
+
+        private static ScriptResult noCustomer(boolean member, String userType) {
+            return new ScriptResult(true, member, null, userType, null);
+        }
+
+        /**
+         * @param routeId 조회한 RouteId ({@link #getPrincipalMigrationStatus(String, String)}의 routeId)
+         * @return CustomerId가 없으면 마이그레이션 상태도 없는 Principal
+         */
+        public Principal toPrincipal(String routeId) {
+            return Principal.builder()
+                .sckMbbrNo(sckMbbrNo)
+                .userType(userType)
+                .routeStatuses(sckMbbrNo == null ? null : Map.of(routeId, userStatus))
+                .build();
+        }
+    }
+}
@@ -1,40 +1,188 @@
 package kr.co.starbucks.spfilterredis.filter.infrastructure.repositories;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
 import kr.co.starbucks.spfilterredis.filter.config.PrincipalSessionRedisConfig;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.cache.NearCacheProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.cache.ReactiveNearCache;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.connection.StripedReactiveRedisTemplate;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.AdaptiveConcurrencyLimiter;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.ConcurrencyLimitProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.Hedging;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.HedgingProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.SingleFlight;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.StageTimer;
+import kr.co.starbucks.spfilterredis.filter.model.PrincipalSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.data.redis.core.ReactiveHashOperations;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 
+@Slf4j
 @Repository
 @ConditionalOnBean(PrincipalSessionRedisConfig.class)
 public class PrincipalSessionRedisReactiveRepository {
 
-    private static final String MEMBER_SESSION_KEY = "LoginUserInfo";
-    private static final String GUEST_SESSION_KEY = "LoginAppId";
-    private static final String USER_TYPE_KEY = "UserType";
+    static final String MEMBER_SESSION_KEY = "LoginUserInfo";
+    static final String GUEST_SESSION_KEY = "LoginAppId";
+    static final String USER_TYPE_KEY = "UserType";
 
-    private final ReactiveHashOperations<String, Object, Map<String, String>> hashMapOperations;
+    // 회원, 비회원, 사용자 유형을 HMGET 한 번으로 조회
+    private static final List<Object> SESSION_KEYS = List.of(MEMBER_SESSION_KEY, GUEST_SESSION_KEY, USER_TYPE_KEY);
 
-    private final ReactiveHashOperations<String, Object, String> hashStringOperations;
+    // 커넥션(스트라이프)별 해시 연산. 세션 ID의 해시로 고른다. (spring.redis.principal-session.connection.mode)
+    private final StripedReactiveRedisTemplate<String, Object> templates;
+
+    private final List<ReactiveHashOperations<String, Object, Object>> hashOperations;
+
+    // 세션 ID 기준 로컬 캐시 (spring.redis.principal-session.near-cache.enabled=true 일 때만 생성)
+    private final ReactiveNearCache<String, PrincipalSession> nearCache;
+
+    // 같은 세션 ID의 동시 조회를 하나로 합친다 (spring.redis.principal-session.single-flight.enabled=false 이면 생성하지 않음)
+    private final SingleFlight<String, PrincipalSession> singleFlight;
+
+    // 느린 조회를 한 번 더 보내 먼저 온 응답을 사용 (spring.redis.principal-session.hedging.enabled=true 일 때만 생성)
+    private final Hedging hedging;
+
+    // 헤지 요청 전용 커넥션의 해시 연산. 느린 조회와 같은 커넥션 뒤에 줄 서지 않는다. (hedging과 함께 생성)
+    private final ReactiveHashOperations<String, Object, Object> hedgeHashOperations;
+
+    // 레디스 조회 동시 실행 수 제한 (spring.redis.principal-session.concurrency-limit.enabled=true 일 때만 생성)
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    // 세션 조회 시간 ("request.filter.stage", stage=session)
+    private final StageTimer lookupTimer;
 
     public PrincipalSessionRedisReactiveRepository(
-        @Qualifier("principalSessionRedisHashTemplate") ReactiveRedisTemplate<String, Object> sessionPrincipalTemplate
+        @Qualifier("principalSessionRedisHashTemplates") StripedReactiveRedisTemplate<String, Object> sessionPrincipalTemplates,
+        @Qualifier("principalSessionNearCacheProperties") NearCacheProperties nearCacheProperties,
+        @Qualifier("principalSessionHedgingProperties") HedgingProperties hedgingProperties,
+        @Qualifier("principalSessionRedisHedgeHashTemplate") ObjectProvider<ReactiveRedisTemplate<String, Object>> hedgeTemplate,
+        @Qualifier("principalSessionConcurrencyLimitProperties") ConcurrencyLimitProperties concurrencyLimitProperties,
+        @Value("${spring.redis.principal-session.single-flight.enabled:true}") boolean singleFlightEnabled,
+        MeterRegistry meterRegistry
     ) {
-        this.hashMapOperations = sessionPrincipalTemplate.opsForHash();
-        this.hashStringOperations = sessionPrincipalTemplate.opsForHash();
+        this.templates = sessionPrincipalTemplates;
+        this.hashOperations = sessionPrincipalTemplates.getTemplates().stream()
+            .map(ReactiveRedisTemplate::<Object, Object>opsForHash)
+            .collect(Collectors.toUnmodifiableList());
+        this.lookupTimer = new StageTimer("session", meterRegistry);
+
+        if (singleFlightEnabled) {
+            this.singleFlight = new SingleFlight<>("principal-session");
+            this.singleFlight.bindTo(meterRegistry);
+        } else {
+            this.singleFlight = null;
+        }
+
+        ReactiveRedisTemplate<String, Object> hedgeHashTemplate = hedgingProperties.isEnabled() ? hedgeTemplate.getIfAvailable() : null;
+        if (hedgeHashTemplate != null) {
+            this.hedging = new Hedging("principal-session", hedgingProperties);
+            this.hedging.bindTo(meterRegistry);
+            this.hedgeHashOperations = hedgeHashTemplate.opsForHash();
+        } else {
+            if (hedgingProperties.isEnabled()) {
+                // 같은 커넥션으로 보낸 헤지 요청은 느린 조회를 앞지를 수 없다.
+                log.warn("[PrincipalSession] No separate connection for hedged requests, hedging is disabled.");
+            }
+            this.hedging = null;
+            this.hedgeHashOperations = null;
+        }
+
+        if (concurrencyLimitProperties.isEnabled()) {
+            this.limiter = new AdaptiveConcurrencyLimiter("principal-session", concurrencyLimitProperties);
+            this.limiter.bindTo(meterRegistry);
+        } else {
+            this.limiter = null;
+        }
+
+        if (nearCacheProperties.isEnabled()) {
+            this.nearCache = new ReactiveNearCache<>("principal-session", nearCacheProperties, this::fetchPrincipalSession);
+            this.nearCache.bindTo(meterRegistry);
+        } else {
+            this.nearCache = null;
+        }
     }
 
-    public Mono<Map<String, String>> getPrincipalSession(String sessionId) {
-        return hashMapOperations.get(sessionId, MEMBER_SESSION_KEY)    // 회원 조회
-            .switchIfEmpty(hashMapOperations.get(sessionId, GUEST_SESSION_KEY));    // 비회원 조회
+    /**
+     * 회원(LoginUserInfo) 혹은 비회원(LoginAppId) 세션과 UserType을 조회한다.
+     */
+    public Mono<PrincipalSession> getPrincipalSession(String sessionId) {
+        if (nearCache != null) {
+            return lookupTimer.time(nearCache.get(sessionId));
+        }
+        return lookupTimer.time(fetchPrincipalSession(sessionId));
     }
 
+    /**
+     * {@link #getPrincipalSession(String)}과 같은 응답(혹은 캐시)에서 UserType을 꺼낸다.
+     */
     public Mono<String> getUserType(String sessionId) {
-        return hashStringOperations.get(sessionId, MEMBER_SESSION_KEY)   // 회원 조회
-            .switchIfEmpty(hashStringOperations.get(sessionId, GUEST_SESSION_KEY));  // 비회원 조회
+        return getPrincipalSession(sessionId)
+            .mapNotNull(PrincipalSession::getUserType);
+    }
+
+    private Mono<PrincipalSession> fetchPrincipalSession(String sessionId) {
+        if (singleFlight != null) {
+            return singleFlight.execute(sessionId, () -> multiGetPrincipalSession(sessionId));
+        }
+        return multiGetPrincipalSession(sessionId);
+    }
+
+    private Mono<PrincipalSession> multiGetPrincipalSession(String sessionId) {
+        if (limiter != null) {
+            // 한도를 넘으면 LimitExceededException (near-cache가 있으면 기존 값이 유지된다)
+            return limiter.execute(() -> hedgedMultiGetPrincipalSession(sessionId));
+        }
+        return hedgedMultiGetPrincipalSession(sessionId);
+    }
+
+    private Mono<PrincipalSession> hedgedMultiGetPrincipalSession(String sessionId) {
+        ReactiveHashOperations<String, Object, Object> operations = hashOperations.get(templates.indexOf(sessionId));
+        if (hedging != null) {
+            // 헤지 요청은 헤지 전용 커넥션으로 보낸다.
+            return hedging.execute(() -> multiGetPrincipalSession(operations, sessionId),
+                () -> multiGetPrincipalSession(hedgeHashOperations, sessionId));
+        }
+        return multiGetPrincipalSession(operations, sessionId);
+    }
+
+    private static Mono<PrincipalSession> multiGetPrincipalSession(ReactiveHashOperations<String, Object, Object> operations,
+        String sessionId) {
+        return operations.multiGet(sessionId, SESSION_KEYS)
+            .mapNotNull(PrincipalSessionRedisReactiveRepository::toPrincipalSession);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PrincipalSession toPrincipalSession(List<Object> values) {
+        Object member = values.get(0);    // 회원
+        Object guest = values.get(1);     // 비회원
+        Object userType = values.get(2);
+
+        Map<String, String> attributes = null;
+        if (member instanceof Map) {
+            attributes = (Map<String, String>) member;
+        } else if (guest instanceof Map) {
+            attributes = (Map<String, String>) guest;
+        }
+        if (attributes == null && userType == null) {
+            return null;
+        }
+        if (userType == null && attributes != null) {
+            userType = attributes.get(StaticValues.USER_TYPE);
+        }
+        return PrincipalSession.builder()
+            .attributes(attributes)
+            .member(member instanceof Map)
+            .userType(userType == null ? null : userType.toString())
+            .build();
     }
 }
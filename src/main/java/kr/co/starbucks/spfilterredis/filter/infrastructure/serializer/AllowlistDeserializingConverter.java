@@ -0,0 +1,40 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.util.List;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * 허용 목록에 있는 클래스만 역직렬화하는 JDK 역직렬화 Converter.<br>
+ * 허용 목록은 {@link ObjectInputFilter.Config#createFilter(String)} 패턴(e.g. "java.util.HashMap", "java.lang.*")이며,
+ * 목록에 없는 클래스는 {@link java.io.InvalidClassException}("REJECTED")으로 거부된다.
+ */
+public class AllowlistDeserializingConverter implements Converter<byte[], Object> {
+
+    private final ObjectInputFilter filter;
+
+    private final ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+    public AllowlistDeserializingConverter(List<String> allowedClasses) {
+        Assert.notEmpty(allowedClasses, "역직렬화 허용 클래스가 존재하지 않습니다");
+        // 허용 목록 이외는 모두 거부
+        this.filter = ObjectInputFilter.Config.createFilter(String.join(";", allowedClasses) + ";!*");
+    }
+
+    @Override
+    public Object convert(byte[] source) {
+        try (ObjectInputStream in = new ConfigurableObjectInputStream(new ByteArrayInputStream(source), classLoader)) {
+            in.setObjectInputFilter(filter);
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new SerializationFailedException("Failed to deserialize payload with allowlist " + filter, e);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.serializer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDK 직렬화 스트림을 ObjectInputStream 없이 ByteBuffer에서 직접 읽는다.<br>
+ * <p></p>
+ * * 지원 형태: 최상위 String, HashMap&lt;String, String&gt;, Map.of(...)로 만든 불변 Map(java.util.CollSer).<br>
+ * * Map은 요청한 키의 값만 String으로 만들고 나머지 엔트리는 건너뛴다. 키 비교는 바이트 단위로 한다.<br>
+ * * 그 외 클래스 디스크립터, String이 아닌 값 등 예상과 다른 형태를 만나면 {@link #UNSUPPORTED}를 반환하며
+ * 호출자는 JDK 역직렬화로 다시 읽어야 한다.
+ *
+ * @see java.io.ObjectStreamConstants
+ */
+final class JdkStringMapStreamDecoder {
+
+    /**
+     * 이 디코더로 읽을 수 없는 형태. (null은 "값 없음"이므로 구분한다)
+     */
+    static final Object UNSUPPORTED = new Object();
+
+    private static final short STREAM_MAGIC = (short) 0xaced;
+    private static final short STREAM_VERSION = 5;
+
+    private static final byte TC_NULL = 0x70;
+    private static final byte TC_REFERENCE = 0x71;
+    private static final byte TC_CLASSDESC = 0x72;
+    private static final byte TC_OBJECT = 0x73;
+    private static final byte TC_STRING = 0x74;
+    private static final byte TC_BLOCKDATA = 0x77;
+    private static final byte TC_ENDBLOCKDATA = 0x78;
+    private static final byte TC_LONGSTRING = 0x7c;
+
+    private static final int BASE_WIRE_HANDLE = 0x7e0000;
+
+    private static final int NULL_HANDLE = -1;
+    private static final int UNSUPPORTED_HANDLE = -2;
+
+    // SC_WRITE_METHOD | SC_SERIALIZABLE
+    private static final byte MAP_CLASS_FLAGS = 0x03;
+
+    private static final byte[] HASH_MAP_CLASS = ascii("java.util.HashMap");
+    private static final long HASH_MAP_SUID = 362498820763181265L;
+    private static final byte[] LOAD_FACTOR_FIELD = ascii("loadFactor");
+    private static final byte[] THRESHOLD_FIELD = ascii("threshold");
+
+    private static final byte[] COLL_SER_CLASS = ascii("java.util.CollSer");
+    private static final long COLL_SER_SUID = 6309168927139932177L;
+    private static final byte[] TAG_FIELD = ascii("tag");
+    private static final int COLL_SER_IMMUTABLE_MAP = 3;
+
+    private final String[] keys;
+
+    private final byte[][] asciiKeys;
+
+    JdkStringMapStreamDecoder(String[] keys) {
+        this.keys = keys.clone();
+        this.asciiKeys = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            asciiKeys[i] = isAscii(keys[i]) ? ascii(keys[i]) : null;
+        }
+    }
+
+    /**
+     * @return String, 요청한 키만 담은 Map, null(빈 값 혹은 TC_NULL) 또는 {@link #UNSUPPORTED}
+     */
+    Object decode(ByteBuffer buffer) {
+        if (buffer == null || !buffer.hasRemaining()) {
+            return null;
+        }
+        try {
+            return new Cursor(buffer).readTopLevel();
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            // 잘렸거나 깨진 스트림. JDK 경로에서 원인이 담긴 예외가 발생한다.
+            return UNSUPPORTED;
+        }
+    }
+
+    private final class Cursor {
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int position;
+
+        // 핸들 번호(0부터) -> String 시작 위치(길이 필드 다음)와 바이트 길이. String이 아닌 핸들은 -1.
+        private int[] handleOffsets = new int[16];
+        private int[] handleLengths = new int[16];
+        private int handleCount;
+
+        private Cursor(ByteBuffer buffer) {
+            this.buffer = buffer.order() == ByteOrder.BIG_ENDIAN ? buffer : buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+            this.position = buffer.position();
+            this.limit = buffer.limit();
+        }
+
+        private Object readTopLevel() {
+            if (readShort() != STREAM_MAGIC || readShort() != STREAM_VERSION) {
+                return UNSUPPORTED;
+            }
+            byte tc = readByte();
+            switch (tc) {
+                case TC_NULL:
+                    return null;
+                case TC_STRING:
+                case TC_LONGSTRING:
+                    int handle = newString(tc);
+                    return decodeString(handleOffsets[handle], handleLengths[handle]);
+                case TC_OBJECT:
+                    return readMap();
+                default:
+                    return UNSUPPORTED;
+            }
+        }
+
+        private Object readMap() {
+            if (readByte() != TC_CLASSDESC) {
+                return UNSUPPORTED;
+            }
+            int nameLength = readUnsignedShort();
+            boolean hashMap = matches(position, nameLength, HASH_MAP_CLASS);
+            boolean collSer = !hashMap && matches(position, nameLength, COLL_SER_CLASS);
+            position += nameLength;
+            long suid = readLong();
+            if (!(hashMap && suid == HASH_MAP_SUID) && !(collSer && suid == COLL_SER_SUID)) {
+                return UNSUPPORTED;
+            }
+            newHandle();    // class descriptor
+            if (readByte() != MAP_CLASS_FLAGS) {
+                return UNSUPPORTED;
+            }
+
+            boolean fieldsMatch = hashMap
+                ? readUnsignedShort() == 2 && readPrimitiveField('F', LOAD_FACTOR_FIELD) && readPrimitiveField('I', THRESHOLD_FIELD)
+                : readUnsignedShort() == 1 && readPrimitiveField('I', TAG_FIELD);
+            // class annotation 없음, 상위 클래스 없음
+            if (!fieldsMatch || readByte() != TC_ENDBLOCKDATA || readByte() != TC_NULL) {
+                return UNSUPPORTED;
+            }
+            newHandle();    // object
+
+            int size;
+            if (hashMap) {
+                position += 8;  // loadFactor, threshold
+                if (readByte() != TC_BLOCKDATA || readByte() != 8) {
+                    return UNSUPPORTED;
+                }
+                readInt();      // buckets
+                size = readInt();
+            } else {
+                if ((readInt() & 0xff) != COLL_SER_IMMUTABLE_MAP || readByte() != TC_BLOCKDATA || readByte() != 4) {
+                    return UNSUPPORTED;
+                }
+                size = readInt() / 2;   // [k1, v1, k2, v2, ...]
+            }
+            if (size < 0) {
+                return UNSUPPORTED;
+            }
+
+            Map<String, String> projected = new HashMap<>(keys.length * 2);
+            for (int i = 0; i < size; i++) {
+                int key = readStringHandle();
+                int value = readStringHandle();
+                if (key == UNSUPPORTED_HANDLE || value == UNSUPPORTED_HANDLE) {
+                    return UNSUPPORTED;
+                }
+                if (key == NULL_HANDLE || value == NULL_HANDLE) {
+                    continue;
+                }
+                int index = indexOfKey(handleOffsets[key], handleLengths[key]);
+                if (index >= 0) {
+                    projected.put(keys[index], decodeString(handleOffsets[value], handleLengths[value]));
+                }
+            }
+            return readByte() == TC_ENDBLOCKDATA ? projected : UNSUPPORTED;
+        }
+
+        private boolean readPrimitiveField(char typeCode, byte[] name) {
+            if (readByte() != typeCode) {
+                return false;
+            }
+            int length = readUnsignedShort();
+            boolean match = matches(position, length, name);
+            position += length;
+            return match;
+        }
+
+        /**
+         * TC_STRING, TC_LONGSTRING, TC_REFERENCE(String을 가리키는 경우), TC_NULL만 허용한다.
+         */
+        private int readStringHandle() {
+            byte tc = readByte();
+            switch (tc) {
+                case TC_STRING:
+                case TC_LONGSTRING:
+                    return newString(tc);
+                case TC_REFERENCE:
+                    int handle = readInt() - BASE_WIRE_HANDLE;
+                    return handle >= 0 && handle < handleCount && handleOffsets[handle] >= 0 ? handle : UNSUPPORTED_HANDLE;
+                case TC_NULL:
+                    return NULL_HANDLE;
+                default:
+                    return UNSUPPORTED_HANDLE;
+            }
+        }
+
+        private int newString(byte tc) {
+            long length = tc == TC_STRING ? readUnsignedShort() : readLong();
+            if (length < 0 || length > limit - position) {
+                throw new IndexOutOfBoundsException();
+            }
+            int handle = newHandle();
+            handleOffsets[handle] = position;
+            handleLengths[handle] = (int) length;
+            position += (int) length;
+            return handle;
+        }
+
+        private int newHandle() {
+            if (handleCount == handleOffsets.length) {
+                handleOffsets = Arrays.copyOf(handleOffsets, handleCount * 2);
+                handleLengths = Arrays.copyOf(handleLengths, handleCount * 2);
+            }
+            handleOffsets[handleCount] = -1;
+            return handleCount++;
+        }
+
+        private int indexOfKey(int offset, int length) {
+            for (int i = 0; i < keys.length; i++) {
+                byte[] ascii = asciiKeys[i];
+                boolean match = ascii != null
+                    ? matches(offset, length, ascii)
+                    : keys[i].equals(decodeString(offset, length));
+                if (match) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean matches(int offset, int length, byte[] expected) {
+            if (length != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(offset + i) != expected[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Modified UTF-8 (DataInput#readUTF 형식)
+         */
+        private String decodeString(int offset, int length) {
+            char[] chars = new char[length];
+            int count = 0;
+            int end = offset + length;
+            int i = offset;
+            while (i < end) {
+                int b = buffer.get(i) & 0xff;
+                if (b < 0x80) {
+                    chars[count++] = (char) b;
+                    i++;
+                } else if ((b & 0xe0) == 0xc0) {
+                    chars[count++] = (char) (((b & 0x1f) << 6) | (continuation(i + 1, end)));
+                    i += 2;
+                } else if ((b & 0xf0) == 0xe0) {
+                    chars[count++] = (char) (((b & 0x0f) << 12) | (continuation(i + 1, end) << 6) | continuation(i + 2, end));
+                    i += 3;
+                } else {
+                    throw new IllegalArgumentException("Malformed modified UTF-8");
+                }
+            }
+            return new String(chars, 0, count);
+        }
+
+        private int continuation(int index, int end) {
+            int b = index < end ? buffer.get(index) & 0xff : 0;
+            if ((b & 0xc0) != 0x80) {
+                throw new IllegalArgumentException("Malformed modified UTF-8");
+            }
+            return b & 0x3f;
+        }
+
+        private byte readByte() {
+            checkAvailable(1);
+            return buffer.get(position++);
+        }
+
+        private short readShort() {
+            checkAvailable(2);
+            short value = buffer.getShort(position);
+            position += 2;
+            return value;
+        }
+
+        private int readUnsignedShort() {
+            return readShort() & 0xffff;
+        }
+
+        private int readInt() {
+            checkAvailable(4);
+            int value = buffer.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        private long readLong() {
+            checkAvailable(8);
+            long value = buffer.getLong(position);
+            position += 8;
+            return value;
+        }
+
+        private void checkAvailable(int bytes) {
+            if (position < 0 || limit - position < bytes) {
+                throw new IndexOutOfBoundsException();
+            }
+        }
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == 0 || c >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] ascii(String value) {
+        byte[] bytes = new byte[value.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) value.charAt(i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,55 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.serializer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.Assert;
+
+/**
+ * 세션 해시 값(JDK 직렬화)을 읽는 {@link RedisElementReader}.<br>
+ * <p></p>
+ * * String, HashMap&lt;String, String&gt;은 Lettuce가 넘겨준 ByteBuffer를 직접 읽어 필요한 키(projectedKeys)만 담은 Map을 만든다.
+ * ObjectInputStream과 전체 Map을 만들지 않으므로 요청당 할당이 줄어든다.<br>
+ * * 그 외 형태는 허용 목록({@link AllowlistDeserializingConverter})이 적용된 JDK 역직렬화로 읽는다.<br>
+ * * 쓰기는 기존과 같은 JDK 직렬화이다.
+ */
+@Slf4j
+public class ProjectingSessionValueReader implements RedisElementReader<Object> {
+
+    private final JdkStringMapStreamDecoder decoder;
+
+    private final RedisSerializer<Object> fallback;
+
+    public ProjectingSessionValueReader(List<String> projectedKeys, List<String> allowedClasses) {
+        Assert.notEmpty(projectedKeys, "세션에서 읽을 키가 존재하지 않습니다");
+        this.decoder = new JdkStringMapStreamDecoder(projectedKeys.toArray(new String[0]));
+        this.fallback = new JdkSerializationRedisSerializer(
+            new JdkSerializationRedisSerializer()::serialize,
+            new AllowlistDeserializingConverter(allowedClasses)::convert);
+    }
+
+    /**
+     * 읽기는 이 Reader, 쓰기는 JDK 직렬화를 사용하는 SerializationPair.
+     */
+    public static SerializationPair<Object> pair(List<String> projectedKeys, List<String> allowedClasses) {
+        ProjectingSessionValueReader reader = new ProjectingSessionValueReader(projectedKeys, allowedClasses);
+        return SerializationPair.just(reader, RedisElementWriter.from(reader.fallback));
+    }
+
+    @Override
+    public Object read(ByteBuffer buffer) {
+        Object value = decoder.decode(buffer);
+        if (value != JdkStringMapStreamDecoder.UNSUPPORTED) {
+            return value;
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        log.debug("[SessionValueReader] Unsupported stream layout, falling back to JDK deserialization ({} bytes)", bytes.length);
+        return fallback.deserialize(bytes);
+    }
+}
@@ -0,0 +1,35 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.serializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 세션 해시 값 디코더 설정. "spring.redis.principal-session.value-decoder" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class SessionValueDecoderProperties {
+    /**
+     * {@link ProjectingSessionValueReader} 사용 여부. 기본값은 JdkSerializationRedisSerializer 그대로 사용.
+     */
+    private boolean enabled = false;
+
+    /**
+     * 세션 Map에서 꺼낼 키. 그 외 키는 읽지 않고 건너뛴다.
+     */
+    private List<String> projectedKeys = new ArrayList<>(List.of(
+        StaticValues.USER_ID, StaticValues.USER_NAME, StaticValues.SCK_MBBR_NO, StaticValues.USER_TYPE, StaticValues.APP_ID));
+
+    /**
+     * JDK 역직렬화(Fallback)에서 허용할 클래스 패턴 (ObjectInputFilter 형식, 배열은 원소 타입으로 검사).<br>
+     * java.util.Map$Entry, java.lang.Object는 HashMap, Map.of(...)의 역직렬화가 내부적으로 만드는 배열의 원소 타입이다.
+     */
+    private List<String> allowedClasses = new ArrayList<>(List.of(
+        "java.util.HashMap", "java.util.LinkedHashMap", "java.util.Map$Entry", "java.util.CollSer", "java.util.ImmutableCollections$*",
+        "java.lang.Object", "java.lang.String", "java.lang.Number", "java.lang.Integer", "java.lang.Long", "java.lang.Boolean"));
+}
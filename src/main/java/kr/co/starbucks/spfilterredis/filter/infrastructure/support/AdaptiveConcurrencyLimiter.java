@@ -0,0 +1,148 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+/**
+ * 측정한 RTT로 동시 실행 한도를 조정하는 Vegas 방식의 동시 실행 수 제한(Bulkhead).<br>
+ * <p></p>
+ * * 한도를 넘는 호출은 레디스로 보내지 않고 {@link LimitExceededException}으로 즉시 실패한다(shed).
+ * 호출자는 이를 바이패스하거나 로컬 캐시의 값으로 응답한다.<br>
+ * * 큐 길이 추정치 = limit × (1 - noLoadRtt / rtt). 추정치가 작으면 한도를 늘리고(alpha = 3·log10(limit)),
+ * 크면(beta = 6·log10(limit)) 줄인다. 오류로 끝난 호출도 한도를 줄인다.<br>
+ * * 동시 실행 수가 한도의 절반에 못 미치면(부하가 적으면) 한도를 늘리지 않는다.<br>
+ * * 한도는 "concurrency.limit", 실행 중인 호출 수는 "concurrency.in.flight", 거절한 호출 수는 "concurrency.shed" 메트릭으로 노출된다.
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long noLoadRttResetNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // 아래는 모두 this로 보호한다.
+    private double estimatedLimit;
+
+    private long noLoadRttNanos;
+
+    private long noLoadRttMeasuredAt;
+
+    private Counter shed;
+
+    public AdaptiveConcurrencyLimiter(String name, ConcurrencyLimitProperties properties) {
+        Assert.hasText(name, "Limiter 이름이 존재하지 않습니다");
+        Assert.isTrue(properties.getMinLimit() > 0 && properties.getMinLimit() <= properties.getMaxLimit(),
+            "minLimit은 0보다 크고 maxLimit 이하여야 합니다");
+        this.name = name;
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.noLoadRttResetNanos = properties.getNoLoadRttResetInterval().toNanos();
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> operation) {
+        return Mono.defer(() -> {
+            int current = inFlight.incrementAndGet();
+            if (current > limit) {
+                inFlight.decrementAndGet();
+                if (shed != null) {
+                    shed.increment();
+                }
+                return Mono.error(new LimitExceededException(name));
+            }
+            long start = System.nanoTime();
+            // 결과를 전달하기 전에 반납하여, 결과를 받고 바로 다음 호출을 하는 구독자가 거절되지 않도록 한다.
+            return operation.get()
+                .doOnSuccess(value -> release(start, current, false))
+                .doOnError(error -> release(start, current, true))
+                // 취소된 호출(e.g. 지연 예산 초과)의 RTT는 알 수 없다.
+                .doOnCancel(inFlight::decrementAndGet);
+        });
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current adaptive limit of concurrent Redis lookups")
+            .tag("name", name)
+            .register(registry);
+        Gauge.builder("concurrency.in.flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+            .description("Redis lookups in flight")
+            .tag("name", name)
+            .register(registry);
+        this.shed = Counter.builder("concurrency.shed")
+            .description("Lookups rejected because the concurrency limit was reached")
+            .tag("name", name)
+            .register(registry);
+    }
+
+    private void release(long start, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        onSample(System.nanoTime() - start, inFlightAtStart, dropped);
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        long now = System.nanoTime();
+        if (noLoadRttNanos == 0 || now - noLoadRttMeasuredAt > noLoadRttResetNanos) {
+            // 기준 RTT를 다시 측정한다. 이후 더 작은 RTT가 관측되면 그 값으로 내려간다.
+            noLoadRttNanos = Math.max(1, rttNanos);
+            noLoadRttMeasuredAt = now;
+            return;
+        }
+        noLoadRttNanos = Math.max(1, Math.min(noLoadRttNanos, rttNanos));
+
+        double current = estimatedLimit;
+        double log = Math.max(1, Math.log10(current));
+        double next;
+        if (dropped) {
+            next = current - log;
+        } else if (inFlightAtStart * 2 < current) {
+            return;
+        } else {
+            double queueSize = Math.ceil(current * (1 - (double) noLoadRttNanos / Math.max(rttNanos, noLoadRttNanos)));
+            if (queueSize <= log) {
+                next = current + 6 * log;
+            } else if (queueSize < 3 * log) {
+                next = current + log;
+            } else if (queueSize > 6 * log) {
+                next = current - log;
+            } else {
+                return;
+            }
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * 동시 실행 한도를 넘어 레디스로 보내지 않은 호출.
+     */
+    public static class LimitExceededException extends RuntimeException {
+        public LimitExceededException(String name) {
+            super("Concurrency limit of '" + name + "' exceeded", null, false, false);
+        }
+    }
+}
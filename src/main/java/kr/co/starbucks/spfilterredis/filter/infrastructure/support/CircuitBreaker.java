@@ -0,0 +1,206 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * 호출 횟수 기반 Circuit Breaker.<br>
+ * <p></p>
+ * * CLOSED: 최근 slidingWindowSize개 호출의 실패율이 임계치 이상이면 OPEN으로 전환한다.<br>
+ * * OPEN: 호출하지 않고 {@link OpenException}으로 즉시 실패한다. waitInOpenState가 지나면 HALF_OPEN으로 전환한다.<br>
+ * * HALF_OPEN: permittedCallsInHalfOpenState개의 호출만 허용하고, 그 결과의 실패율로 CLOSED 혹은 OPEN을 결정한다.<br>
+ * * 오류로 끝났거나 slowCallNanos 이상 걸린 뒤 취소(e.g. 지연 예산 초과)된 호출을 실패로 본다.
+ * 상태가 바뀌기 전에 시작한 호출의 결과는 새 상태에 반영하지 않는다.<br>
+ * * 상태는 "circuit.breaker.state"(0: CLOSED, 1: OPEN, 2: HALF_OPEN), 호출 결과는 "circuit.breaker.calls" 메트릭으로 노출된다.
+ */
+@Slf4j
+public class CircuitBreaker implements MeterBinder {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+
+    private final int failureRateThreshold;
+
+    private final int minimumCalls;
+
+    private final long waitInOpenNanos;
+
+    private final int permittedCallsInHalfOpen;
+
+    private final long slowCallNanos;
+
+    // 최근 호출 결과 (true = 실패). CLOSED, HALF_OPEN에서 사용한다. (this)
+    private final boolean[] outcomes;
+
+    private int outcomeIndex;
+
+    private int recordedCalls;
+
+    private int failedCalls;
+
+    private int halfOpenPermits;
+
+    private long openedAt;
+
+    private volatile State state = State.CLOSED;
+
+    // 상태가 바뀔 때마다 증가한다. 호출 시작 시점의 값과 다르면 결과를 버린다.
+    private volatile long generation;
+
+    private Counter successes;
+
+    private Counter failures;
+
+    private Counter rejections;
+
+    public CircuitBreaker(String name, CircuitBreakerProperties properties, long slowCallNanos) {
+        Assert.hasText(name, "Circuit breaker 이름이 존재하지 않습니다");
+        Assert.isTrue(properties.getSlidingWindowSize() > 0, "slidingWindowSize는 0보다 커야 합니다");
+        Assert.isTrue(properties.getPermittedCallsInHalfOpenState() > 0, "permittedCallsInHalfOpenState는 0보다 커야 합니다");
+        this.name = name;
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.minimumCalls = Math.min(properties.getMinimumCalls(), properties.getSlidingWindowSize());
+        this.waitInOpenNanos = properties.getWaitInOpenState().toNanos();
+        this.permittedCallsInHalfOpen = properties.getPermittedCallsInHalfOpenState();
+        this.slowCallNanos = slowCallNanos;
+        this.outcomes = new boolean[Math.max(properties.getSlidingWindowSize(), permittedCallsInHalfOpen)];
+    }
+
+    public <T> Mono<T> execute(Mono<T> source) {
+        return Mono.defer(() -> {
+            long permit = tryAcquire(System.nanoTime());
+            if (permit < 0) {
+                if (rejections != null) {
+                    rejections.increment();
+                }
+                return Mono.error(new OpenException(name));
+            }
+            long start = System.nanoTime();
+            return source.doFinally(signal -> {
+                if (signal == SignalType.ON_ERROR) {
+                    record(permit, true);
+                } else if (signal != SignalType.CANCEL) {
+                    record(permit, false);
+                } else if (System.nanoTime() - start >= slowCallNanos) {
+                    record(permit, true);
+                } else {
+                    release(permit);
+                }
+            });
+        });
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        this.successes = callCounter(registry, "success");
+        this.failures = callCounter(registry, "failure");
+        this.rejections = callCounter(registry, "rejected");
+        Gauge.builder("circuit.breaker.state", this, b -> b.state.ordinal())
+            .description("Circuit breaker state (0: closed, 1: open, 2: half-open)")
+            .tag("name", name)
+            .register(registry);
+    }
+
+    private Counter callCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("circuit.breaker.calls")
+            .description("Calls through the circuit breaker, by outcome")
+            .tag("name", name)
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * @return 호출 허용 시 현재 generation, 거부 시 -1
+     */
+    private long tryAcquire(long now) {
+        if (state == State.CLOSED) {
+            return generation;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (now - openedAt < waitInOpenNanos) {
+                    return -1;
+                }
+                transitionTo(State.HALF_OPEN, now);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    return -1;
+                }
+                halfOpenPermits--;
+            }
+            return generation;
+        }
+    }
+
+    private synchronized void release(long permit) {
+        if (permit == generation && state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    private synchronized void record(long permit, boolean failed) {
+        Counter counter = failed ? failures : successes;
+        if (counter != null) {
+            counter.increment();
+        }
+        if (permit != generation || state == State.OPEN) {
+            return;
+        }
+        int window = state == State.CLOSED ? outcomes.length : permittedCallsInHalfOpen;
+        if (recordedCalls == window) {
+            failedCalls -= outcomes[outcomeIndex] ? 1 : 0;
+        } else {
+            recordedCalls++;
+        }
+        outcomes[outcomeIndex] = failed;
+        failedCalls += failed ? 1 : 0;
+        outcomeIndex = (outcomeIndex + 1) % window;
+
+        boolean exceeded = failedCalls * 100 >= failureRateThreshold * recordedCalls;
+        if (state == State.CLOSED) {
+            if (recordedCalls >= minimumCalls && exceeded) {
+                transitionTo(State.OPEN, System.nanoTime());
+            }
+        } else if (recordedCalls == permittedCallsInHalfOpen) {
+            transitionTo(exceeded ? State.OPEN : State.CLOSED, System.nanoTime());
+        }
+    }
+
+    private void transitionTo(State next, long now) {
+        log.warn("[CircuitBreaker] {}: {} -> {} (failed {}/{})", name, state, next, failedCalls, recordedCalls);
+        state = next;
+        generation++;
+        outcomeIndex = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+        if (next == State.OPEN) {
+            openedAt = now;
+        } else if (next == State.HALF_OPEN) {
+            halfOpenPermits = permittedCallsInHalfOpen;
+        }
+    }
+
+    /**
+     * OPEN(혹은 HALF_OPEN에서 허용 호출 수를 초과) 상태여서 호출하지 않았음.
+     */
+    public static class OpenException extends RuntimeException {
+        public OpenException(String name) {
+            super("Circuit breaker '" + name + "' is open", null, false, false);
+        }
+    }
+}
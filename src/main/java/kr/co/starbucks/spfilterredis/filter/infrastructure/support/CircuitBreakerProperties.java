@@ -0,0 +1,40 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 레디스 역할(세션, 마이그레이션 상태)별 Circuit Breaker 설정.<br>
+ * "sp-filter.latency-budget.circuit-breaker" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class CircuitBreakerProperties {
+    /**
+     * 실패율(%)이 이 값 이상이면 OPEN으로 전환한다.
+     */
+    private int failureRateThreshold = 50;
+
+    /**
+     * 실패율을 계산하는 최근 호출 수.
+     */
+    private int slidingWindowSize = 100;
+
+    /**
+     * 이보다 적은 호출로는 실패율을 계산하지 않는다.
+     */
+    private int minimumCalls = 20;
+
+    /**
+     * OPEN 상태를 유지하는 시간. 지나면 HALF_OPEN으로 전환하여 복구 여부를 확인한다.
+     */
+    private Duration waitInOpenState = Duration.ofSeconds(5);
+
+    /**
+     * HALF_OPEN 상태에서 허용하는 확인용 호출 수. 이 호출들의 실패율로 CLOSED 혹은 OPEN을 결정한다.
+     */
+    private int permittedCallsInHalfOpenState = 5;
+}
@@ -0,0 +1,34 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 레디스 조회 동시 실행 수 제한(Adaptive concurrency limit) 설정.<br>
+ * 역할(세션, 마이그레이션 상태)별로 "spring.redis.principal-*.concurrency-limit" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class ConcurrencyLimitProperties {
+    /**
+     * 동시 실행 수 제한 사용 여부. 기본값은 사용하지 않음.
+     */
+    private boolean enabled = false;
+
+    /**
+     * 시작 시의 동시 실행 한도. 이후 측정한 RTT에 따라 minLimit ~ maxLimit 사이에서 조정된다.
+     */
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 1000;
+
+    /**
+     * 부하가 없을 때의 RTT(no-load RTT)를 다시 측정하는 주기. 레디스 서버나 네트워크 경로가 바뀌어도 기준이 갱신된다.
+     */
+    private Duration noLoadRttResetInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,263 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+/**
+ * 읽기 조회가 백분위 지연시간(e.g. p95) 안에 끝나지 않으면 같은 조회를 다른 커넥션/노드로 한 번 더 보내고
+ * 먼저 도착한 응답을 사용한다(Hedged request).<br>
+ * <p></p>
+ * * 헤지 지연은 직전 window 동안의 조회 지연시간 분포에서 계산한다. 헤지로 취소된 조회는 취소 시점까지의 시간을 기록한다.<br>
+ * * 조회마다 budget만큼의 토큰이 쌓이고 헤지 요청 하나가 토큰 하나를 쓴다. 따라서 헤지 요청은 전체 조회의 budget 비율을 넘지 않는다.<br>
+ * * empty(값 없음)도 응답이므로 바로 반환한다. 먼저 보낸 조회의 실패는 그대로 전달하고, 헤지 요청의 실패는 무시한다.<br>
+ * * 전체 조회 수는 "hedge.requests", 헤지 요청 수는 "hedge.sent", 헤지 요청이 먼저 응답한 수는 "hedge.wins",
+ * 현재 헤지 지연은 "hedge.delay" 메트릭으로 노출된다.
+ */
+public class Hedging implements MeterBinder {
+
+    // 토큰 하나 = 헤지 요청 하나. 정수 연산을 위해 천 단위로 나눈다.
+    private static final long TOKEN = 1000;
+
+    // 한 번에 몰아서 보낼 수 있는 최대 헤지 요청 수
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    // 이보다 표본이 적은 window는 헤지 지연을 다시 계산하지 않는다.
+    private static final long MIN_SAMPLES = 100;
+
+    private final String name;
+
+    private final double percentile;
+
+    private final long minDelayNanos;
+
+    private final long maxDelayNanos;
+
+    private final long tokensPerRequest;
+
+    private final long windowNanos;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    private volatile long delayNanos;
+
+    private Counter requests;
+
+    private Counter sent;
+
+    private Counter wins;
+
+    public Hedging(String name, HedgingProperties properties) {
+        Assert.hasText(name, "Hedging 이름이 존재하지 않습니다");
+        Assert.isTrue(properties.getPercentile() > 0 && properties.getPercentile() < 1, "percentile은 0과 1 사이여야 합니다");
+        Assert.isTrue(properties.getBudget() >= 0 && properties.getBudget() <= 1, "budget은 0과 1 사이여야 합니다");
+        this.name = name;
+        this.percentile = properties.getPercentile();
+        this.minDelayNanos = properties.getMinDelay().toNanos();
+        this.maxDelayNanos = properties.getMaxDelay().toNanos();
+        this.tokensPerRequest = Math.round(properties.getBudget() * TOKEN);
+        this.windowNanos = properties.getWindow().toNanos();
+        this.delayNanos = clamp(properties.getInitialDelay().toNanos());
+    }
+
+    /**
+     * @param primary 항상 구독된다.
+     * @param backup  primary가 헤지 지연 안에 끝나지 않고 budget이 남아 있을 때만 구독된다.
+     */
+    public <V> Mono<V> execute(Supplier<Mono<V>> primary, Supplier<Mono<V>> backup) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            rotateIfNeeded(start);
+            deposit();
+            if (requests != null) {
+                requests.increment();
+            }
+
+            AtomicBoolean recorded = new AtomicBoolean();
+            Mono<Reply<V>> first = primary.get()
+                .map(value -> new Reply<>(value, false))
+                .defaultIfEmpty(Reply.empty(false))
+                .doFinally(signal -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        histogram.record(System.nanoTime() - start);
+                    }
+                });
+            Mono<Reply<V>> second = Mono.delay(Duration.ofNanos(delayNanos))
+                .flatMap(tick -> {
+                    if (!withdraw()) {
+                        return Mono.never();
+                    }
+                    if (sent != null) {
+                        sent.increment();
+                    }
+                    return backup.get()
+                        .map(value -> new Reply<>(value, true))
+                        .defaultIfEmpty(Reply.empty(true))
+                        // 헤지 요청의 실패는 무시하고 먼저 보낸 조회를 기다린다.
+                        .onErrorResume(e -> Mono.never());
+                });
+            return Mono.firstWithSignal(first, second)
+                .flatMap(reply -> {
+                    if (reply.hedged && wins != null) {
+                        wins.increment();
+                    }
+                    return Mono.justOrEmpty(reply.value);
+                });
+        });
+    }
+
+    public Duration currentDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        this.requests = Counter.builder("hedge.requests")
+            .description("Lookups that went through the hedging policy")
+            .tag("name", name)
+            .register(registry);
+        this.sent = Counter.builder("hedge.sent")
+            .description("Hedged (duplicate) lookups sent after the hedge delay")
+            .tag("name", name)
+            .register(registry);
+        this.wins = Counter.builder("hedge.wins")
+            .description("Hedged lookups that answered before the original lookup")
+            .tag("name", name)
+            .register(registry);
+        Gauge.builder("hedge.delay", this, h -> h.delayNanos / 1e9)
+            .description("Current hedge delay")
+            .tag("name", name)
+            .baseUnit("seconds")
+            .register(registry);
+    }
+
+    private void deposit() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= MAX_TOKENS) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(MAX_TOKENS, current + tokensPerRequest)));
+    }
+
+    private boolean withdraw() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    private void rotateIfNeeded(long now) {
+        long start = windowStart.get();
+        if (now - start < windowNanos || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+        long[] counts = histogram.drain();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total >= MIN_SAMPLES) {
+            delayNanos = clamp(LatencyHistogram.percentile(counts, total, percentile));
+        }
+    }
+
+    private long clamp(long nanos) {
+        return Math.max(minDelayNanos, Math.min(maxDelayNanos, nanos));
+    }
+
+    private static final class Reply<V> {
+        private final V value;
+        private final boolean hedged;
+
+        private Reply(V value, boolean hedged) {
+            this.value = value;
+            this.hedged = hedged;
+        }
+
+        private static <V> Reply<V> empty(boolean hedged) {
+            return new Reply<>(null, hedged);
+        }
+    }
+
+    /**
+     * 마이크로초 단위 로그 스케일 히스토그램. 2의 거듭제곱 구간마다 4개의 버킷을 두므로 오차는 25% 이내이다.
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BUCKETS = 4;
+        private static final int MAX_LOG2 = 40;
+        private static final int BUCKETS = MAX_LOG2 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            counts.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMicros(nanos)));
+        }
+
+        /**
+         * 지금까지의 표본을 반환하고 비운다.
+         */
+        long[] drain() {
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.getAndSet(i, 0);
+            }
+            return snapshot;
+        }
+
+        /**
+         * @return 백분위가 속한 버킷의 상한(나노초)
+         */
+        static long percentile(long[] counts, long total, double percentile) {
+            long target = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return TimeUnit.MICROSECONDS.toNanos(upperBound(i));
+                }
+            }
+            return TimeUnit.MICROSECONDS.toNanos(upperBound(counts.length - 1));
+        }
+
+        static int bucketOf(long micros) {
+            if (micros < SUB_BUCKETS) {
+                return (int) Math.max(0, micros);
+            }
+            int log2 = 63 - Long.numberOfLeadingZeros(micros);
+            if (log2 >= MAX_LOG2) {
+                return BUCKETS - 1;
+            }
+            int sub = (int) (micros >>> (log2 - 2)) & (SUB_BUCKETS - 1);
+            return (log2 - 1) * SUB_BUCKETS + sub;
+        }
+
+        static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket + 1;
+            }
+            int log2 = bucket / SUB_BUCKETS + 1;
+            int sub = bucket % SUB_BUCKETS;
+            return (long) (SUB_BUCKETS + sub + 1) << (log2 - 2);
+        }
+    }
+}
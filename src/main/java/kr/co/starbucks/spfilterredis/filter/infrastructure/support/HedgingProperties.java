@@ -0,0 +1,47 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 헤지 요청(Hedged request) 설정.<br>
+ * 역할(세션, 마이그레이션 상태)별로 "spring.redis.principal-*.hedging" 하위 속성에 바인딩된다.
+ */
+@Getter
+@Setter
+@ToString
+public class HedgingProperties {
+    /**
+     * 헤지 요청 사용 여부. 기본값은 사용하지 않음.
+     */
+    private boolean enabled = false;
+
+    /**
+     * 조회가 이 백분위 지연시간 안에 끝나지 않으면 같은 조회를 한 번 더 보낸다. (e.g. 0.95 = p95)
+     */
+    private double percentile = 0.95;
+
+    /**
+     * 지연시간 표본이 충분히 모이기 전에 사용할 헤지 지연.
+     */
+    private Duration initialDelay = Duration.ofMillis(5);
+
+    /**
+     * 헤지 지연의 하한과 상한. 백분위 지연시간이 이 범위를 벗어나면 잘라낸다.
+     */
+    private Duration minDelay = Duration.ofMillis(1);
+
+    private Duration maxDelay = Duration.ofMillis(100);
+
+    /**
+     * 전체 조회 대비 헤지 요청의 최대 비율. (e.g. 0.05 = 최대 5%)
+     */
+    private double budget = 0.05;
+
+    /**
+     * 백분위 지연시간을 다시 계산하는 주기. 직전 주기의 표본만 사용한다.
+     */
+    private Duration window = Duration.ofSeconds(10);
+}
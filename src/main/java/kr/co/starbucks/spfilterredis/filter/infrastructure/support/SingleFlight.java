@@ -0,0 +1,149 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+/**
+ * 같은 키에 대한 동시 조회를 하나로 합친다(Single-flight).<br>
+ * <p></p>
+ * * 진행 중인 조회가 있으면 새 구독자는 그 결과를 함께 받는다. 조회가 끝나면(성공, 오류, empty) 키를 제거하므로
+ * 이후의 호출은 새로 조회한다. 즉 결과를 캐시하지 않는다.<br>
+ * * 취소는 참조 카운트로 처리한다. 모든 구독자가 취소했을 때만 진행 중인 조회를 취소하며,
+ * 일부 구독자의 취소(e.g. 타임아웃)는 다른 구독자에게 영향을 주지 않는다.<br>
+ * * 합쳐진 호출 수는 "single.flight.joined", 진행 중인 키 수는 "single.flight.in.flight" 메트릭으로 노출된다.
+ *
+ * @param <K> 조회 키 (e.g. JSESSIONID)
+ * @param <V> 조회 결과
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+
+    private final ConcurrentHashMap<K, Flight> flights = new ConcurrentHashMap<>();
+
+    private Counter joined;
+
+    public SingleFlight(String name) {
+        Assert.hasText(name, "Single-flight 이름이 존재하지 않습니다");
+        this.name = name;
+    }
+
+    /**
+     * @param source 진행 중인 조회가 없을 때만 구독된다.
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> source) {
+        return Mono.defer(() -> {
+            for (;;) {
+                Flight flight = flights.computeIfAbsent(key, Flight::new);
+                if (flight.acquire()) {
+                    return flight.join(source);
+                }
+                // 모든 구독자가 취소하여 중단된 조회. 제거 후 다시 시도한다.
+                flights.remove(key, flight);
+            }
+        });
+    }
+
+    public int inFlight() {
+        return flights.size();
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        this.joined = Counter.builder("single.flight.joined")
+            .description("Callers that joined an in-flight lookup instead of issuing their own")
+            .tag("name", name)
+            .register(registry);
+        Gauge.builder("single.flight.in.flight", this, SingleFlight::inFlight)
+            .description("Keys with a lookup in flight")
+            .tag("name", name)
+            .register(registry);
+    }
+
+    private final class Flight {
+        private final K key;
+
+        private final Sinks.One<V> sink = Sinks.one();
+
+        // 구독자 수. -1이면 중단되어 더 이상 참여할 수 없다.
+        private final AtomicInteger subscribers = new AtomicInteger();
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private final Disposable.Swap upstream = Disposables.swap();
+
+        private volatile boolean done;
+
+        private Flight(K key) {
+            this.key = key;
+        }
+
+        private boolean acquire() {
+            for (;;) {
+                int current = subscribers.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (subscribers.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private Mono<V> join(Supplier<Mono<V>> source) {
+            if (started.compareAndSet(false, true)) {
+                // 모든 구독자가 먼저 취소했다면 update()가 새 구독을 즉시 취소한다.
+                upstream.update(source.get().subscribe(
+                    value -> {
+                        finish();
+                        sink.tryEmitValue(value);
+                    },
+                    error -> {
+                        finish();
+                        sink.tryEmitError(error);
+                    },
+                    () -> {
+                        finish();
+                        sink.tryEmitEmpty();
+                    }
+                ));
+            } else if (joined != null) {
+                joined.increment();
+            }
+            return sink.asMono()
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        release();
+                    }
+                });
+        }
+
+        // 결과를 내보내기 전에 제거하여, 이후의 호출이 끝난 조회에 참여하지 않도록 한다.
+        private void finish() {
+            if (!done) {
+                done = true;
+                flights.remove(key, this);
+            }
+        }
+
+        private void release() {
+            if (subscribers.decrementAndGet() == 0 && !done && subscribers.compareAndSet(0, -1)) {
+                flights.remove(key, this);
+                upstream.dispose();
+            }
+        }
+    }
+}
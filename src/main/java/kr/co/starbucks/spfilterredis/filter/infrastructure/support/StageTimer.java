@@ -0,0 +1,57 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import reactor.core.publisher.Mono;
+
+/**
+ * 필터 처리 단계 하나의 소요 시간. 모든 단계가 "request.filter.stage" 타이머를 stage 태그로 나눠 쓴다.<br>
+ * <p></p>
+ * * id: x-sp-customer-id 혹은 JSESSIONID(헤더, 쿠키) 추출<br>
+ * * session, migration, script: 세션, 마이그레이션 상태, 스크립트 조회 (레포지토리 단위, near-cache 등 포함)<br>
+ * * resolve: 조회 전체 (지연 예산, BLOCK 판단 포함)<br>
+ * * total: 필터에 들어와서 다운스트림에 넘기기까지 (block() 대기 혹은 비동기 디스패치 포함)<br>
+ * <p></p>
+ * 분위수는 클라이언트에서 계산하지 않고 고정 버킷(percentile histogram)만 내보낸다.
+ * 기록 비용이 버킷 카운터 증가 정도로 작고, Prometheus의 histogram_quantile로 인스턴스를 합쳐 분위수를 구할 수 있다.
+ */
+public final class StageTimer {
+
+    public static final String NAME = "request.filter.stage";
+
+    private static final Duration MINIMUM_EXPECTED = Duration.ofNanos(1_000);
+    private static final Duration MAXIMUM_EXPECTED = Duration.ofSeconds(5);
+
+    private final Timer timer;
+
+    public StageTimer(String stage, MeterRegistry registry) {
+        this.timer = Timer.builder(NAME)
+            .description("Time spent in each stage of the migration routing filter")
+            .tag("stage", stage)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(MINIMUM_EXPECTED)
+            .maximumExpectedValue(MAXIMUM_EXPECTED)
+            .register(registry);
+    }
+
+    public void record(long nanos) {
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 구독부터 결과(값, empty, 오류)까지의 시간을 기록한다. 취소된 조회는 기록하지 않는다.
+     * doFinally는 다운스트림이 결과를 처리한 뒤에 호출되므로 doOnTerminate를 사용한다.
+     */
+    public <T> Mono<T> time(Mono<T> lookup) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return lookup.doOnTerminate(() -> recordSince(start));
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package kr.co.starbucks.spfilterredis.filter.model;
 
+import java.util.Map;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -17,5 +18,6 @@ public class Principal {
     private String sckMbbrNo;
     private String userType;
     private String appId;
-    private String userStatus;
+    // RouteId -> 마이그레이션 상태 (상태가 없는 라우트는 포함하지 않음)
+    private Map<String, String> routeStatuses;
 }
@@ -0,0 +1,28 @@
+package kr.co.starbucks.spfilterredis.filter.model;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 세션 레디스 해시의 LoginUserInfo(회원), LoginAppId(비회원), UserType 필드를 한 번에 조회한 결과.
+ */
+@Builder
+@Getter
+@ToString
+@EqualsAndHashCode
+public class PrincipalSession {
+    /**
+     * 회원이면 LoginUserInfo, 비회원이면 LoginAppId 값
+     */
+    private final Map<String, String> attributes;
+
+    /**
+     * LoginUserInfo에서 얻은 값이면 true
+     */
+    private final boolean member;
+
+    private final String userType;
+}
@@ -0,0 +1,221 @@
+package kr.co.starbucks.spfilterredis.filter.routing;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import org.springframework.util.Assert;
+
+/**
+ * ${sp-filter.path-rules}를 기동 시 문자 단위 Trie로 컴파일하여 요청마다 어떤 라우트를 조회할지 결정한다.<br>
+ * <p></p>
+ * * 경로 길이만큼 Trie를 한 번 내려가며, 지나온 접두사 중 메서드와 호스트까지 일치하는 가장 긴 규칙을 적용한다.
+ * 같은 접두사의 규칙이 여럿이면 먼저 설정한 규칙이 우선한다.<br>
+ * * 접두사는 경로 세그먼트 단위로 일치해야 한다. 접두사가 "/"로 끝나면 그 뒤 어떤 경로와도 일치한다.<br>
+ * * 일치하는 규칙이 없으면 모든 라우트를 조회한다.<br>
+ * * 서블릿 컨테이너가 정규화(디코딩, 경로 파라미터 제거, "..", "//" 처리)해야 하는 경로는 규칙을 적용하지 않고 모든 라우트를 조회한다.
+ * (e.g. "/actuator/../orders"가 제외 규칙에 걸려 BLOCK 확인을 건너뛰지 않도록)<br>
+ * * 매칭 중에는 객체를 생성하지 않는다. (결과 {@link RouteSet}은 규칙별로 미리 만들어 둔다)
+ */
+public final class PathRuleMatcher {
+
+    private final Node root = new Node();
+
+    private final RouteSet defaultRoutes;
+
+    /**
+     * @param routes ${sp-filter.routes}. 규칙의 routeIds는 이 중에서 고른다.
+     */
+    public PathRuleMatcher(List<RequestFilterProperties.PathRule> rules, List<RequestFilterProperties.Route> routes) {
+        this.defaultRoutes = new RouteSet(routes);
+
+        Map<RouteId, RequestFilterProperties.Route> routesById = new EnumMap<>(RouteId.class);
+        routes.forEach(route -> routesById.put(route.getRouteId(), route));
+
+        for (RequestFilterProperties.PathRule rule : rules) {
+            String prefix = rule.getPathPrefix();
+            Assert.isTrue(prefix != null && prefix.startsWith("/"), "sp-filter.path-rules의 path-prefix는 /로 시작해야 합니다: " + prefix);
+            Node node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.getOrAddChild(prefix.charAt(i));
+            }
+            node.boundary = prefix.endsWith("/");
+            node.pending.add(new CompiledRule(rule, rule.isExclude() ? null : select(rule, routes, routesById)));
+        }
+        root.freeze();
+    }
+
+    /**
+     * @param host 없으면 null (호스트를 지정한 규칙과 일치하지 않음)
+     * @param path 요청 URI (컨텍스트 경로 포함, 쿼리 스트링 제외, 정규화 전)
+     * @return 조회할 라우트. 제외 규칙에 일치하면 null.
+     */
+    public RouteSet match(String method, String host, String path) {
+        if (requiresNormalization(path)) {
+            return defaultRoutes;
+        }
+        CompiledRule best = null;
+        Node node = root;
+        int length = path.length();
+        for (int i = 0; ; i++) {
+            if (node.rules != null && (node.boundary || i == length || path.charAt(i) == '/')) {
+                CompiledRule rule = node.select(method, host);
+                if (rule != null) {
+                    best = rule;
+                }
+            }
+            if (i == length) {
+                break;
+            }
+            node = node.child(path.charAt(i));
+            if (node == null) {
+                break;
+            }
+        }
+        return best == null ? defaultRoutes : best.routes;
+    }
+
+    public RouteSet getDefaultRoutes() {
+        return defaultRoutes;
+    }
+
+    /**
+     * @return 퍼센트 인코딩, 경로 파라미터(;), 역슬래시, 빈 세그먼트(//), 점 세그먼트(., ..)가 있으면 true
+     */
+    static boolean requiresNormalization(String path) {
+        int length = path.length();
+        for (int i = 0; i < length; i++) {
+            char c = path.charAt(i);
+            if (c == '%' || c == ';' || c == '\\') {
+                return true;
+            }
+            if (c == '/' && i + 1 < length) {
+                char next = path.charAt(i + 1);
+                if (next == '/') {
+                    return true;
+                }
+                if (next == '.') {
+                    int end = i + 2;
+                    if (end < length && path.charAt(end) == '.') {
+                        end++;
+                    }
+                    if (end == length || path.charAt(end) == '/') {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static RouteSet select(
+        RequestFilterProperties.PathRule rule,
+        List<RequestFilterProperties.Route> routes,
+        Map<RouteId, RequestFilterProperties.Route> routesById
+    ) {
+        if (rule.getRouteIds().isEmpty()) {
+            return new RouteSet(routes);
+        }
+        List<RequestFilterProperties.Route> selected = new ArrayList<>();
+        for (RouteId routeId : rule.getRouteIds()) {
+            RequestFilterProperties.Route route = routesById.get(routeId);
+            Assert.notNull(route, "sp-filter.path-rules의 route-ids는 sp-filter.routes에 설정된 라우트여야 합니다: " + routeId);
+            if (!selected.contains(route)) {
+                selected.add(route);
+            }
+        }
+        return new RouteSet(selected);
+    }
+
+    private static final class CompiledRule {
+        // 비어 있으면 모든 메서드 / 호스트
+        private final String[] methods;
+        private final String[] hosts;
+
+        // null이면 제외 규칙
+        private final RouteSet routes;
+
+        private CompiledRule(RequestFilterProperties.PathRule rule, RouteSet routes) {
+            this.methods = rule.getMethods().stream().map(m -> m.toUpperCase(Locale.ROOT)).toArray(String[]::new);
+            this.hosts = rule.getHosts().toArray(String[]::new);
+            this.routes = routes;
+        }
+
+        private boolean matches(String method, String host) {
+            return (methods.length == 0 || contains(methods, method, false))
+                && (hosts.length == 0 || (host != null && contains(hosts, host, true)));
+        }
+
+        private static boolean contains(String[] values, String value, boolean ignoreCase) {
+            for (String candidate : values) {
+                if (ignoreCase ? candidate.equalsIgnoreCase(value) : candidate.equals(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Node {
+        // 컴파일 중에만 사용
+        private TreeMap<Character, Node> pendingChildren = new TreeMap<>();
+        private List<CompiledRule> pending = new ArrayList<>();
+
+        // freeze() 이후 사용. labels는 정렬되어 있다.
+        private char[] labels;
+        private Node[] children;
+        private CompiledRule[] rules;
+
+        // 접두사가 "/"로 끝나는지 여부
+        private boolean boundary;
+
+        private Node getOrAddChild(char label) {
+            return pendingChildren.computeIfAbsent(label, l -> new Node());
+        }
+
+        private void freeze() {
+            labels = new char[pendingChildren.size()];
+            children = new Node[pendingChildren.size()];
+            int i = 0;
+            for (Map.Entry<Character, Node> entry : pendingChildren.entrySet()) {
+                labels[i] = entry.getKey();
+                children[i] = entry.getValue();
+                children[i].freeze();
+                i++;
+            }
+            rules = pending.isEmpty() ? null : pending.toArray(new CompiledRule[0]);
+            pendingChildren = null;
+            pending = null;
+        }
+
+        private Node child(char label) {
+            int low = 0;
+            int high = labels.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = labels[mid];
+                if (c < label) {
+                    low = mid + 1;
+                } else if (c > label) {
+                    high = mid - 1;
+                } else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+
+        private CompiledRule select(String method, String host) {
+            for (CompiledRule rule : rules) {
+                if (rule.matches(method, host)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+    }
+}
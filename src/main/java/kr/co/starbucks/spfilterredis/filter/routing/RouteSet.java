@@ -0,0 +1,31 @@
+package kr.co.starbucks.spfilterredis.filter.routing;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 한 요청에서 상태를 조회할 라우트 묶음. 기동 시 만들어 요청 간에 공유한다.
+ */
+@Getter
+@ToString
+public final class RouteSet {
+
+    private final List<RequestFilterProperties.Route> routes;
+
+    // 레디스 Hash 필드 (RouteId.name())
+    private final List<String> routeIds;
+
+    public RouteSet(List<RequestFilterProperties.Route> routes) {
+        this.routes = List.copyOf(routes);
+        this.routeIds = this.routes.stream()
+            .map(route -> route.getRouteId().name())
+            .collect(Collectors.toUnmodifiableList());
+    }
+
+    public int size() {
+        return routes.size();
+    }
+}
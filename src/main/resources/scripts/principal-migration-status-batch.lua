@@ -0,0 +1,24 @@
+-- 여러 고객의 마이그레이션 상태를 한 번의 왕복으로 조회한다. (MigrationStatusBatcher)
+-- standalone 전용이다. (클러스터에서는 키가 모두 같은 슬롯이어야 하고 스크립트가 항상 마스터에서 실행된다)
+--
+-- KEYS[i]: CustomerId
+-- ARGV[i]: RouteId (e.g. XO_SP_ROUTE)
+--
+-- 반환: 각 조회 결과를 순서대로 이어 붙인 문자열
+-- "<길이>:<값>"  : 상태 조회 성공
+-- "-"            : 상태 없음
+-- "!<길이>:<오류>" : 조회 실패 (e.g. WRONGTYPE). 해당 조회만 실패로 처리한다.
+-- Lua 테이블은 nil을 담을 수 없으므로 배열 대신 하나의 문자열로 반환한다.
+
+local out = {}
+for i = 1, #KEYS do
+  local value = redis.pcall('HGET', KEYS[i], ARGV[i])
+  if type(value) == 'table' and value.err then
+    out[i] = '!' .. #value.err .. ':' .. value.err
+  elseif value then
+    out[i] = #value .. ':' .. value
+  else
+    out[i] = '-'
+  end
+end
+return table.concat(out)
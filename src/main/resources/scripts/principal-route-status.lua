@@ -0,0 +1,89 @@
+-- 세션 -> CustomerId(sckMbbrNo) -> 마이그레이션 상태를 한 번의 왕복으로 조회한다.
+-- 세션 레디스와 마이그레이션 상태 레디스가 같은 서버(같은 DB)일 때만 사용할 수 있다.
+--
+-- KEYS[1]: 세션 ID (JSESSIONID)
+-- ARGV[1]: RouteId (e.g. XO_SP_ROUTE)
+-- ARGV[2]: 회원 세션 필드명 (LoginUserInfo)
+-- ARGV[3]: 비회원 세션 필드명 (LoginAppId)
+-- ARGV[4]: CustomerId 항목명 (sckMbbrNo)
+-- ARGV[5]: 사용자 유형 세션 필드명 (UserType)
+-- ARGV[6]: 사용자 유형 항목명 (userType). UserType 필드가 없을 때 세션 값에서 찾는다.
+--
+-- 반환 (개행 구분). M: 회원 세션, G: 비회원 세션
+-- "FOUND\n<M|G>\n<customerId>\n<status>\n<userType>" : 상태 조회 성공
+-- "NOSTATUS\n<customerId>"                       : 마이그레이션 상태 없음
+-- "NOCUSTOMER\n<M|G>\n<userType>"                 : 세션에 CustomerId가 없음 (e.g. 비회원)
+-- "NOSESSION"                           : 세션 없음
+-- "UNREADABLE"                          : 세션 값을 서버에서 해석할 수 없음. 호출자는 일반 경로로 다시 조회해야 한다.
+
+-- java.io.ObjectOutputStream#writeObject(String) 직렬화 결과 (STREAM_MAGIC, STREAM_VERSION, TC_STRING)
+local function java_string(s)
+  return '\172\237\000\005t' .. string.char(math.floor(#s / 256), #s % 256) .. s
+end
+
+-- value의 from 위치에 있는 TC_STRING을 읽는다. 다른 형태이면 nil
+local function read_java_string(value, from)
+  if #value < from + 2 or string.byte(value, from) ~= 116 then
+    return nil
+  end
+  local length = string.byte(value, from + 1) * 256 + string.byte(value, from + 2)
+  local s = string.sub(value, from + 3, from + 2 + length)
+  if #s ~= length then
+    return nil
+  end
+  return s
+end
+
+-- value에서 TC_STRING 항목명 name 바로 뒤의 TC_STRING 값을 찾는다. 없거나 다른 형태이면 nil
+local function find_entry(value, name)
+  local marker = 't' .. string.char(0, #name) .. name
+  local at = string.find(value, marker, 5, true)
+  if not at then
+    return nil, false
+  end
+  return read_java_string(value, at + #marker), true
+end
+
+-- 사용자 유형. UserType 필드가 있으면 String으로 저장된 경우에만, 없으면 세션 값의 userType 항목. 모르면 ''
+local function user_type(value)
+  local field = redis.call('HGET', KEYS[1], java_string(ARGV[5]))
+  if field then
+    if string.sub(field, 1, 4) == '\172\237\000\005' then
+      return read_java_string(field, 5) or ''
+    end
+    return ''
+  end
+  return (find_entry(value, ARGV[6])) or ''
+end
+
+local kind = 'M'
+local value = redis.call('HGET', KEYS[1], java_string(ARGV[2]))
+if not value then
+  kind = 'G'
+  value = redis.call('HGET', KEYS[1], java_string(ARGV[3]))
+end
+if not value then
+  return 'NOSESSION'
+end
+
+-- 직렬화된 객체(TC_OBJECT, TC_CLASSDESC)가 아니면 해석하지 않는다.
+if string.sub(value, 1, 6) ~= '\172\237\000\005sr' then
+  return 'UNREADABLE'
+end
+
+-- HashMap<String, String> 직렬화 본문에서 TC_STRING "sckMbbrNo" 바로 뒤의 TC_STRING 값을 찾는다.
+-- 역참조(TC_REFERENCE), null 등 다른 형태이면 해석하지 않는다.
+local customer, present = find_entry(value, ARGV[4])
+if not present then
+  -- 정상적인 직렬화 값에 항목이 없음 (비회원 세션)
+  return 'NOCUSTOMER\n' .. kind .. '\n' .. user_type(value)
+end
+if not customer or string.find(customer, '[^%w%-_.:]') then
+  return 'UNREADABLE'
+end
+
+local status = redis.call('HGET', customer, ARGV[1])
+if not status then
+  return 'NOSTATUS\n' .. customer
+end
+return 'FOUND\n' .. kind .. '\n' .. customer .. '\n' .. status .. '\n' .. user_type(value)
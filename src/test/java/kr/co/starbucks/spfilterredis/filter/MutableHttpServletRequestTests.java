@@ -0,0 +1,61 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * 주입한 헤더가 대소문자와 관계없이 원래 헤더를 대체하고, 모든 헤더 조회 메서드가 같은 결과를 보이는지 확인한다.
+ */
+class MutableHttpServletRequestTests {
+
+    @Test
+    void injectedHeaderReplacesOriginalRegardlessOfCase() {
+        MockHttpServletRequest original = new MockHttpServletRequest();
+        original.addHeader("X-Sp-Xo-Migration-Yn", "spoofed");
+        original.addHeader("x-sp-customer-id", "20220712112147hilbmq");
+
+        MutableHttpServletRequest request = new MutableHttpServletRequest(original);
+        request.putHeader("x-sp-xo-migration-yn", "N");
+        request.putHeader("X-SP-XO-MIGRATION-YN", "Y");
+        request.putHeader("x-sp-app-route", "on");
+
+        assertEquals("Y", request.getHeader("x-sp-xo-migration-yn"));
+        assertEquals(List.of("Y"), Collections.list(request.getHeaders("X-Sp-Xo-Migration-Yn")));
+        assertEquals(List.of("X-SP-XO-MIGRATION-YN", "x-sp-app-route", "x-sp-customer-id"),
+            Collections.list(request.getHeaderNames()));
+        assertEquals("20220712112147hilbmq", request.getHeader("X-SP-CUSTOMER-ID"));
+    }
+
+    @Test
+    void numericAndDateViewsUseInjectedValue() {
+        MockHttpServletRequest original = new MockHttpServletRequest();
+        original.addHeader("x-retry", "1");
+
+        MutableHttpServletRequest request = new MutableHttpServletRequest(original);
+        request.putHeader("X-Retry", "3");
+        request.putHeader("x-date", "Tue, 15 Nov 1994 08:12:31 GMT");
+        request.putHeader("x-sp-xo-migration-yn", "Y");
+
+        assertEquals(3, request.getIntHeader("x-retry"));
+        assertEquals(784887151000L, request.getDateHeader("X-Date"));
+        assertEquals(-1, request.getIntHeader("x-missing"));
+        assertThrows(NumberFormatException.class, () -> request.getIntHeader("x-sp-xo-migration-yn"));
+        assertThrows(IllegalArgumentException.class, () -> request.getDateHeader("x-sp-xo-migration-yn"));
+    }
+
+    @Test
+    void delegatesWhenNothingInjected() {
+        MockHttpServletRequest original = new MockHttpServletRequest();
+        original.addHeader("x-sp-customer-id", "20220712112147hilbmq");
+
+        MutableHttpServletRequest request = new MutableHttpServletRequest(original);
+
+        assertEquals(List.of("x-sp-customer-id"), Collections.list(request.getHeaderNames()));
+        assertEquals(List.of("20220712112147hilbmq"), Collections.list(request.getHeaders("x-sp-customer-id")));
+    }
+}
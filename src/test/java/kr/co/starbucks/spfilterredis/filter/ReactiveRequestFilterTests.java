@@ -0,0 +1,200 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import kr.co.starbucks.spfilterredis.filter.capture.TrafficCapture;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.exception.InternalServerException;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalMigrationStatusRedisReactiveRepository;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalRouteStatusScriptRepository;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalSessionRedisReactiveRepository;
+import kr.co.starbucks.spfilterredis.filter.model.PrincipalSession;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux 필터가 서블릿 필터({@link RequestFilter})와 같은 헤더를 주입하고,
+ * JSESSIONID를 헤더와 쿠키에서 찾으며, BLOCK과 바이패스를 같은 방식으로 처리하는지 확인한다.
+ */
+class ReactiveRequestFilterTests {
+
+    private static final String SESSION_ID = "3CB361E0BE1A9A7DE7DB926DF0772BAE";
+    private static final String CUSTOMER_ID = "20220712112147hilbmq";
+
+    private final PrincipalSessionRedisReactiveRepository sessionRepository = mock(PrincipalSessionRedisReactiveRepository.class);
+
+    private final PrincipalMigrationStatusRedisReactiveRepository migrationStatusRepository =
+        mock(PrincipalMigrationStatusRedisReactiveRepository.class);
+
+    private final RequestFilterProperties properties = new RequestFilterProperties();
+
+    private final List<ServerWebExchange> downstream = new ArrayList<>();
+
+    @Test
+    void injectsSameHeadersAsServletFilter() throws Exception {
+        for (String status : List.of("ACTIVE", "INACTIVE", "READY")) {
+            givenStatus(Mono.just(Map.of(RouteId.XO_SP_ROUTE.name(), status)));
+
+            String servlet = servletFilter(customerIdRequest()).getHeader(StaticValues.X_SP_XO_MIGRATION_YN);
+            String reactive = reactiveFilter(MockServerHttpRequest.get("/orders/recent")
+                .header(StaticValues.X_SP_CUSTOMER_ID, CUSTOMER_ID))
+                .getRequest().getHeaders().getFirst(StaticValues.X_SP_XO_MIGRATION_YN);
+
+            assertEquals(servlet, reactive, status);
+        }
+        assertEquals("Y", downstream.get(0).getRequest().getHeaders().getFirst(StaticValues.X_SP_XO_MIGRATION_YN));
+        assertEquals("N", downstream.get(1).getRequest().getHeaders().getFirst(StaticValues.X_SP_XO_MIGRATION_YN));
+    }
+
+    @Test
+    void resolvesSessionIdFromHeader() {
+        givenSession();
+        givenStatus(Mono.just(Map.of(RouteId.XO_SP_ROUTE.name(), "ACTIVE")));
+
+        ServerWebExchange exchange = reactiveFilter(MockServerHttpRequest.get("/orders/recent")
+            .header(StaticValues.JSESSIONID, SESSION_ID)
+            .header(HttpHeaders.COOKIE, "JSESSIONID=FROM-COOKIE"));
+
+        verify(sessionRepository).getPrincipalSession(SESSION_ID);
+        verify(migrationStatusRepository).getPrincipalMigrationStatuses(eq(CUSTOMER_ID), anyList());
+        assertEquals("Y", exchange.getRequest().getHeaders().getFirst(StaticValues.X_SP_XO_MIGRATION_YN));
+    }
+
+    @Test
+    void resolvesSessionIdFromCookie() {
+        givenSession();
+        givenStatus(Mono.just(Map.of(RouteId.XO_SP_ROUTE.name(), "ACTIVE")));
+
+        ServerWebExchange exchange = reactiveFilter(MockServerHttpRequest.get("/orders/recent")
+            .header(HttpHeaders.COOKIE, "_ga=GA1.3.1234567890.1668215000; JSESSIONID=" + SESSION_ID + "; _fbp=fb.2.1668215000123"));
+
+        verify(sessionRepository).getPrincipalSession(SESSION_ID);
+        assertEquals("Y", exchange.getRequest().getHeaders().getFirst(StaticValues.X_SP_XO_MIGRATION_YN));
+    }
+
+    @Test
+    void blockIsInternalServerErrorLikeServletFilter() {
+        givenStatus(Mono.just(Map.of(RouteId.XO_SP_ROUTE.name(), "BLOCK")));
+
+        assertThrows(InternalServerException.class, () -> servletFilter(customerIdRequest()));
+        InternalServerException e = assertThrows(InternalServerException.class, () -> reactiveFilter(
+            MockServerHttpRequest.get("/orders/recent").header(StaticValues.X_SP_CUSTOMER_ID, CUSTOMER_ID)));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, e.getStatus());
+        assertTrue(downstream.isEmpty());
+    }
+
+    @Test
+    void bypassesWithoutHeaderLikeServletFilter() throws Exception {
+        // 지연 예산을 넘긴 조회와 상태가 없는 고객은 헤더 없이 그대로 전달
+        properties.getLatencyBudget().setEnabled(true);
+        properties.getLatencyBudget().setTimeout(Duration.ofMillis(20));
+        for (Mono<Map<String, String>> status : List.of(Mono.<Map<String, String>>never(), Mono.<Map<String, String>>empty())) {
+            givenStatus(status);
+
+            assertNull(servletFilter(customerIdRequest()).getHeader(StaticValues.X_SP_XO_MIGRATION_YN));
+            ServerWebExchange exchange = reactiveFilter(MockServerHttpRequest.get("/orders/recent")
+                .header(StaticValues.X_SP_CUSTOMER_ID, CUSTOMER_ID));
+            assertNull(exchange.getRequest().getHeaders().getFirst(StaticValues.X_SP_XO_MIGRATION_YN));
+        }
+        assertEquals(2, downstream.size());
+    }
+
+    @Test
+    void excludedPrefixWithDotSegmentsDoesNotSkipBlock() throws Exception {
+        RequestFilterProperties.PathRule actuator = new RequestFilterProperties.PathRule();
+        actuator.setPathPrefix("/actuator");
+        actuator.setExclude(true);
+        properties.getPathRules().add(actuator);
+        givenStatus(Mono.just(Map.of(RouteId.XO_SP_ROUTE.name(), "BLOCK")));
+
+        // 컨테이너는 "/actuator/../orders"를 "/orders"로 처리하므로 제외 규칙을 적용하지 않고 조회한다.
+        MockHttpServletRequest request = customerIdRequest();
+        request.setRequestURI("/actuator/../orders");
+        assertThrows(InternalServerException.class, () -> servletFilter(request));
+        assertThrows(InternalServerException.class, () -> reactiveFilter(
+            MockServerHttpRequest.get("/actuator/../orders").header(StaticValues.X_SP_CUSTOMER_ID, CUSTOMER_ID)));
+        assertTrue(downstream.isEmpty());
+
+        request.setRequestURI("/actuator/health");
+        assertNull(servletFilter(request).getHeader(StaticValues.X_SP_XO_MIGRATION_YN));
+    }
+
+    private void givenSession() {
+        when(sessionRepository.getPrincipalSession(anyString())).thenReturn(Mono.just(PrincipalSession.builder()
+            .attributes(Map.of(StaticValues.USER_ID, "test", StaticValues.SCK_MBBR_NO, CUSTOMER_ID))
+            .member(true)
+            .build()));
+    }
+
+    private void givenStatus(Mono<Map<String, String>> status) {
+        when(migrationStatusRepository.getPrincipalMigrationStatuses(anyString(), anyList())).thenReturn(status);
+    }
+
+    private PrincipalMigrationStatusResolver resolver() {
+        return new PrincipalMigrationStatusResolver(
+            sessionRepository,
+            migrationStatusRepository,
+            new StaticListableBeanFactory().getBeanProvider(PrincipalRouteStatusScriptRepository.class),
+            properties,
+            new SimpleMeterRegistry()
+        );
+    }
+
+    private static MockHttpServletRequest customerIdRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/recent");
+        request.addHeader(StaticValues.X_SP_CUSTOMER_ID, CUSTOMER_ID);
+        return request;
+    }
+
+    /**
+     * @return 다운스트림이 받은 요청
+     */
+    private HttpServletRequest servletFilter(MockHttpServletRequest request) throws Exception {
+        List<HttpServletRequest> chained = new ArrayList<>();
+        new RequestFilter(resolver(), properties, new StaticListableBeanFactory().getBeanProvider(TrafficCapture.class))
+            .doFilter(request, new MockHttpServletResponse(), (req, res) -> chained.add((HttpServletRequest) req));
+        assertEquals(1, chained.size());
+        return chained.get(0);
+    }
+
+    /**
+     * @return 다운스트림이 받은 exchange
+     */
+    private ServerWebExchange reactiveFilter(MockServerHttpRequest.BaseBuilder<?> request) {
+        int before = downstream.size();
+        new ReactiveRequestFilter(resolver(), properties)
+            .filter(MockServerWebExchange.from(request), exchange -> {
+                downstream.add(exchange);
+                return Mono.empty();
+            })
+            .block(Duration.ofSeconds(5));
+        assertEquals(before + 1, downstream.size());
+        return downstream.get(before);
+    }
+}
@@ -0,0 +1,231 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import kr.co.starbucks.spfilterredis.filter.capture.TrafficCapture;
+import kr.co.starbucks.spfilterredis.filter.common.StaticValues;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.exception.InternalServerException;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalMigrationStatusRedisReactiveRepository;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalRouteStatusScriptRepository;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalSessionRedisReactiveRepository;
+import kr.co.starbucks.spfilterredis.filter.model.PrincipalSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * 비동기 서블릿 모드(sp-filter.async.enabled=true)에서 조회가 끝나면 ASYNC 디스패치로 다운스트림을 호출하고,
+ * BLOCK, 제한 시간 초과, 조회 오류는 동기 모드와 같은 예외로 끝나는지 확인한다.<br>
+ * MockAsyncContext는 실제로 디스패치하지 않으므로 dispatch() 이후의 ASYNC 디스패치는 테스트가 직접 수행한다.
+ */
+class RequestFilterTests {
+
+    private static final String CUSTOMER_ID = "20220712112147hilbmq";
+
+    private final PrincipalSessionRedisReactiveRepository sessionRepository = mock(PrincipalSessionRedisReactiveRepository.class);
+
+    private final PrincipalMigrationStatusRedisReactiveRepository migrationStatusRepository =
+        mock(PrincipalMigrationStatusRedisReactiveRepository.class);
+
+    private final RequestFilterProperties properties = new RequestFilterProperties();
+
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private final List<HttpServletRequest> downstream = new ArrayList<>();
+
+    private final FilterChain chain = (request, response) -> downstream.add((HttpServletRequest) request);
+
+    private RequestFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        properties.getAsync().setEnabled(true);
+        PrincipalMigrationStatusResolver resolver = new PrincipalMigrationStatusResolver(
+            sessionRepository,
+            migrationStatusRepository,
+            new StaticListableBeanFactory().getBeanProvider(PrincipalRouteStatusScriptRepository.class),
+            properties,
+            new SimpleMeterRegistry()
+        );
+        filter = new RequestFilter(resolver, properties, new StaticListableBeanFactory().getBeanProvider(TrafficCapture.class));
+
+        request = new MockHttpServletRequest("GET", "/orders/recent");
+        request.setAsyncSupported(true);
+        request.addHeader(StaticValues.X_SP_CUSTOMER_ID, CUSTOMER_ID);
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void completedLookupResumesChainOnAsyncDispatch() throws Exception {
+        Sinks.One<Map<String, String>> status = Sinks.one();
+        givenStatus(status.asMono());
+
+        filter.doFilter(request, response, chain);
+        assertTrue(request.isAsyncStarted());
+        assertTrue(downstream.isEmpty());
+
+        status.tryEmitValue(Map.of(RouteId.XO_SP_ROUTE.name(), "ACTIVE"));
+        asyncDispatch();
+
+        assertEquals(1, downstream.size());
+        assertEquals("Y", downstream.get(0).getHeader(StaticValues.X_SP_XO_MIGRATION_YN));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void notFoundIsPassedThroughWithoutHeader() throws Exception {
+        givenStatus(Mono.empty());
+
+        filter.doFilter(request, response, chain);
+        asyncDispatch();
+
+        assertEquals(1, downstream.size());
+        assertNull(downstream.get(0).getHeader(StaticValues.X_SP_XO_MIGRATION_YN));
+    }
+
+    @Test
+    void blockIsThrownAsInternalServerErrorOnAsyncDispatch() throws Exception {
+        givenStatus(Mono.just(Map.of(RouteId.XO_SP_ROUTE.name(), "BLOCK")));
+
+        filter.doFilter(request, response, chain);
+        InternalServerException e = assertThrows(InternalServerException.class, this::asyncDispatch);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, e.getStatus());
+        assertTrue(downstream.isEmpty());
+    }
+
+    @Test
+    void lookupErrorIsThrownAsIsOnAsyncDispatch() throws Exception {
+        IllegalStateException error = new IllegalStateException("redis is down");
+        givenStatus(Mono.error(error));
+
+        filter.doFilter(request, response, chain);
+
+        assertSame(error, assertThrows(IllegalStateException.class, this::asyncDispatch));
+        assertTrue(downstream.isEmpty());
+    }
+
+    @Test
+    void lookupTimeoutIsThrownAsInternalServerError() throws Exception {
+        properties.getAsync().setTimeout(Duration.ofMillis(50));
+        AtomicBoolean cancelled = new AtomicBoolean();
+        givenStatus(Mono.<Map<String, String>>never().doOnCancel(() -> cancelled.set(true)));
+
+        filter.doFilter(request, response, chain);
+
+        assertThrows(InternalServerException.class, this::asyncDispatch);
+        assertTrue(cancelled.get());
+        assertTrue(downstream.isEmpty());
+    }
+
+    @Test
+    void containerTimeoutCancelsLookupAndDispatchesOnce() throws Exception {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        givenStatus(Mono.<Map<String, String>>never().doOnCancel(() -> cancelled.set(true)));
+        AtomicInteger dispatches = new AtomicInteger();
+
+        filter.doFilter(request, response, chain);
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        asyncContext.addDispatchHandler(dispatches::incrementAndGet);
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        assertTrue(cancelled.get());
+        assertEquals(1, dispatches.get());
+        assertThrows(InternalServerException.class, this::asyncDispatch);
+    }
+
+    @Test
+    void asyncDispatchDoesNotLookUpAgain() throws Exception {
+        givenStatus(Mono.just(Map.of(RouteId.XO_SP_ROUTE.name(), "ACTIVE")));
+
+        filter.doFilter(request, response, chain);
+        asyncDispatch();
+        // 다운스트림이 시작한 비동기 처리의 디스패치는 조회 없이 그대로 전달
+        filter.doFilter(request, response, chain);
+
+        assertEquals(1, lookups.get());
+        assertEquals(2, downstream.size());
+        assertFalse(downstream.get(1) instanceof MutableHttpServletRequest);
+    }
+
+    @Test
+    void guestSessionIsPassedThroughWithoutMigrationLookup() throws Exception {
+        // 비회원 세션(LoginAppId)에는 SckMbbrNo가 없다.
+        when(sessionRepository.getPrincipalSession("GUEST-SESSION")).thenReturn(Mono.just(PrincipalSession.builder()
+            .attributes(Map.of("appId", "A1"))
+            .member(false)
+            .userType("3")
+            .build()));
+        MockHttpServletRequest guest = new MockHttpServletRequest("GET", "/orders/recent");
+        guest.setAsyncSupported(true);
+        guest.addHeader(StaticValues.JSESSIONID, "GUEST-SESSION");
+        request = guest;
+
+        filter.doFilter(request, response, chain);
+        asyncDispatch();
+
+        assertEquals(1, downstream.size());
+        assertNull(downstream.get(0).getHeader(StaticValues.X_SP_XO_MIGRATION_YN));
+        // null 키로 조회하면 "Key must not be null"로 요청이 실패한다.
+        verify(migrationStatusRepository, never()).getPrincipalMigrationStatuses(any(), any());
+    }
+
+    private void givenStatus(Mono<Map<String, String>> status) {
+        when(migrationStatusRepository.getPrincipalMigrationStatuses(anyString(), anyList())).thenAnswer(invocation -> {
+            lookups.incrementAndGet();
+            return status;
+        });
+    }
+
+    /**
+     * 조회가 끝나 dispatch()가 호출되기를 기다린 뒤 같은 요청을 ASYNC 디스패치한다.
+     */
+    private void asyncDispatch() throws Exception {
+        CountDownLatch dispatched = new CountDownLatch(1);
+        ((MockAsyncContext) request.getAsyncContext()).addDispatchHandler(dispatched::countDown);
+        assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, chain);
+    }
+}
@@ -0,0 +1,47 @@
+package kr.co.starbucks.spfilterredis.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 공백, 따옴표, 비슷한 이름, 중복 이름, 여러 Cookie 헤더, jvmRoute 접미사 처리를 확인한다.
+ */
+class SessionCookieScannerTests {
+
+    private final SessionCookieScanner scanner = new SessionCookieScanner("JSESSIONID", false);
+
+    @Test
+    void findsSessionCookieAmongOthers() {
+        assertEquals("ABC123", scanner.scan("_ga=GA1.2.3; JSESSIONID=ABC123; _gid=GA1.2.4"));
+        assertEquals("ABC123", scanner.scan("JSESSIONID=ABC123"));
+        assertEquals("ABC123", scanner.scan("  JSESSIONID  =  ABC123  ;x=1"));
+        assertEquals("ABC123", scanner.scan("JSESSIONID=\"ABC123\""));
+        assertEquals("ABC123", scanner.scan("flag; a=b=c; MYJSESSIONID=X; jsessionid=Y; JSESSIONID=ABC123"));
+        assertNull(scanner.scan("_ga=GA1.2.3; JSESSIONIDX=ABC123"));
+        assertNull(scanner.scan(""));
+        assertNull(scanner.scan((String) null));
+    }
+
+    @Test
+    void firstNonEmptyValueWinsAcrossDuplicatesAndHeaders() {
+        assertEquals("FIRST", scanner.scan("JSESSIONID=FIRST; JSESSIONID=SECOND"));
+        assertEquals("SECOND", scanner.scan("JSESSIONID=; JSESSIONID=SECOND"));
+        assertEquals("SECOND", scanner.scan(List.of("_ga=GA1.2.3", "JSESSIONID=SECOND", "JSESSIONID=THIRD")));
+        assertEquals("SECOND", scanner.scan(Collections.enumeration(List.of("a=b", "JSESSIONID=SECOND"))));
+    }
+
+    @Test
+    void stripsJvmRouteWhenEnabled() {
+        assertEquals("ABC123.node1", scanner.scan("JSESSIONID=ABC123.node1"));
+
+        SessionCookieScanner stripping = new SessionCookieScanner("JSESSIONID", true);
+        assertEquals("ABC123", stripping.scan("JSESSIONID=ABC123.node1; x=1"));
+        assertEquals("ABC123", stripping.normalize("ABC123.node1"));
+        assertEquals("ABC123", stripping.normalize("ABC123"));
+        assertNull(stripping.normalize(".node1"));
+    }
+}
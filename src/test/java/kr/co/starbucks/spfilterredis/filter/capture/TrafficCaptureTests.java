@@ -0,0 +1,129 @@
+package kr.co.starbucks.spfilterredis.filter.capture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureRecord.Outcome;
+import kr.co.starbucks.spfilterredis.filter.capture.CaptureRecord.RouteStatus;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.Branch;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.model.Principal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+/**
+ * 링 버퍼가 가득 찼을 때 버리는지, 캡처한 레코드가 파일에 그대로 남고 다시 읽히는지 확인한다.
+ */
+class TrafficCaptureTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void ringBufferDropsWhenFullAndDrainsInOrder() {
+        CaptureRingBuffer ringBuffer = new CaptureRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            long offset = i;
+            assertTrue(ringBuffer.offer(r -> r.set(offset, 1, 0, 0, 0, 0, Branch.NONE, Outcome.NOT_FOUND, false, false, false, false, 0)));
+        }
+        assertFalse(ringBuffer.offer(r -> r.set(99, 1, 0, 0, 0, 0, Branch.NONE, Outcome.NOT_FOUND, false, false, false, false, 0)));
+
+        List<Long> offsets = new ArrayList<>();
+        assertEquals(2, ringBuffer.drain(r -> offsets.size() < 2 && offsets.add(r.getOffsetMicros())));
+        assertTrue(ringBuffer.offer(r -> r.set(4, 1, 0, 0, 0, 0, Branch.NONE, Outcome.NOT_FOUND, false, false, false, false, 0)));
+        assertEquals(3, ringBuffer.drain(r -> offsets.add(r.getOffsetMicros())));
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), offsets);
+    }
+
+    @Test
+    void recordsAreWrittenAndReadBack() throws Exception {
+        Path file = dir.resolve("capture.bin");
+        RequestFilterProperties properties = new RequestFilterProperties();
+        RequestFilterProperties.Capture capture = properties.getCapture();
+        capture.setEnabled(true);
+        capture.setSampleRate(1.0);
+        capture.setFile(file.toString());
+        capture.setMaxFileSize(DataSize.ofKilobytes(1));
+        capture.setBufferSize(16);
+        capture.setFlushInterval(Duration.ofMillis(1));
+        capture.setSalt("test");
+
+        TrafficCapture trafficCapture = new TrafficCapture(properties, new SimpleMeterRegistry());
+        CaptureTrace found = trafficCapture.sample(null);
+        assertNotNull(found);
+        found.onSessionId(Branch.SESSION_COOKIE, "SESSION1");
+        Principal principal = Principal.builder()
+            .sckMbbrNo("C1")
+            .routeStatuses(Map.of(RouteId.XO_SP_ROUTE.name(), "ACTIVE"))
+            .build();
+        found.onSession(principal, true);
+        trafficCapture.record(Mono.just(principal), found).block();
+
+        CaptureTrace bypassed = trafficCapture.sample("C2");
+        bypassed.onBypass();
+        trafficCapture.record(Mono.<Principal>empty(), bypassed).block();
+        trafficCapture.close();
+
+        try (CaptureFileReader reader = new CaptureFileReader(file)) {
+            assertEquals(2, reader.size());
+            assertEquals(List.of(RouteId.XO_SP_ROUTE), reader.getRouteIds());
+
+            CaptureRecord record = reader.read(0, new CaptureRecord());
+            assertEquals(Branch.SESSION_COOKIE, record.getBranch());
+            assertEquals(Outcome.FOUND, record.getOutcome());
+            assertEquals(TrafficCapture.hash(TrafficCapture.hash(0, "test"), "SESSION1"), record.getIdHash());
+            assertNotEquals(0, record.getCustomerHash());
+            assertTrue(record.isMember() && record.isSessionFound() && record.isStatusFound());
+            assertEquals(RouteStatus.ACTIVE, record.getRouteStatus(0));
+
+            reader.read(1, record);
+            assertEquals(Branch.CUSTOMER_ID, record.getBranch());
+            assertEquals(Outcome.BYPASS, record.getOutcome());
+            assertEquals(record.getIdHash(), record.getCustomerHash());
+            assertFalse(record.isSessionFound());
+            assertEquals(RouteStatus.NONE, record.getRouteStatus(0));
+        }
+    }
+
+    @Test
+    void stopsSamplingWhenFileIsFull() throws Exception {
+        RequestFilterProperties properties = new RequestFilterProperties();
+        RequestFilterProperties.Capture capture = properties.getCapture();
+        capture.setSampleRate(1.0);
+        capture.setFile(dir.resolve("full.bin").toString());
+        capture.setMaxFileSize(DataSize.ofBytes(CaptureFileWriter.HEADER_SIZE + CaptureRecord.SIZE));
+        capture.setBufferSize(16);
+        capture.setFlushInterval(Duration.ofMillis(1));
+
+        TrafficCapture trafficCapture = new TrafficCapture(properties, new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            CaptureTrace trace = trafficCapture.sample("C" + i);
+            if (trace != null) {
+                trafficCapture.record(Mono.empty(), trace).block();
+            }
+        }
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (trafficCapture.sample("C") != null && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertNull(trafficCapture.sample("C"));
+        trafficCapture.close();
+
+        try (CaptureFileReader reader = new CaptureFileReader(dir.resolve("full.bin"))) {
+            assertEquals(1, reader.size());
+        }
+    }
+}
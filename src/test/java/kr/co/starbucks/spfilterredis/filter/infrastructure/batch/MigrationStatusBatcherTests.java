@@ -0,0 +1,104 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import redis.embedded.RedisServer;
+
+/**
+ * 임베디드 레디스를 대상으로 여러 조회가 한 배치로 나가고 각자의 결과를 받는지 확인한다.<br>
+ * 다른 테스트의 임베디드 레디스(6379, 6380)와 충돌하지 않도록 별도 포트를 사용한다.
+ */
+class MigrationStatusBatcherTests {
+
+    private static final int PORT = 6381;
+    private static final String XO_SP_ROUTE = RouteId.XO_SP_ROUTE.name();
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveStringRedisTemplate template;
+
+    @BeforeAll
+    static void setUp() {
+        redisServer = new RedisServer(PORT);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", PORT));
+        connectionFactory.afterPropertiesSet();
+        template = new ReactiveStringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void splitsOneBatchReplyBetweenCallers() {
+        template.opsForHash().put("batch-active", XO_SP_ROUTE, "ACTIVE").block();
+        template.opsForHash().put("batch-multibyte", XO_SP_ROUTE, "활성:1").block();
+        template.opsForValue().set("batch-wrongtype", "x").block();
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MigrationStatusBatcher batcher = batcher(4, Duration.ofSeconds(5));
+        batcher.bindTo(meterRegistry);
+
+        // maxBatchSize만큼 모이면 window(5초)를 기다리지 않고 보낸다.
+        List<Mono<String>> lookups = List.of(
+            batcher.get("batch-active", XO_SP_ROUTE).defaultIfEmpty("<empty>"),
+            batcher.get("batch-missing", XO_SP_ROUTE).defaultIfEmpty("<empty>"),
+            batcher.get("batch-wrongtype", XO_SP_ROUTE).onErrorResume(InvalidDataAccessApiUsageException.class,
+                e -> Mono.just("<error>")),
+            batcher.get("batch-multibyte", XO_SP_ROUTE).defaultIfEmpty("<empty>")
+        );
+        List<String> results = Flux.mergeSequential(lookups).collectList().block(Duration.ofSeconds(2));
+
+        assertEquals(List.of("ACTIVE", "<empty>", "<error>", "활성:1"), results);
+        assertEquals(1.0, meterRegistry.get("principal.migration.batch.flushes").tag("trigger", "size").counter().count());
+        assertEquals(4.0, meterRegistry.get("principal.migration.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void sendsPartialBatchWhenWindowElapses() {
+        template.opsForHash().put("batch-window", XO_SP_ROUTE, "BLOCK").block();
+
+        MigrationStatusBatcher batcher = batcher(64, Duration.ofMillis(10));
+
+        assertEquals("BLOCK", batcher.get("batch-window", XO_SP_ROUTE).block(Duration.ofSeconds(2)));
+        assertNull(batcher.get("batch-window", "UNKNOWN_ROUTE").block(Duration.ofSeconds(2)));
+    }
+
+    @Test
+    void skipsCancelledLookups() {
+        template.opsForHash().put("batch-alone", XO_SP_ROUTE, "ACTIVE").block();
+
+        MigrationStatusBatcher batcher = batcher(2, Duration.ofSeconds(5));
+
+        // 취소된 조회도 배치 크기에는 포함되지만 스크립트 키에서는 빠진다.
+        batcher.get("batch-cancelled", XO_SP_ROUTE).subscribe().dispose();
+        assertEquals("ACTIVE", batcher.get("batch-alone", XO_SP_ROUTE).block(Duration.ofSeconds(2)));
+    }
+
+    private static MigrationStatusBatcher batcher(int maxBatchSize, Duration window) {
+        MigrationStatusBatchProperties properties = new MigrationStatusBatchProperties();
+        properties.setEnabled(true);
+        properties.setMaxBatchSize(maxBatchSize);
+        properties.setWindow(window);
+        return new MigrationStatusBatcher(template, properties);
+    }
+}
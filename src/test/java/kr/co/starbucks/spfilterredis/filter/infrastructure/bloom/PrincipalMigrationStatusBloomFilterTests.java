@@ -0,0 +1,162 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.bloom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.KeyspaceEvent;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.KeyspaceNotificationProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.PrincipalMigrationStatusKeyspaceListener;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Sinks;
+import redis.embedded.RedisServer;
+
+/**
+ * 임베디드 레디스를 대상으로 빌드한 필터가 없는 고객을 걸러내고 hset 이벤트로 새 고객을 추가하는지,
+ * 구독 구간(epoch)이 바뀌면 필터를 쓰지 않는지, 메모리 상한에 맞춰 크기를 정하는지 확인한다.<br>
+ * 다른 테스트의 임베디드 레디스와 충돌하지 않도록 별도 포트를 사용한다.
+ */
+class PrincipalMigrationStatusBloomFilterTests {
+
+    private static final int PORT = 6382;
+    private static final String XO_SP_ROUTE = RouteId.XO_SP_ROUTE.name();
+    private static final List<String> SEEDED = List.of("20221201000000aaaaaa", "20221201000000bbbbbb", "20221201000000cccccc");
+    private static final List<String> UNSEEDED = List.of("20221201000000dddddd", "20221201000000eeeeee", "20221201000000ffffff");
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveStringRedisTemplate template;
+    private static PrincipalMigrationStatusKeyspaceListener listener;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        redisServer = new RedisServer(PORT);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", PORT));
+        connectionFactory.afterPropertiesSet();
+        template = new ReactiveStringRedisTemplate(connectionFactory);
+        for (String customerId : SEEDED) {
+            template.opsForHash().put(customerId, XO_SP_ROUTE, "ACTIVE").block();
+        }
+
+        KeyspaceNotificationProperties properties = new KeyspaceNotificationProperties();
+        properties.setEnabled(true);
+        properties.setConfigureServer(true);
+        listener = new PrincipalMigrationStatusKeyspaceListener(connectionFactory, properties);
+
+        // 첫 RESYNC 이벤트는 구독이 수립되었음을 의미한다.
+        var subscribed = listener.events().next().toFuture();
+        listener.subscribe();
+        subscribed.get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        listener.unsubscribe();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void rejectsUnseededCustomerUntilHsetEvent() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PrincipalMigrationStatusBloomFilter filter = bloomFilter(listener, meterRegistry);
+        filter.start();
+        try {
+            assertEventually(() -> !filter.mightContain(UNSEEDED.get(0)));
+            SEEDED.forEach(customerId -> assertTrue(filter.mightContain(customerId), customerId));
+            UNSEEDED.forEach(customerId -> assertFalse(filter.mightContain(customerId), customerId));
+            assertTrue(meterRegistry.get("principal.migration.bloom.lookups").tag("result", "skipped").counter().count() >= 3);
+
+            // 빌드 이후에 생긴 고객은 Keyspace Notification으로 추가된다.
+            template.opsForHash().put(UNSEEDED.get(1), XO_SP_ROUTE, "BLOCK").block();
+            assertEventually(() -> filter.mightContain(UNSEEDED.get(1)));
+            assertFalse(filter.mightContain(UNSEEDED.get(2)));
+        } finally {
+            filter.stop();
+            template.delete(UNSEEDED.get(1)).block();
+        }
+    }
+
+    @Test
+    void mightContainEverythingOnceListeningEpochChanges() throws Exception {
+        // 구독이 끊기고 다시 수립되는 시점을 조절하기 위해 구독 구간과 이벤트를 직접 발행한다.
+        AtomicLong epoch = new AtomicLong(1);
+        Sinks.Many<KeyspaceEvent> events = Sinks.many().multicast().directBestEffort();
+        PrincipalMigrationStatusKeyspaceListener stubListener = mock(PrincipalMigrationStatusKeyspaceListener.class);
+        when(stubListener.events()).thenReturn(events.asFlux());
+        when(stubListener.isListening()).thenAnswer(invocation -> epoch.get() >= 0);
+        when(stubListener.getListeningEpoch()).thenAnswer(invocation -> epoch.get());
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PrincipalMigrationStatusBloomFilter filter = bloomFilter(stubListener, meterRegistry);
+        filter.start();
+        try {
+            String customerId = UNSEEDED.get(0);
+            assertEventually(() -> !filter.mightContain(customerId));
+
+            // 구독이 끊긴 동안과 새 구간에서 시작한 빌드가 끝나기 전에는 필터를 쓰지 않는다.
+            epoch.set(-1);
+            assertTrue(filter.mightContain(customerId));
+            epoch.set(2);
+            assertTrue(filter.mightContain(customerId));
+            assertEquals(2.0, meterRegistry.get("principal.migration.bloom.lookups").tag("result", "stale").counter().count());
+
+            events.tryEmitNext(KeyspaceEvent.resync());
+            assertEventually(() -> !filter.mightContain(customerId));
+        } finally {
+            filter.stop();
+        }
+    }
+
+    @Test
+    void createSizesForTargetRateWithinMemoryLimit() {
+        // -n·ln(p) / ln(2)^2 = 9586 비트를 64비트 단위로 올림, k = m/n·ln(2) ≈ 7
+        BloomFilter sized = BloomFilter.create(1_000, 0.01, DataSize.ofMegabytes(1).toBytes());
+        assertEquals(9_600, sized.bitCount());
+        assertEquals(7, sized.hashCount());
+        assertTrue(sized.expectedFalsePositiveRate() < 0.011, "fpp: " + sized.expectedFalsePositiveRate());
+
+        // 메모리 상한이 필요한 크기보다 작으면 상한에 맞추고 오탐률이 올라간다.
+        BloomFilter limited = BloomFilter.create(100_000, 0.01, DataSize.ofKilobytes(8).toBytes());
+        assertEquals(65_536, limited.bitCount());
+        assertEquals(1, limited.hashCount());
+        assertTrue(limited.expectedFalsePositiveRate() > 0.4, "fpp: " + limited.expectedFalsePositiveRate());
+
+        // 작은 필터도 비트 배열은 최소 64비트
+        assertEquals(64, BloomFilter.create(1, 0.5, 1).bitCount());
+    }
+
+    private static PrincipalMigrationStatusBloomFilter bloomFilter(PrincipalMigrationStatusKeyspaceListener keyspaceListener,
+        MeterRegistry meterRegistry) {
+        CustomerBloomFilterProperties properties = new CustomerBloomFilterProperties();
+        properties.setEnabled(true);
+        properties.setRebuildInterval(Duration.ZERO);
+        return new PrincipalMigrationStatusBloomFilter(template, properties, keyspaceListener, meterRegistry);
+    }
+
+    private static void assertEventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,182 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.replica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.KeyspaceEvent;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.KeyspaceNotificationProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.PrincipalMigrationStatusKeyspaceListener;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Sinks;
+import redis.embedded.RedisServer;
+
+/**
+ * 임베디드 레디스를 대상으로 복제본의 적재, Keyspace Notification에 의한 증분 반영,
+ * 구독 구간(epoch)이 바뀐 뒤 재적재가 끝날 때까지 응답하지 않는지 확인한다.<br>
+ * 다른 테스트의 임베디드 레디스와 충돌하지 않도록 별도 포트를 사용한다.
+ */
+class PrincipalMigrationStatusReplicaTests {
+
+    private static final int PORT = 6381;
+    private static final String XO_SP_ROUTE = RouteId.XO_SP_ROUTE.name();
+    private static final String APP_SP_ROUTE = RouteId.APP_SP_ROUTE.name();
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveStringRedisTemplate template;
+    private static PrincipalMigrationStatusKeyspaceListener listener;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        redisServer = new RedisServer(PORT);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", PORT));
+        connectionFactory.afterPropertiesSet();
+        template = new ReactiveStringRedisTemplate(connectionFactory);
+
+        KeyspaceNotificationProperties properties = new KeyspaceNotificationProperties();
+        properties.setEnabled(true);
+        properties.setConfigureServer(true);
+        listener = new PrincipalMigrationStatusKeyspaceListener(connectionFactory, properties);
+
+        // 첫 RESYNC 이벤트는 구독이 수립되었음을 의미한다.
+        var subscribed = listener.events().next().toFuture();
+        listener.subscribe();
+        subscribed.get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        listener.unsubscribe();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void tableKeepsLastDuplicateAndNonLatin1Keys() {
+        StatusDictionary dictionary = new StatusDictionary();
+        byte active = dictionary.encode("ACTIVE");
+        byte block = dictionary.encode("BLOCK");
+
+        MigrationStatusTable.Builder builder = MigrationStatusTable.builder(2);
+        for (int i = 0; i < 5000; i++) {
+            builder.add("customer-" + i, new byte[] {active, StatusDictionary.ABSENT});
+        }
+        // SCAN은 같은 키를 다시 반환할 수 있다. 마지막 값이 남아야 한다.
+        builder.add("customer-42", new byte[] {block, active});
+        builder.add("고객-1", new byte[] {block, StatusDictionary.ABSENT});
+        builder.add("café", new byte[] {StatusDictionary.ABSENT, block});
+        MigrationStatusTable table = builder.build();
+
+        assertEquals(5002, table.size());
+        assertEquals(block, table.code("customer-42", 0));
+        assertEquals(active, table.code("customer-42", 1));
+        assertEquals(active, table.code("customer-4999", 0));
+        assertEquals(block, table.code("고객-1", 0));
+        assertEquals(block, table.code("café", 1));
+        assertEquals(StatusDictionary.ABSENT, table.code("customer-5000", 0));
+        assertEquals(StatusDictionary.ABSENT, table.code("고객-2", 0));
+        // Latin-1 바이트로 저장된 키와 하위 바이트만 같은 문자는 다른 키다.
+        assertEquals(StatusDictionary.ABSENT, table.code("cafǩ", 1));
+    }
+
+    @Test
+    void loadsKeyspaceAndAppliesLaterChanges() throws Exception {
+        template.opsForHash().putAll("20221201000000aaaaaa", Map.of(XO_SP_ROUTE, "ACTIVE", APP_SP_ROUTE, "BLOCK")).block();
+        template.opsForHash().put("고객20221201000000", XO_SP_ROUTE, "READY").block();
+        // 해시가 아닌 키는 건너뛴다.
+        template.opsForValue().set("not-a-hash", "x").block();
+
+        PrincipalMigrationStatusReplica replica = replica(listener);
+        replica.start();
+        try {
+            assertEventually(() -> replica.canServe("20221201000000aaaaaa", XO_SP_ROUTE));
+            assertEquals("ACTIVE", replica.getStatus("20221201000000aaaaaa", XO_SP_ROUTE));
+            assertEquals("BLOCK", replica.getStatus("20221201000000aaaaaa", APP_SP_ROUTE));
+            assertEquals("READY", replica.getStatus("고객20221201000000", XO_SP_ROUTE));
+            assertNull(replica.getStatus("20221201000000bbbbbb", XO_SP_ROUTE));
+            assertFalse(replica.canServe("20221201000000aaaaaa", "UNKNOWN_ROUTE"));
+
+            // 적재 이후의 변경은 Keyspace Notification으로 반영된다.
+            template.opsForHash().put("20221201000000aaaaaa", XO_SP_ROUTE, "BLOCK").block();
+            template.opsForHash().put("20221201000000bbbbbb", XO_SP_ROUTE, "ACTIVE").block();
+            assertEventually(() -> "BLOCK".equals(replica.getStatus("20221201000000aaaaaa", XO_SP_ROUTE)));
+            assertEventually(() -> "ACTIVE".equals(replica.getStatus("20221201000000bbbbbb", XO_SP_ROUTE)));
+
+            template.delete("20221201000000bbbbbb").block();
+            assertEventually(() -> replica.getStatus("20221201000000bbbbbb", XO_SP_ROUTE) == null);
+            assertTrue(replica.canServe("20221201000000aaaaaa", XO_SP_ROUTE));
+        } finally {
+            replica.stop();
+        }
+    }
+
+    @Test
+    void doesNotServeFromSubscriptionDropUntilReloadInNewEpoch() throws Exception {
+        template.opsForHash().put("20221202000000aaaaaa", XO_SP_ROUTE, "ACTIVE").block();
+
+        // 구독이 끊기고 다시 수립되는 시점을 조절하기 위해 구독 구간과 이벤트를 직접 발행한다.
+        AtomicLong epoch = new AtomicLong(1);
+        Sinks.Many<KeyspaceEvent> events = Sinks.many().multicast().directBestEffort();
+        PrincipalMigrationStatusKeyspaceListener stubListener = mock(PrincipalMigrationStatusKeyspaceListener.class);
+        when(stubListener.events()).thenReturn(events.asFlux());
+        when(stubListener.isListening()).thenAnswer(invocation -> epoch.get() >= 0);
+        when(stubListener.getListeningEpoch()).thenAnswer(invocation -> epoch.get());
+
+        PrincipalMigrationStatusReplica replica = replica(stubListener);
+        replica.start();
+        try {
+            assertEventually(() -> replica.canServe("20221202000000aaaaaa", XO_SP_ROUTE));
+
+            // 구독이 끊긴 동안의 변경은 알 수 없다.
+            epoch.set(-1);
+            assertFalse(replica.canServe("20221202000000aaaaaa", XO_SP_ROUTE));
+            template.opsForHash().put("20221202000000aaaaaa", XO_SP_ROUTE, "BLOCK").block();
+
+            // 다시 수립되어도 새 구간에서 시작한 재적재가 끝나기 전에는 응답하지 않는다.
+            epoch.set(2);
+            assertFalse(replica.canServe("20221202000000aaaaaa", XO_SP_ROUTE));
+
+            events.tryEmitNext(KeyspaceEvent.resync());
+            assertEventually(() -> replica.canServe("20221202000000aaaaaa", XO_SP_ROUTE));
+            assertEquals("BLOCK", replica.getStatus("20221202000000aaaaaa", XO_SP_ROUTE));
+        } finally {
+            replica.stop();
+        }
+    }
+
+    private static PrincipalMigrationStatusReplica replica(PrincipalMigrationStatusKeyspaceListener keyspaceListener) {
+        MigrationStatusReplicaProperties properties = new MigrationStatusReplicaProperties();
+        properties.setEnabled(true);
+        properties.setReloadInterval(Duration.ZERO);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("listener", keyspaceListener));
+        return new PrincipalMigrationStatusReplica(template, properties,
+            beanFactory.getBeanProvider(PrincipalMigrationStatusKeyspaceListener.class), new SimpleMeterRegistry());
+    }
+
+    private static void assertEventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,147 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.batch.MigrationStatusBatchProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.bloom.PrincipalMigrationStatusBloomFilter;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.cache.NearCacheProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.KeyspaceNotificationProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.notifications.PrincipalMigrationStatusKeyspaceListener;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.replica.PrincipalMigrationStatusReplica;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.ConcurrencyLimitProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.HedgingProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import redis.embedded.RedisServer;
+
+/**
+ * 임베디드 레디스를 대상으로 near-cache가 Keyspace Notification에 의해 무효화되는지, 여러 라우트를 함께 조회하는지 확인한다.<br>
+ * 애플리케이션 컨텍스트의 임베디드 레디스(6379)와 충돌하지 않도록 별도 포트를 사용한다.
+ */
+class PrincipalMigrationStatusRedisReactiveRepositoryTests {
+
+    private static final int PORT = 6380;
+    private static final String XO_SP_ROUTE = RouteId.XO_SP_ROUTE.name();
+    private static final String APP_SP_ROUTE = RouteId.APP_SP_ROUTE.name();
+    private static final String WEB_SP_ROUTE = RouteId.WEB_SP_ROUTE.name();
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveStringRedisTemplate template;
+    private static PrincipalMigrationStatusKeyspaceListener listener;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        redisServer = new RedisServer(PORT);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", PORT));
+        connectionFactory.afterPropertiesSet();
+        template = new ReactiveStringRedisTemplate(connectionFactory);
+
+        KeyspaceNotificationProperties properties = new KeyspaceNotificationProperties();
+        properties.setEnabled(true);
+        properties.setConfigureServer(true);
+        listener = new PrincipalMigrationStatusKeyspaceListener(connectionFactory, properties);
+
+        // 첫 RESYNC 이벤트는 구독이 수립되었음을 의미한다.
+        var subscribed = listener.events().next().toFuture();
+        listener.subscribe();
+        subscribed.get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        listener.unsubscribe();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void servesCachedStatusUntilKeyspaceEventInvalidatesIt() throws Exception {
+        String customerId = "20220712112147hilbmq";
+        template.opsForHash().put(customerId, XO_SP_ROUTE, "ACTIVE").block();
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PrincipalMigrationStatusRedisReactiveRepository repository = repository(meterRegistry);
+
+        assertEquals("ACTIVE", repository.getPrincipalMigrationStatus(customerId, XO_SP_ROUTE).block());
+        assertEquals("ACTIVE", repository.getPrincipalMigrationStatus(customerId, XO_SP_ROUTE).block());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+
+        template.opsForHash().put(customerId, XO_SP_ROUTE, "BLOCK").block();
+        assertEventually("BLOCK", () -> repository.getPrincipalMigrationStatus(customerId, XO_SP_ROUTE).block());
+
+        repository.close();
+    }
+
+    @Test
+    void invalidatesNegativeEntryWhenCustomerIsAdded() throws Exception {
+        String customerId = "20221112000000abcdef";
+        PrincipalMigrationStatusRedisReactiveRepository repository = repository(new SimpleMeterRegistry());
+
+        assertNull(repository.getPrincipalMigrationStatus(customerId, XO_SP_ROUTE).block());
+
+        template.opsForHash().putAll(customerId, Map.of(XO_SP_ROUTE, "ACTIVE")).block();
+        assertEventually("ACTIVE", () -> repository.getPrincipalMigrationStatus(customerId, XO_SP_ROUTE).block());
+
+        repository.close();
+    }
+
+    @Test
+    void loadsMissingRoutesTogetherAndCachesAbsentOnes() {
+        String customerId = "20221113000000ghijkl";
+        template.opsForHash().putAll(customerId, Map.of(XO_SP_ROUTE, "ACTIVE", APP_SP_ROUTE, "BLOCK")).block();
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PrincipalMigrationStatusRedisReactiveRepository repository = repository(meterRegistry);
+        List<String> routeIds = List.of(XO_SP_ROUTE, APP_SP_ROUTE, WEB_SP_ROUTE);
+
+        Map<String, String> expected = Map.of(XO_SP_ROUTE, "ACTIVE", APP_SP_ROUTE, "BLOCK");
+        assertEquals(expected, repository.getPrincipalMigrationStatuses(customerId, routeIds).block());
+        assertEquals(expected, repository.getPrincipalMigrationStatuses(customerId, routeIds).block());
+        assertEquals(3.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(3.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+
+        repository.close();
+    }
+
+    private static PrincipalMigrationStatusRedisReactiveRepository repository(MeterRegistry meterRegistry) {
+        NearCacheProperties nearCacheProperties = new NearCacheProperties();
+        nearCacheProperties.setEnabled(true);
+        nearCacheProperties.setTtl(Duration.ofMinutes(10));
+        nearCacheProperties.setNegativeTtl(Duration.ofMinutes(10));
+        nearCacheProperties.setRefreshAfter(Duration.ZERO);
+
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("listener", listener));
+        return new PrincipalMigrationStatusRedisReactiveRepository(template, nearCacheProperties,
+            new MigrationStatusBatchProperties(), new HedgingProperties(),
+            beanFactory.getBeanProvider(ReactiveRedisConnectionFactory.class), new ConcurrencyLimitProperties(),
+            beanFactory.getBeanProvider(PrincipalMigrationStatusKeyspaceListener.class),
+            beanFactory.getBeanProvider(PrincipalMigrationStatusReplica.class),
+            beanFactory.getBeanProvider(PrincipalMigrationStatusBloomFilter.class), true, meterRegistry);
+    }
+
+    private static void assertEventually(String expected, Supplier<String> actual) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!expected.equals(actual.get()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, actual.get());
+    }
+}
@@ -0,0 +1,159 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.cache.NearCacheProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.connection.StripedReactiveRedisTemplate;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.repositories.PrincipalRouteStatusScriptRepository.ScriptResult;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.ConcurrencyLimitProperties;
+import kr.co.starbucks.spfilterredis.filter.infrastructure.support.HedgingProperties;
+import kr.co.starbucks.spfilterredis.filter.model.Principal;
+import kr.co.starbucks.spfilterredis.filter.model.PrincipalSession;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import redis.embedded.RedisServer;
+
+/**
+ * 임베디드 레디스에 JDK 직렬화된 회원/비회원 세션을 넣고 스크립트의 FOUND, NOSTATUS, NOCUSTOMER, NOSESSION, UNREADABLE 응답과
+ * 스크립트 결과가 일반 경로(HMGET)의 세션 조회와 같은 회원 여부, 사용자 유형을 돌려주는지 확인한다.<br>
+ * 다른 테스트의 임베디드 레디스와 충돌하지 않도록 별도 포트를 사용한다.
+ */
+class PrincipalRouteStatusScriptRepositoryTests {
+
+    private static final int PORT = 6383;
+    private static final String XO_SP_ROUTE = RouteId.XO_SP_ROUTE.name();
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static ReactiveStringRedisTemplate template;
+    private static ReactiveRedisTemplate<String, Object> sessionTemplate;
+    private static PrincipalRouteStatusScriptRepository scriptRepository;
+    private static PrincipalSessionRedisReactiveRepository sessionRepository;
+
+    @BeforeAll
+    static void setUp() {
+        redisServer = new RedisServer(PORT);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", PORT));
+        connectionFactory.afterPropertiesSet();
+        template = new ReactiveStringRedisTemplate(connectionFactory);
+        // 세션 레디스와 같은 직렬화 (PrincipalSessionRedisConfig)
+        sessionTemplate = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext
+            .<String, Object>newSerializationContext()
+            .key(new StringRedisSerializer())
+            .value(new JdkSerializationRedisSerializer())
+            .hashKey(new JdkSerializationRedisSerializer())
+            .hashValue(new JdkSerializationRedisSerializer())
+            .build());
+
+        scriptRepository = new PrincipalRouteStatusScriptRepository(connectionFactory, connectionFactory,
+            "localhost", PORT, "localhost", PORT, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        sessionRepository = new PrincipalSessionRedisReactiveRepository(StripedReactiveRedisTemplate.single(sessionTemplate),
+            new NearCacheProperties(), new HedgingProperties(),
+            new StaticListableBeanFactory().getBeanProvider(
+                ResolvableType.forClassWithGenerics(ReactiveRedisTemplate.class, String.class, Object.class)),
+            new ConcurrencyLimitProperties(), false, new SimpleMeterRegistry());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void foundReturnsSessionKindAndUserTypeLikeHmget() {
+        putSession("member-1", PrincipalSessionRedisReactiveRepository.MEMBER_SESSION_KEY,
+            Map.of("userId", "U1", "sckMbbrNo", "20221201000000aaaaaa", "userType", "1"));
+        template.opsForHash().put("20221201000000aaaaaa", XO_SP_ROUTE, "ACTIVE").block();
+
+        ScriptResult result = scriptRepository.getPrincipalMigrationStatus("member-1", XO_SP_ROUTE).block();
+
+        assertTrue(result.isReadable());
+        assertTrue(result.isMember());
+        assertEquals(Principal.builder()
+            .sckMbbrNo("20221201000000aaaaaa")
+            .userType("1")
+            .routeStatuses(Map.of(XO_SP_ROUTE, "ACTIVE"))
+            .build(), result.toPrincipal(XO_SP_ROUTE));
+        assertSameAsHmget("member-1", result);
+
+        // UserType 필드가 있으면 세션 값의 userType보다 우선한다.
+        sessionTemplate.opsForHash().put("member-1", PrincipalSessionRedisReactiveRepository.USER_TYPE_KEY, "4").block();
+        result = scriptRepository.getPrincipalMigrationStatus("member-1", XO_SP_ROUTE).block();
+        assertEquals("4", result.getUserType());
+        assertSameAsHmget("member-1", result);
+    }
+
+    @Test
+    void noStatusAndNoSessionAreEmpty() {
+        putSession("member-2", PrincipalSessionRedisReactiveRepository.MEMBER_SESSION_KEY,
+            Map.of("userId", "U2", "sckMbbrNo", "20221201000000bbbbbb"));
+
+        assertNull(scriptRepository.getPrincipalMigrationStatus("member-2", XO_SP_ROUTE).block());
+        assertNull(scriptRepository.getPrincipalMigrationStatus("no-such-session", XO_SP_ROUTE).block());
+    }
+
+    @Test
+    void guestSessionHasNoCustomer() {
+        putSession("guest-1", PrincipalSessionRedisReactiveRepository.GUEST_SESSION_KEY, Map.of("appId", "A1"));
+        sessionTemplate.opsForHash().put("guest-1", PrincipalSessionRedisReactiveRepository.USER_TYPE_KEY, "3").block();
+
+        ScriptResult result = scriptRepository.getPrincipalMigrationStatus("guest-1", XO_SP_ROUTE).block();
+
+        assertTrue(result.isReadable());
+        assertFalse(result.isMember());
+        assertNull(result.getSckMbbrNo());
+        assertEquals(Principal.builder().userType("3").build(), result.toPrincipal(XO_SP_ROUTE));
+        assertSameAsHmget("guest-1", result);
+    }
+
+    @Test
+    void valuesTheScriptCannotParseAreUnreadable() {
+        // JDK 직렬화가 아닌 값
+        template.execute(connection -> connection.hashCommands().hSet(
+                ByteBuffer.wrap("json-1".getBytes(StandardCharsets.UTF_8)),
+                ByteBuffer.wrap(new JdkSerializationRedisSerializer().serialize(PrincipalSessionRedisReactiveRepository.MEMBER_SESSION_KEY)),
+                ByteBuffer.wrap("{\"sckMbbrNo\":\"20221201000000aaaaaa\"}".getBytes(StandardCharsets.UTF_8))))
+            .blockLast();
+        // sckMbbrNo가 String이 아닌 값
+        Map<String, Object> nonString = new HashMap<>(Map.of("userId", "U3", "sckMbbrNo", 20221201L));
+        sessionTemplate.opsForHash().put("non-string-1", PrincipalSessionRedisReactiveRepository.MEMBER_SESSION_KEY, nonString).block();
+
+        assertFalse(scriptRepository.getPrincipalMigrationStatus("json-1", XO_SP_ROUTE).block().isReadable());
+        assertFalse(scriptRepository.getPrincipalMigrationStatus("non-string-1", XO_SP_ROUTE).block().isReadable());
+        assertTrue(scriptRepository.isAvailable());
+    }
+
+    private static void putSession(String sessionId, String field, Map<String, String> attributes) {
+        sessionTemplate.opsForHash().put(sessionId, field, new HashMap<>(attributes)).block();
+    }
+
+    private static void assertSameAsHmget(String sessionId, ScriptResult result) {
+        PrincipalSession session = sessionRepository.getPrincipalSession(sessionId).block();
+        assertEquals(session.isMember(), result.isMember());
+        assertEquals(session.getUserType(), result.getUserType());
+        assertEquals(session.getAttributes().get("sckMbbrNo"), result.getSckMbbrNo());
+    }
+}
@@ -0,0 +1,108 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+/**
+ * 직접 읽은 결과가 JdkSerializationRedisSerializer로 읽은 값(요청한 키만 남긴 것)과 같은지,
+ * 읽을 수 없는 형태는 {@link JdkStringMapStreamDecoder#UNSUPPORTED}로 넘기는지 확인한다.
+ */
+class JdkStringMapStreamDecoderTests {
+
+    private static final List<String> KEYS = List.of("userId", "userName", "sckMbbrNo", "사용자유형");
+
+    private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+
+    private final JdkStringMapStreamDecoder decoder = new JdkStringMapStreamDecoder(KEYS.toArray(new String[0]));
+
+    @Test
+    void hashMapIsProjectedToRequestedKeys() {
+        Map<String, String> session = new HashMap<>();
+        session.put("userId", "U1");
+        session.put("userName", "홍길동");
+        session.put("sckMbbrNo", "C100");
+        session.put("appId", "A1");
+        session.put("nullValue", null);
+
+        assertDecodedAsJdk(session);
+    }
+
+    @Test
+    void immutableMapIsProjectedToRequestedKeys() {
+        assertDecodedAsJdk(Map.of("userId", "U1", "sckMbbrNo", "C100", "appId", "A1"));
+    }
+
+    @Test
+    void backReferencedStringsAreResolved() {
+        // 같은 String 인스턴스는 두 번째부터 TC_REFERENCE로 기록된다. (키와 값, 값과 값)
+        String shared = "userId";
+        Map<String, String> session = new LinkedHashMap<>();
+        session.put("alias", shared);
+        session.put(shared, shared);
+        session.put("userName", shared);
+        HashMap<String, String> hashMap = new HashMap<>(session);
+
+        assertDecodedAsJdk(hashMap);
+    }
+
+    @Test
+    void modifiedUtf8IsDecoded() {
+        Map<String, String> session = new HashMap<>();
+        session.put("사용자유형", "준회원");
+        session.put("userName", "스타벅스 \u0000 😀");
+        session.put("userId", "x".repeat(70_000));     // TC_LONGSTRING
+
+        assertDecodedAsJdk(session);
+    }
+
+    @Test
+    void topLevelStringAndNullAreDecoded() {
+        assertEquals("LoginAppId", decoder.decode(ByteBuffer.wrap(jdk.serialize("LoginAppId"))));
+        assertNull(decoder.decode(ByteBuffer.wrap(jdk.serialize(null))));
+        assertNull(decoder.decode(ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    void otherLayoutsAreUnsupported() {
+        Map<String, Object> nonStringValue = new HashMap<>(Map.of("userId", "U1", "userType", 3));
+        Map<String, String> linkedHashMap = new LinkedHashMap<>(Map.of("userId", "U1"));
+        byte[] truncated = Arrays.copyOf(jdk.serialize(new HashMap<>(Map.of("userId", "U1"))), 40);
+
+        assertSame(JdkStringMapStreamDecoder.UNSUPPORTED, decoder.decode(ByteBuffer.wrap(jdk.serialize(nonStringValue))));
+        assertSame(JdkStringMapStreamDecoder.UNSUPPORTED, decoder.decode(ByteBuffer.wrap(jdk.serialize(linkedHashMap))));
+        assertSame(JdkStringMapStreamDecoder.UNSUPPORTED, decoder.decode(ByteBuffer.wrap(jdk.serialize(3L))));
+        assertSame(JdkStringMapStreamDecoder.UNSUPPORTED, decoder.decode(ByteBuffer.wrap(truncated)));
+        assertSame(JdkStringMapStreamDecoder.UNSUPPORTED, decoder.decode(ByteBuffer.wrap("not serialized".getBytes())));
+    }
+
+    @Test
+    void bufferPositionIsRespected() {
+        byte[] value = jdk.serialize(new HashMap<>(Map.of("userId", "U1")));
+        ByteBuffer buffer = ByteBuffer.allocate(value.length + 8);
+        buffer.position(5);
+        buffer.put(value);
+        buffer.position(5).limit(5 + value.length);
+
+        assertEquals(Map.of("userId", "U1"), decoder.decode(buffer));
+    }
+
+    private void assertDecodedAsJdk(Map<String, ?> session) {
+        byte[] value = jdk.serialize(session);
+        Map<?, ?> expected = ((Map<?, ?>) jdk.deserialize(value)).entrySet().stream()
+            .filter(e -> KEYS.contains(e.getKey()) && e.getValue() != null)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        assertEquals(expected, decoder.decode(ByteBuffer.wrap(value)));
+    }
+}
@@ -0,0 +1,69 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.serializer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.InvalidClassException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 직접 읽을 수 없는 값은 허용 목록이 적용된 JDK 역직렬화 결과와 같은지 확인한다.
+ */
+class ProjectingSessionValueReaderTests {
+
+    private final SessionValueDecoderProperties properties = new SessionValueDecoderProperties();
+
+    private final ProjectingSessionValueReader reader =
+        new ProjectingSessionValueReader(properties.getProjectedKeys(), properties.getAllowedClasses());
+
+    private final JdkSerializationRedisSerializer jdk = new JdkSerializationRedisSerializer();
+
+    @Test
+    void projectedMapKeepsOnlyRequestedKeys() {
+        Map<String, String> session = new HashMap<>(Map.of("userId", "U1", "sckMbbrNo", "C100", "loginDate", "20221101"));
+
+        assertEquals(Map.of("userId", "U1", "sckMbbrNo", "C100"), read(jdk.serialize(session)));
+    }
+
+    @Test
+    void unsupportedLayoutsFallBackToJdkDeserialization() {
+        Map<String, Object> nonStringValue = new HashMap<>(Map.of("userId", "U1", "userType", 3));
+        Map<String, String> linkedHashMap = new LinkedHashMap<>(Map.of("userId", "U1", "userName", "홍길동"));
+
+        assertEquals(nonStringValue, read(jdk.serialize(nonStringValue)));
+        assertEquals(linkedHashMap, read(jdk.serialize(linkedHashMap)));
+        assertEquals(3L, read(jdk.serialize(3L)));
+    }
+
+    @Test
+    void classesOutsideTheAllowlistAreRejected() {
+        byte[] treeMap = jdk.serialize(new TreeMap<>(Map.of("userId", "U1")));
+        byte[] list = jdk.serialize(new ArrayList<>(List.of("U1")));
+
+        assertInstanceOf(InvalidClassException.class, assertThrows(SerializationException.class, () -> read(treeMap)).getRootCause());
+        assertInstanceOf(InvalidClassException.class, assertThrows(SerializationException.class, () -> read(list)).getRootCause());
+    }
+
+    @Test
+    void truncatedValueFailsLikeJdkDeserialization() {
+        byte[] truncated = Arrays.copyOf(jdk.serialize(new HashMap<>(Map.of("userId", "U1"))), 40);
+
+        assertThrows(SerializationException.class, () -> jdk.deserialize(truncated));
+        assertThrows(SerializationException.class, () -> read(truncated));
+    }
+
+    private Object read(byte[] value) {
+        return reader.read(ByteBuffer.wrap(value));
+    }
+}
@@ -0,0 +1,74 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 한도를 넘는 호출의 거절과 RTT, 오류에 따른 한도 조정을 확인한다.
+ */
+class AdaptiveConcurrencyLimiterTests {
+
+    @Test
+    void shedsCallsAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        Disposable[] running = new Disposable[4];
+        for (int i = 0; i < running.length; i++) {
+            running[i] = limiter.execute(Mono::never).subscribe();
+        }
+        assertEquals(4, limiter.getInFlight());
+        assertThrows(AdaptiveConcurrencyLimiter.LimitExceededException.class,
+            () -> limiter.execute(() -> Mono.just("v")).block());
+
+        running[0].dispose();
+        assertEquals("v", limiter.execute(() -> Mono.just("v")).block());
+        assertEquals(3, limiter.getInFlight());
+    }
+
+    @Test
+    void limitGrowsWhileRttStaysFlatUnderLoad() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        for (int round = 0; round < 5; round++) {
+            int concurrency = limiter.getLimit();
+            // RTT 흔들림(스케줄러 지연)이 큐 길이 추정에 주는 영향이 작도록 충분히 긴 지연을 사용
+            Flux.range(0, concurrency)
+                .flatMap(i -> limiter.execute(() -> Mono.delay(Duration.ofMillis(200))), concurrency)
+                .blockLast();
+        }
+        assertTrue(limiter.getLimit() > 20, "limit: " + limiter.getLimit());
+    }
+
+    @Test
+    void limitShrinksOnErrorsDownToMinLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        for (int i = 0; i < 5; i++) {
+            fail(limiter);
+        }
+        assertTrue(limiter.getLimit() < 20, "limit: " + limiter.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            fail(limiter);
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+
+    private static void fail(AdaptiveConcurrencyLimiter limiter) {
+        limiter.execute(() -> Mono.error(new IllegalStateException("redis down")))
+            .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+            .block();
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(initialLimit);
+        properties.setMinLimit(4);
+        properties.setMaxLimit(1000);
+        return new AdaptiveConcurrencyLimiter("test", properties);
+    }
+}
@@ -0,0 +1,70 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * CLOSED -> OPEN -> HALF_OPEN -> CLOSED/OPEN 전환과 느린 호출의 취소를 실패로 세는지 확인한다.
+ */
+class CircuitBreakerTests {
+
+    private static final Duration WAIT_IN_OPEN = Duration.ofMillis(50);
+
+    private final CircuitBreaker circuitBreaker = circuitBreaker();
+
+    @Test
+    void opensWhenFailureRateExceedsThresholdAndClosesAfterSuccessfulProbes() throws InterruptedException {
+        failTimes(5);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CircuitBreaker.OpenException.class, () -> circuitBreaker.execute(Mono.just("v")).block());
+
+        Thread.sleep(WAIT_IN_OPEN.toMillis() + 10);
+        assertEquals("v", circuitBreaker.execute(Mono.just("v")).block());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals("v", circuitBreaker.execute(Mono.just("v")).block());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void failedProbeReopens() throws InterruptedException {
+        failTimes(5);
+        Thread.sleep(WAIT_IN_OPEN.toMillis() + 10);
+
+        assertEquals("v", circuitBreaker.execute(Mono.just("v")).block());
+        failTimes(1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void slowCallCancelledByBudgetCountsAsFailure() {
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.execute(Mono.never())
+                .timeout(Duration.ofMillis(20), Mono.empty())
+                .block();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private void failTimes(int times) {
+        for (int i = 0; i < times; i++) {
+            circuitBreaker.execute(Mono.error(new IllegalStateException("redis down")))
+                .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+                .block();
+        }
+    }
+
+    private static CircuitBreaker circuitBreaker() {
+        CircuitBreakerProperties properties = new CircuitBreakerProperties();
+        properties.setFailureRateThreshold(50);
+        properties.setSlidingWindowSize(10);
+        properties.setMinimumCalls(5);
+        properties.setWaitInOpenState(WAIT_IN_OPEN);
+        properties.setPermittedCallsInHalfOpenState(2);
+        return new CircuitBreaker("test", properties, TimeUnit.MILLISECONDS.toNanos(10));
+    }
+}
@@ -0,0 +1,84 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * 헤지 지연 이후의 중복 조회, budget 제한, 히스토그램 버킷 경계를 확인한다.
+ */
+class HedgingTests {
+
+    private static final Duration SLOW = Duration.ofSeconds(5);
+
+    @Test
+    void slowLookupIsHedgedAndFasterReplyWins() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Hedging hedging = hedging(1.0);
+        hedging.bindTo(meterRegistry);
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+
+        String result = hedging.execute(
+            () -> Mono.delay(SLOW).map(t -> "primary").doOnCancel(() -> primaryCancelled.set(true)),
+            () -> Mono.just("backup")
+        ).block(Duration.ofSeconds(1));
+
+        assertEquals("backup", result);
+        assertTrue(primaryCancelled.get());
+        assertEquals(1.0, meterRegistry.get("hedge.sent").counter().count());
+        assertEquals(1.0, meterRegistry.get("hedge.wins").counter().count());
+    }
+
+    @Test
+    void emptyReplyIsReturnedWithoutHedging() {
+        AtomicInteger backups = new AtomicInteger();
+        Hedging hedging = hedging(1.0);
+
+        assertNull(hedging.execute(Mono::<String>empty, () -> {
+            backups.incrementAndGet();
+            return Mono.just("backup");
+        }).block(Duration.ofSeconds(1)));
+        assertEquals(0, backups.get());
+    }
+
+    @Test
+    void hedgesAreCappedByBudget() {
+        AtomicInteger backups = new AtomicInteger();
+        Hedging hedging = hedging(0.1);
+
+        // 0.1 토큰씩 10번 쌓여야 헤지 요청 하나를 보낼 수 있다.
+        for (int i = 0; i < 20; i++) {
+            hedging.execute(() -> Mono.delay(Duration.ofMillis(20)).map(t -> "primary"), () -> {
+                backups.incrementAndGet();
+                return Mono.just("backup");
+            }).block(Duration.ofSeconds(1));
+        }
+        assertEquals(2, backups.get());
+    }
+
+    @Test
+    void histogramBucketsCoverTheirValues() {
+        for (long micros = 0; micros < 100_000; micros += micros < 100 ? 1 : 97) {
+            int bucket = Hedging.LatencyHistogram.bucketOf(micros);
+            assertTrue(micros < Hedging.LatencyHistogram.upperBound(bucket), "upper bound of " + micros);
+            assertFalse(bucket > 0 && micros < Hedging.LatencyHistogram.upperBound(bucket - 1), "lower bound of " + micros);
+        }
+    }
+
+    private static Hedging hedging(double budget) {
+        HedgingProperties properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setInitialDelay(Duration.ofMillis(5));
+        properties.setBudget(budget);
+        return new Hedging("test", properties);
+    }
+}
@@ -0,0 +1,66 @@
+package kr.co.starbucks.spfilterredis.filter.infrastructure.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * 동시 조회 합치기와 참조 카운트 기반 취소를 확인한다.
+ */
+class SingleFlightTests {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test");
+
+    @Test
+    void concurrentCallersShareOneSubscription() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.One<String> redis = Sinks.one();
+
+        Mono<List<String>> results = Flux.range(0, 10)
+            .flatMap(i -> singleFlight.execute("sid", () -> redis.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet())))
+            .collectList()
+            .cache();
+        results.subscribe();
+        redis.tryEmitValue("principal");
+
+        assertEquals(10, results.block(Duration.ofSeconds(1)).size());
+        assertEquals(1, subscriptions.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void completedFlightIsNotReused() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<String> source = Mono.fromSupplier(() -> "v" + subscriptions.incrementAndGet());
+
+        assertEquals("v1", singleFlight.execute("sid", () -> source).block());
+        assertEquals("v2", singleFlight.execute("sid", () -> source).block());
+    }
+
+    @Test
+    void upstreamIsCancelledOnlyWhenAllCallersCancel() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> source = Mono.<String>never().doOnCancel(() -> cancelled.set(true));
+
+        Disposable first = singleFlight.execute("sid", () -> source).subscribe();
+        Disposable second = singleFlight.execute("sid", () -> source).subscribe();
+
+        first.dispose();
+        assertFalse(cancelled.get());
+        assertEquals(1, singleFlight.inFlight());
+
+        second.dispose();
+        assertTrue(cancelled.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+}
@@ -0,0 +1,101 @@
+package kr.co.starbucks.spfilterredis.filter.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Set;
+import kr.co.starbucks.spfilterredis.filter.config.RequestFilterProperties;
+import kr.co.starbucks.spfilterredis.filter.enums.RouteId;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 가장 긴 접두사 우선, 세그먼트 단위 비교, 메서드와 호스트 조건, 라우트 선택을 확인한다.
+ */
+class PathRuleMatcherTests {
+
+    private static final List<RequestFilterProperties.Route> ROUTES = List.of(
+        route(RouteId.XO_SP_ROUTE, "x-sp-xo-migration-yn"),
+        route(RouteId.APP_SP_ROUTE, "x-sp-app-route"));
+
+    private final PathRuleMatcher matcher = new PathRuleMatcher(List.of(
+        rule("/actuator", true),
+        rule("/static/", true),
+        rule("/api", false, RouteId.APP_SP_ROUTE),
+        rule("/api/orders", false, RouteId.XO_SP_ROUTE),
+        withMethods(rule("/api/orders", true), "POST"),
+        withHosts(rule("/", true), "internal.example.com")
+    ), ROUTES);
+
+    @Test
+    void excludedPathsSkipLookup() {
+        assertNull(matcher.match("GET", "localhost", "/actuator"));
+        assertNull(matcher.match("GET", "localhost", "/actuator/health"));
+        assertNull(matcher.match("GET", "localhost", "/static/app.js"));
+    }
+
+    @Test
+    void prefixMatchesWholeSegmentsOnly() {
+        assertSame(matcher.getDefaultRoutes(), matcher.match("GET", "localhost", "/actuators"));
+        assertSame(matcher.getDefaultRoutes(), matcher.match("GET", "localhost", "/static"));
+        assertEquals(List.of("APP_SP_ROUTE"), matcher.match("GET", "localhost", "/api").getRouteIds());
+        assertSame(matcher.getDefaultRoutes(), matcher.match("GET", "localhost", "/apis/x"));
+    }
+
+    @Test
+    void longestMatchingPrefixWinsAndConditionsApply() {
+        assertEquals(List.of("XO_SP_ROUTE"), matcher.match("GET", "localhost", "/api/orders/1").getRouteIds());
+        assertEquals(List.of("APP_SP_ROUTE"), matcher.match("GET", "localhost", "/api/cards").getRouteIds());
+        // 같은 접두사에서 먼저 설정한 규칙(메서드 무관)이 우선한다.
+        assertEquals(List.of("XO_SP_ROUTE"), matcher.match("POST", "localhost", "/api/orders").getRouteIds());
+
+        assertNull(matcher.match("GET", "INTERNAL.example.com", "/orders"));
+        assertEquals(List.of("APP_SP_ROUTE"), matcher.match("GET", "internal.example.com", "/api/cards").getRouteIds());
+        assertEquals(List.of("XO_SP_ROUTE", "APP_SP_ROUTE"), matcher.match("GET", null, "/orders").getRouteIds());
+    }
+
+    @Test
+    void pathsThatNeedNormalizationAreNotExcluded() {
+        // 컨테이너는 "/actuator/../orders"를 "/orders"로 정규화해 처리하므로 제외 규칙을 적용하면 BLOCK 확인을 건너뛴다.
+        for (String path : List.of("/actuator/../orders", "/actuator/./health", "/actuator;x=1/health", "/actuator/%2e%2e/orders",
+            "/static//app.js", "/static\\..\\orders", "/api/orders/..")) {
+            assertSame(matcher.getDefaultRoutes(), matcher.match("GET", "localhost", path), path);
+        }
+        // 점으로 시작하는 일반 세그먼트는 그대로 매칭
+        assertNull(matcher.match("GET", "localhost", "/static/.well-known/app.js"));
+        assertNull(matcher.match("GET", "localhost", "/static/..js"));
+    }
+
+    @Test
+    void rejectsRoutesThatAreNotConfigured() {
+        List<RequestFilterProperties.PathRule> rules = List.of(rule("/web", false, RouteId.WEB_SP_ROUTE));
+        assertThrows(IllegalArgumentException.class, () -> new PathRuleMatcher(rules, ROUTES));
+    }
+
+    private static RequestFilterProperties.Route route(RouteId routeId, String header) {
+        RequestFilterProperties.Route route = new RequestFilterProperties.Route();
+        route.setRouteId(routeId);
+        route.setHeader(header);
+        return route;
+    }
+
+    private static RequestFilterProperties.PathRule rule(String pathPrefix, boolean exclude, RouteId... routeIds) {
+        RequestFilterProperties.PathRule rule = new RequestFilterProperties.PathRule();
+        rule.setPathPrefix(pathPrefix);
+        rule.setExclude(exclude);
+        rule.setRouteIds(List.of(routeIds));
+        return rule;
+    }
+
+    private static RequestFilterProperties.PathRule withMethods(RequestFilterProperties.PathRule rule, String... methods) {
+        rule.setMethods(Set.of(methods));
+        return rule;
+    }
+
+    private static RequestFilterProperties.PathRule withHosts(RequestFilterProperties.PathRule rule, String... hosts) {
+        rule.setHosts(Set.of(hosts));
+        return rule;
+    }
+}